@@ -23,6 +23,14 @@ type Language = "node" | "java" | "cpp";
 type ExecutionResult = {
   jobId: string;
   status: string;
+  stage?: "QUEUED" | "PROVISIONING" | "COMPILING" | "TESTING";
+  progress?: {
+    total: number;
+    completed: number;
+    running?: number;
+    passed: number;
+    failed: number;
+  };
   result: {
     exitCode: number;
     output: string;
@@ -30,6 +38,13 @@ type ExecutionResult = {
   };
 };
 
+const STAGE_LABEL: Record<NonNullable<ExecutionResult["stage"]>, string> = {
+  QUEUED: "Waiting in queue...",
+  PROVISIONING: "Preparing sandbox...",
+  COMPILING: "Compiling...",
+  TESTING: "Running tests...",
+};
+
 type Props = {
   isAuthenticated: boolean;
   problemId: number;
@@ -43,6 +58,10 @@ const CodeEditor: React.FC<Props> = ({ isAuthenticated, problemId }) => {
   const [showRunSpinner, setShowRunSpinner] = useState(false);
   const [showSubmitSpinner, setShowSubmitSpinner] = useState(false);
   const [showProcessing, setShowProcessing] = useState(false);
+  const [stage, setStage] = useState<ExecutionResult["stage"] | null>(null);
+  const [progress, setProgress] = useState<ExecutionResult["progress"] | null>(
+    null,
+  );
 
   const [executionResult, setExecutionResult] =
     useState<ExecutionResult | null>(null);
@@ -56,10 +75,12 @@ const CodeEditor: React.FC<Props> = ({ isAuthenticated, problemId }) => {
   const [aiFeedback, setAiFeedback] = useState<string | null>(null);
 
   const pollingRef = useRef<number | null>(null);
+  const streamRef = useRef<EventSource | null>(null);
 
   useEffect(() => {
     return () => {
       if (pollingRef.current) clearInterval(pollingRef.current);
+      streamRef.current?.close();
     };
   }, []);
 
@@ -80,7 +101,7 @@ const CodeEditor: React.FC<Props> = ({ isAuthenticated, problemId }) => {
         { withCredentials: true },
       );
 
-      pollStatus(res.data.data, false);
+      watchStatus(res.data.data.jobId, false);
     } catch (error) {
       if (error instanceof AxiosError) {
         console.log(error.response?.data);
@@ -105,7 +126,7 @@ const CodeEditor: React.FC<Props> = ({ isAuthenticated, problemId }) => {
         { withCredentials: true },
       );
 
-      pollStatus(res.data.data, true);
+      watchStatus(res.data.data.jobId, true);
     } catch (error) {
       if (error instanceof AxiosError) {
         console.log(error.response?.data);
@@ -114,7 +135,57 @@ const CodeEditor: React.FC<Props> = ({ isAuthenticated, problemId }) => {
     }
   };
 
-  /* ---------------- POLLING ---------------- */
+  /* ---------------- STATUS ---------------- */
+  const isFinished = (job: ExecutionResult) => {
+    const status = job.status?.toUpperCase();
+    return status === "COMPLETED" || status === "FAILED";
+  };
+
+  const showFinished = (job: ExecutionResult, isSubmit: boolean) => {
+    setExecutionResult(job);
+    setShowResult(true);
+    setIsMaximized(true);
+
+    if (isSubmit) setCanGetAiFeedback(true);
+
+    resetAction();
+  };
+
+  // Server-Sent Events: one "status" event per change, the last one
+  // with the verdict. Falls back to polling if the stream breaks.
+  const watchStatus = (jobId: string, isSubmit: boolean) => {
+    streamRef.current?.close();
+
+    const stream = new EventSource(
+      `http://localhost:5046/api/code/status/${jobId}/stream`,
+      { withCredentials: true },
+    );
+    streamRef.current = stream;
+
+    stream.addEventListener("status", (event) => {
+      const job: ExecutionResult = JSON.parse((event as MessageEvent).data);
+
+      if (isFinished(job)) {
+        stream.close();
+        streamRef.current = null;
+        showFinished(job, isSubmit);
+      } else {
+        setStage(job.stage ?? null);
+        setProgress(job.progress ?? null);
+      }
+    });
+
+    stream.onerror = () => {
+      // Closed before the verdict arrived (stream timeout, proxy cut):
+      // finish by polling instead
+      if (streamRef.current !== stream) return;
+      stream.close();
+      streamRef.current = null;
+      pollStatus(jobId, isSubmit);
+    };
+  };
+
+  /* ---------------- POLLING (fallback) ---------------- */
   const pollStatus = (jobId: string, isSubmit: boolean) => {
     pollingRef.current = setInterval(async () => {
       try {
@@ -123,18 +194,9 @@ const CodeEditor: React.FC<Props> = ({ isAuthenticated, problemId }) => {
           { withCredentials: true },
         );
 
-        const status = res.data.data.status?.toUpperCase();
-
-        if (status === "COMPLETED" || status === "FAILED") {
+        if (isFinished(res.data.data)) {
           clearInterval(pollingRef.current!);
-
-          setExecutionResult(res.data.data);
-          setShowResult(true);
-          setIsMaximized(true);
-
-          if (isSubmit) setCanGetAiFeedback(true);
-
-          resetAction();
+          showFinished(res.data.data, isSubmit);
         }
       } catch {
         clearInterval(pollingRef.current!);
@@ -148,6 +210,8 @@ const CodeEditor: React.FC<Props> = ({ isAuthenticated, problemId }) => {
     setShowRunSpinner(false);
     setShowSubmitSpinner(false);
     setShowProcessing(false);
+    setStage(null);
+    setProgress(null);
   };
 
   /* ---------------- AI FEEDBACK ---------------- */
@@ -260,7 +324,12 @@ const CodeEditor: React.FC<Props> = ({ isAuthenticated, problemId }) => {
 
           {showProcessing && (
             <p className="text-xs text-yellow-600 dark:text-yellow-500">
-              Execution is in process...
+              {progress
+                ? `Test ${progress.running ?? progress.total} of ${progress.total}` +
+                  ` (${progress.passed} passed, ${progress.failed} failed)`
+                : stage
+                  ? STAGE_LABEL[stage]
+                  : "Execution is in process..."}
             </p>
           )}
         </div>
@@ -44,6 +44,7 @@ public class SecurityConfig {
                                                 .hasAnyRole("USER", "ADMIN")
                                                 .pathMatchers(HttpMethod.GET, "/api/problems/**").permitAll()
                                                 .pathMatchers("/api/problems/**").hasAnyRole("ADMIN")
+                                                .pathMatchers("/api/code/rejudge/**").hasAnyRole("ADMIN")
                                                 .pathMatchers("/api/code/**").hasAnyRole("USER", "ADMIN")
                                                 .pathMatchers("/api/users/**").hasAnyRole("USER", "ADMIN")
                                                 .pathMatchers(HttpMethod.GET, "/api/mcq", "/api/mcq/**").permitAll()
@@ -0,0 +1,57 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Stand-in submission used to record which classes javac and a typical
+ * judged program load (build-cds.sh) and to time launches (benchmark.sh).
+ * Touches the library parts solutions commonly use.
+ */
+public class Main {
+
+    public static void main(String[] args) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        PrintWriter out = new PrintWriter(System.out);
+
+        int n = Integer.parseInt(in.readLine().trim());
+        StringTokenizer st = new StringTokenizer(in.readLine());
+        long[] a = new long[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = Long.parseLong(st.nextToken());
+        }
+
+        Arrays.sort(a);
+        List<Long> list = new ArrayList<>();
+        Map<Long, Integer> counts = new HashMap<>();
+        TreeMap<Long, Integer> ordered = new TreeMap<>();
+        Deque<Long> deque = new ArrayDeque<>();
+        PriorityQueue<Long> heap = new PriorityQueue<>(Comparator.reverseOrder());
+        Set<Long> seen = new HashSet<>();
+        for (long x : a) {
+            list.add(x);
+            counts.merge(x, 1, Integer::sum);
+            ordered.put(x, ordered.getOrDefault(x, 0) + 1);
+            deque.addLast(x);
+            heap.add(x);
+            seen.add(x);
+        }
+        Collections.reverse(list);
+
+        Scanner scanner = new Scanner("7 2.5 word");
+        int k = scanner.nextInt();
+        double d = scanner.nextDouble();
+        String w = scanner.next();
+
+        out.println(list.stream().map(String::valueOf).collect(Collectors.joining(" ")));
+        out.println(Arrays.stream(a).sum() + " " + heap.peek() + " " + deque.peekFirst()
+                + " " + ordered.firstKey() + " " + seen.size() + " " + counts.size());
+        out.printf("%d %.3f %s%n", k, d, w.toUpperCase());
+        out.println(BigInteger.valueOf(a[n - 1]).pow(5).mod(BigInteger.valueOf(1_000_000_007)));
+        out.println(String.format("%s", new StringBuilder("done").reverse()));
+        out.flush();
+    }
+}
@@ -0,0 +1,61 @@
+#!/bin/sh
+# Java cold-start benchmark for the judge image, with and without the
+# CDS archives built by build-cds.sh:
+#   docker run --rm --tmpfs /workspace:rw,exec cjs-judge-java:17 sh /opt/cjs/benchmark.sh [RUNS]
+#
+# Prints the mean wall time of RUNS launches of javac /workspace/Main.java
+# and of java -cp /workspace Main, as the judge starts them.
+
+runs=${1:-10}
+
+cds=/opt/cjs/cds
+work=/workspace
+# JvmLaunchProfile.SHORT_LIVED
+short_lived="-XX:TieredStopAtLevel=1 -XX:-UsePerfData"
+
+mkdir -p "$work"
+cp /opt/cjs/bench/Main.java "$work/Main.java"
+printf '5\n3 1 4 1 5\n' > "$work/input"
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# bench LABEL CMD...
+bench() {
+    label=$1
+    shift
+    "$@" < "$work/input" > /dev/null 2>&1 || { printf '%-40s failed\n' "$label"; return; }
+
+    start=$(now_ms)
+    i=0
+    while [ "$i" -lt "$runs" ]; do
+        "$@" < "$work/input" > /dev/null 2>&1
+        i=$((i + 1))
+    done
+    printf '%-40s %6d ms\n' "$label" $(( ($(now_ms) - start) / runs ))
+}
+
+j() {
+    for opt in "$@"; do
+        printf ' -J%s' "$opt"
+    done
+}
+
+echo "mean of $runs launches"
+
+bench "javac  no CDS"                  javac -J-Xshare:off "$work/Main.java"
+bench "javac  JDK default CDS"         javac "$work/Main.java"
+bench "javac  judge archive"           javac -J-XX:SharedArchiveFile=$cds/javac.jsa "$work/Main.java"
+# shellcheck disable=SC2046
+bench "javac  judge archive, SHORT_LIVED" \
+    javac -J-XX:SharedArchiveFile=$cds/javac.jsa $(j $short_lived) "$work/Main.java"
+
+bench "java   no CDS"                  java -Xshare:off -XX:+UseSerialGC -cp "$work" Main
+bench "java   JDK default CDS"         java -XX:+UseSerialGC -cp "$work" Main
+bench "java   judge archive"           java -XX:SharedArchiveFile=$cds/run.jsa -XX:+UseSerialGC -cp "$work" Main
+# shellcheck disable=SC2086
+bench "java   judge archive, SHORT_LIVED" \
+    java -XX:SharedArchiveFile=$cds/run.jsa $short_lived -XX:+UseSerialGC -cp "$work" Main
+
+rm -f "$work/Main.java" "$work/Main.class" "$work/input"
@@ -0,0 +1,36 @@
+#!/bin/sh
+# Builds the class-data-sharing archives of the Java judge image:
+#   /opt/cjs/cds/javac.jsa  classes javac loads compiling a submission
+#   /opt/cjs/cds/run.jsa    classes JudgeRunner and a typical program load
+#
+# The class lists are recorded from the same launches the judge makes
+# (javac /workspace/Main.java, JudgeRunner over /workspace), then dumped
+# as static archives. Static archives hold JDK classes only, so the
+# archive stays valid whatever the classpath is at run time.
+
+set -e
+
+src=/opt/cjs/build
+cds=/opt/cjs/cds
+work=/workspace
+
+mkdir -p "$cds" "$work/in" "$work/.cjs/runner"
+cp "$src/Main.java" "$work/Main.java"
+printf '5\n3 1 4 1 5\n' > "$work/in/1"
+
+javac -J-Xshare:off -J-XX:DumpLoadedClassList="$cds/javac.classlist" "$work/Main.java"
+
+javac -d "$work/.cjs/runner" "$src/JudgeRunner.java"
+echo 1 > "$work/.cjs/next"
+java -Xshare:off -XX:DumpLoadedClassList="$cds/run.classlist" \
+    -XX:+UseSerialGC -Djava.security.manager=allow \
+    -cp "$work/.cjs/runner" JudgeRunner 1 1 10000 20000 1048576 > /dev/null 2>&1 \
+    || [ $? -eq 75 ]
+
+for name in javac run; do
+    java -Xshare:dump -Xlog:cds=warning \
+        -XX:SharedClassListFile="$cds/$name.classlist" \
+        -XX:SharedArchiveFile="$cds/$name.jsa"
+done
+
+rm -rf "$work/Main.java" "$work/Main.class" "$work/in" "$work/.cjs" "$cds"/*.classlist
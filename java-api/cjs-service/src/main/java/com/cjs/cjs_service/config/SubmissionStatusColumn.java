@@ -0,0 +1,47 @@
+package com.cjs.cjs_service.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns submissions.status into a VARCHAR on databases created while it
+ * was mapped as a MySQL ENUM. ddl-auto=update never alters a column, so
+ * such a database rejects statuses added since (MEMORY_LIMIT_EXCEEDED,
+ * OUTPUT_LIMIT_EXCEEDED, ...). Does nothing once the column is a VARCHAR
+ * or before the table exists.
+ */
+@Component
+public class SubmissionStatusColumn {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionStatusColumn.class);
+
+    private final JdbcTemplate jdbc;
+
+    public SubmissionStatusColumn(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    void widen() {
+        try {
+            Integer enums = jdbc.queryForObject("""
+                    SELECT COUNT(*) FROM information_schema.COLUMNS
+                    WHERE TABLE_SCHEMA = DATABASE()
+                      AND TABLE_NAME = 'submissions'
+                      AND COLUMN_NAME = 'status'
+                      AND DATA_TYPE = 'enum'
+                    """, Integer.class);
+            if (enums != null && enums > 0) {
+                jdbc.execute("ALTER TABLE submissions MODIFY COLUMN status VARCHAR(32)");
+                log.info("Changed submissions.status from ENUM to VARCHAR(32)");
+            }
+        } catch (DataAccessException e) {
+            // Not fatal: only new statuses fail to save until it is fixed
+            log.warn("Could not check submissions.status: {}", e.getMessage());
+        }
+    }
+}
@@ -2,20 +2,25 @@ package com.cjs.cjs_service.controller;
 
 import com.cjs.cjs_service.dto.request.CodeRunRequestDto;
 import com.cjs.cjs_service.dto.response.ApiResponseDto;
+import com.cjs.cjs_service.dto.response.ExecutionTicketDto;
 import com.cjs.cjs_service.model.Submission;
 import com.cjs.cjs_service.service.SubmissionService;
 import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutionService;
+import com.cjs.cjs_service.service.codeExecutionSerivce.worker.ExecutionRejectedException;
 
 import jakarta.servlet.http.HttpServletRequest;
 
 import com.cjs.cjs_service.dto.ExecutionJob;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/code")
@@ -36,22 +41,25 @@ public class CodeExecutionController {
         // ===============================
         // @PreAuthorize("isAuthenticated()")
         @PostMapping("/run")
-        public ResponseEntity<ApiResponseDto<String>> runCode(
-                        @RequestBody CodeRunRequestDto dto) {
+        public ResponseEntity<ApiResponseDto<ExecutionTicketDto>> runCode(
+                        @RequestBody CodeRunRequestDto dto,
+                        HttpServletRequest request) {
 
                 System.out.println("Received run code request: " + dto.getSourceCode() + dto.getLanguage() + dto.getProblemId());
 
                 try {
-                        String jobId = service.run(dto);
-                        System.out.println("Created job with ID: " + jobId);
+                        ExecutionTicketDto ticket = service.run(dto, getUserIdOrAnonymous(request));
+                        System.out.println("Created job with ID: " + ticket.getJobId());
 
                         return ResponseEntity.ok(
-                                        new ApiResponseDto<String>(
+                                        new ApiResponseDto<>(
                                                         "Execution started",
-                                                        jobId,
+                                                        ticket,
                                                         true
 
                                         ));
+                } catch (ExecutionRejectedException e) {
+                        return tooManyRequests(e);
                 } catch (Exception e) {
                         return ResponseEntity
                                         .badRequest()
@@ -67,7 +75,7 @@ public class CodeExecutionController {
         // ===============================
         // @PreAuthorize("isAuthenticated()")
         @PostMapping("/submit")
-        public ResponseEntity<ApiResponseDto<String>> submitCode(
+        public ResponseEntity<ApiResponseDto<ExecutionTicketDto>> submitCode(
                         @RequestBody CodeRunRequestDto dto,
                         HttpServletRequest request) {
 
@@ -80,14 +88,16 @@ public class CodeExecutionController {
                                         dto.getSourceCode(),
                                         dto.getLanguage());
 
-                        String jobId = service.submit(dto, submission.getId());
+                        ExecutionTicketDto ticket = service.submit(dto, submission.getId(), userId);
 
                         return ResponseEntity.ok(
                                         new ApiResponseDto<>(
                                                         "Execution started",
-                                                        jobId,
+                                                        ticket,
                                                         true));
 
+                } catch (ExecutionRejectedException e) {
+                        return tooManyRequests(e);
                 } catch (Exception e) {
                         return ResponseEntity.ok(
                                         new ApiResponseDto<>(
@@ -97,6 +107,34 @@ public class CodeExecutionController {
                 }
         }
 
+        // ===============================
+        // Rejudge (admin only, enforced by the gateway)
+        // ===============================
+        @PostMapping("/rejudge/{submissionId}")
+        public ResponseEntity<ApiResponseDto<ExecutionTicketDto>> rejudge(
+                        @PathVariable int submissionId) {
+
+                try {
+                        ExecutionTicketDto ticket = service.rejudge(submissionId);
+
+                        return ResponseEntity.ok(
+                                        new ApiResponseDto<>(
+                                                        "Rejudge started",
+                                                        ticket,
+                                                        true));
+
+                } catch (ExecutionRejectedException e) {
+                        return tooManyRequests(e);
+                } catch (Exception e) {
+                        return ResponseEntity
+                                        .badRequest()
+                                        .body(new ApiResponseDto<>(
+                                                        e.getMessage(),
+                                                        null,
+                                                        false));
+                }
+        }
+
         // ===============================
         // Get Status
         // ===============================
@@ -110,7 +148,6 @@ public class CodeExecutionController {
                 if (job == null) {
                         return ResponseEntity.notFound().build();
                 }
-                 System.out.println("Fetched job status for ID: " + job.getStatus());
 
                 return ResponseEntity.ok(
                                 new ApiResponseDto<>(
@@ -121,6 +158,41 @@ public class CodeExecutionController {
                                 ));
         }
 
+        // ===============================
+        // Stream Status (Server-Sent Events)
+        // ===============================
+        // One "status" event with the job per change, ending with the
+        // final verdict; replaces polling /status/{jobId}
+        @GetMapping(value = "/status/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public ResponseEntity<SseEmitter> streamStatus(
+                        @PathVariable String jobId) {
+
+                SseEmitter emitter = service.streamStatus(jobId);
+
+                if (emitter == null) {
+                        return ResponseEntity.notFound().build();
+                }
+
+                return ResponseEntity.ok()
+                                // Keep proxies from holding events back
+                                .header("X-Accel-Buffering", "no")
+                                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                                .body(emitter);
+        }
+
+        // Queue too long: tell the client when to retry instead of letting
+        // the job wait past any useful point
+        private static <T> ResponseEntity<ApiResponseDto<T>> tooManyRequests(ExecutionRejectedException e) {
+                return ResponseEntity
+                                .status(HttpStatus.TOO_MANY_REQUESTS)
+                                .header(HttpHeaders.RETRY_AFTER,
+                                                String.valueOf(e.getRetryAfterSeconds()))
+                                .body(new ApiResponseDto<>(
+                                                e.getMessage(),
+                                                null,
+                                                false));
+        }
+
         private int getAuthenticatedUserId(HttpServletRequest request) {
 
                 String userIdHeader = request.getHeader("X-User-Id");
@@ -140,4 +212,13 @@ public class CodeExecutionController {
                                         "Invalid user id in token");
                 }
         }
+
+        // Run does not require a user; anonymous runs share one fair-queue slot
+        private int getUserIdOrAnonymous(HttpServletRequest request) {
+                try {
+                        return getAuthenticatedUserId(request);
+                } catch (ResponseStatusException e) {
+                        return -1;
+                }
+        }
 }
@@ -156,6 +156,10 @@ public class ProblemsController {
                 dto.setTitle(problem.getTitle());
                 dto.setDescription(problem.getDescription());
                 dto.setDifficulty(problem.getDifficulty());
+                if (problem.getCheckerMode() != null) {
+                        dto.setCheckerMode(problem.getCheckerMode());
+                }
+                dto.setCheckerEpsilon(problem.getCheckerEpsilon());
 
                 List<String> tags = problem.getProblemTags()
                                 .stream()
@@ -21,8 +21,20 @@ public class CodeExecutionResult {
 
     private SubmissionStatus submissionStatus = SubmissionStatus.PENDING;
 
+    // Slowest test (CPU time) and largest peak RSS across all tests
+    private long timeMs;
+    private long memoryKb;
+
+    // Wall time of compiling the submission (near 0 on a cache hit);
+    // null for languages without a compile step
+    private Long compileTimeMs;
+
     private List<TestCaseResultDto> testCaseResults = new ArrayList<>();
 
+    // Set once the job store has compacted the result: one '1'/'0' per
+    // test, and testCaseResults then only holds the failing tests
+    private String passedMask;
+
 
 }
 
@@ -18,6 +18,12 @@ public class ExecutionJob {
 
     private ExecutionStatus status = ExecutionStatus.PENDING;
 
+    // Cleared once the job is COMPLETED or FAILED
+    private ExecutionStage stage = ExecutionStage.QUEUED;
+
+    // Set while the tests run; cleared once the result is in
+    private ExecutionProgress progress;
+
     private CodeExecutionResult result;
 
     private String error;
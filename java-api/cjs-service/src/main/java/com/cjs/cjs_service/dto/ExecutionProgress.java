@@ -0,0 +1,37 @@
+package com.cjs.cjs_service.dto;
+
+import com.cjs.cjs_service.model.SubmissionStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Tests finished so far in a running job; replaced, not updated, on
+ * every finished test.
+ */
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExecutionProgress {
+
+    private int total;
+    private int completed;
+
+    // 1-based index of the test now running; null once all have finished
+    private Integer running;
+
+    private int passed;
+    private int failed;
+
+    // One '1'/'0' per finished test, in order
+    private String passedMask = "";
+
+    // First failing test so far, which will decide the verdict
+    private Integer firstFailedIndex;
+    private SubmissionStatus firstFailure;
+
+    // Slowest test (CPU time) and largest peak RSS so far
+    private long timeMs;
+    private long memoryKb;
+}
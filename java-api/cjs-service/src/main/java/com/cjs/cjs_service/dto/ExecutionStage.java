@@ -0,0 +1,11 @@
+package com.cjs.cjs_service.dto;
+
+/**
+ * Where an unfinished job is in the pipeline.
+ */
+public enum ExecutionStage {
+    QUEUED,
+    PROVISIONING,
+    COMPILING,
+    TESTING
+}
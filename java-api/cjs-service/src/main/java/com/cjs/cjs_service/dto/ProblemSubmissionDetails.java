@@ -13,5 +13,7 @@ public class ProblemSubmissionDetails {
     private String status;   // 🔑 STRING, NOT ENUM
     private String language;
     private String difficulty;
+    private int executionTimeMs;
+    private int memoryUsedKb;
 
 }
@@ -2,6 +2,7 @@ package com.cjs.cjs_service.dto;
 
 
 
+import com.cjs.cjs_service.model.SubmissionStatus;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 import lombok.Getter;
@@ -17,6 +18,12 @@ public class TestCaseResultDto {
     private String output = "";
     private String expected = "";
     private boolean passed;
+    private int exitCode;
+    private long timeMs;
+    private long cpuTimeMs;
+    private long memoryKb;
+    private String checkerMessage; // first mismatch, for WRONG_ANSWER
+    private SubmissionStatus status;
 
 }
 
@@ -1,6 +1,7 @@
 package com.cjs.cjs_service.dto.request;
 
 import com.cjs.cjs_service.dto.TestCaseDto;
+import com.cjs.cjs_service.model.CheckerMode;
 import com.cjs.cjs_service.model.Difficulty;
 import jakarta.validation.constraints.*;
 import lombok.Getter;
@@ -31,6 +32,12 @@ public class CreateProblemDto {
     @Max(1024)
     private int memoryLimitMb = 1024;
 
+    // null keeps EXACT (create) or the stored mode (update)
+    private CheckerMode checkerMode;
+
+    @PositiveOrZero
+    private double checkerEpsilon;
+
     private boolean isPublished = true;
 
     // Tags as simple strings
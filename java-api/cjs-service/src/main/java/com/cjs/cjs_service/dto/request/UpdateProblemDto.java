@@ -1,5 +1,6 @@
 package com.cjs.cjs_service.dto.request;
 import com.cjs.cjs_service.dto.TestCaseDto;
+import com.cjs.cjs_service.model.CheckerMode;
 import com.cjs.cjs_service.model.Difficulty;
 import jakarta.validation.constraints.*;
 import lombok.Getter;
@@ -30,6 +31,12 @@ public class UpdateProblemDto {
     @Max(1024)
     private int memoryLimitMb;
 
+    // null keeps EXACT (create) or the stored mode (update)
+    private CheckerMode checkerMode;
+
+    @PositiveOrZero
+    private double checkerEpsilon;
+
     private boolean isPublished;
 
     private List<String> tags = new ArrayList<>();
@@ -2,6 +2,7 @@ package com.cjs.cjs_service.dto.response;
 
 
 import com.cjs.cjs_service.dto.TestCaseDto;
+import com.cjs.cjs_service.model.CheckerMode;
 import com.cjs.cjs_service.model.Difficulty;
 
 import lombok.Getter;
@@ -26,5 +27,9 @@ public class AdminGetProblemDto {
 
     private List<String> tags = new ArrayList<>();
 
+    private CheckerMode checkerMode = CheckerMode.EXACT;
+
+    private double checkerEpsilon;
+
     // getters and setters
 }
@@ -0,0 +1,20 @@
+package com.cjs.cjs_service.dto.response;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Returned when a run or submit is accepted: the job to poll and where
+ * it stands in the queue. Both queue fields are estimates; a job served
+ * from the verdict cache has position 0.
+ */
+@Getter
+@Setter
+public class ExecutionTicketDto {
+
+    private String jobId;
+    private int queuePosition;
+    private Instant estimatedStartAt;
+}
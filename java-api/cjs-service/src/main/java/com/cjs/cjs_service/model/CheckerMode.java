@@ -0,0 +1,15 @@
+package com.cjs.cjs_service.model;
+
+/**
+ * How a test's output is compared with the expected output.
+ */
+public enum CheckerMode {
+    // Identical apart from leading/trailing whitespace of the whole output
+    EXACT,
+    // Same whitespace-separated tokens
+    WHITESPACE,
+    // Same tokens, ignoring letter case
+    CASE_INSENSITIVE,
+    // Same tokens; numbers may differ by the problem's epsilon
+    FLOAT
+}
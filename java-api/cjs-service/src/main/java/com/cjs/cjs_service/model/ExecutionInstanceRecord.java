@@ -0,0 +1,29 @@
+package com.cjs.cjs_service.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A running cjs-service instance, kept alive by the heartbeat it writes
+ * with its lease renewals. An instance whose heartbeat is older than a
+ * lease is gone, and the sandbox containers it left behind can be removed.
+ */
+@Entity
+@Table(name = "execution_instances")
+@Getter
+@Setter
+public class ExecutionInstanceRecord {
+
+    @Id
+    @Column(length = 64)
+    private String instanceId;
+
+    @Column(nullable = false)
+    private Instant startedAt = Instant.now();
+
+    @Column(nullable = false)
+    private Instant heartbeatAt = Instant.now();
+}
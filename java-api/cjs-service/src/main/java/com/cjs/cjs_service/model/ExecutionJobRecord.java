@@ -0,0 +1,86 @@
+package com.cjs.cjs_service.model;
+
+import com.cjs.cjs_service.dto.ExecutionStage;
+import com.cjs.cjs_service.dto.ExecutionStatus;
+import com.cjs.cjs_service.service.codeExecutionSerivce.JobClass;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Durable copy of an ExecutionJob: the shared queue every cjs-service
+ * instance claims from, and the status any instance can answer from.
+ *
+ * An unclaimed PENDING row (owner null) is waiting; claiming sets owner
+ * and leaseUntil, and the owner keeps renewing the lease until the job
+ * is COMPLETED or FAILED.
+ */
+@Entity
+@Table(name = "execution_jobs", indexes = {
+        @Index(name = "idx_execution_jobs_queue", columnList = "status, owner, runAt"),
+        @Index(name = "idx_execution_jobs_lease", columnList = "owner, leaseUntil"),
+        @Index(name = "idx_execution_jobs_finished", columnList = "finishedAt")
+})
+@Getter
+@Setter
+public class ExecutionJobRecord {
+
+    @Id
+    @Column(length = 36)
+    private String jobId;
+
+    private int submissionId = -1;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ExecutionStatus status = ExecutionStatus.PENDING;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ExecutionStage stage;
+
+    // What is needed to build the request again on any instance
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private JobClass jobClass;
+
+    private int userId;
+    private int problemId;
+
+    @Column(nullable = false)
+    private String language;
+
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String sourceCode;
+
+    // Claim order: the time it was queued, pushed back for users who
+    // already have jobs waiting (see CodeExecutionWorker)
+    @Column(nullable = false)
+    private Instant runAt;
+
+    @Column(length = 64)
+    private String owner;
+
+    private Instant leaseUntil;
+
+    // Claims lost to a dead owner
+    private int attempts;
+
+    // JSON; the full result, compacted only in ExecutionJobStore
+    @Column(columnDefinition = "TEXT")
+    private String progress;
+
+    @Column(columnDefinition = "LONGTEXT")
+    private String result;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Column(nullable = false)
+    private Instant createdAt = Instant.now();
+
+    private Instant finishedAt;
+}
@@ -35,6 +35,12 @@ public class Problem {
     private int timeLimitMs;
     private int memoryLimitMb;
 
+    @Enumerated(EnumType.STRING)
+    private CheckerMode checkerMode = CheckerMode.EXACT;
+
+    // Only used by CheckerMode.FLOAT; absolute or relative error
+    private double checkerEpsilon;
+
     private boolean isPublished;
 
     private LocalDateTime createdAt = LocalDateTime.now();
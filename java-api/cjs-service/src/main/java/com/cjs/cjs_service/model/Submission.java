@@ -3,6 +3,8 @@ package com.cjs.cjs_service.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 
@@ -29,7 +31,11 @@ public class Submission {
     @Column(nullable = false, columnDefinition = "LONGTEXT")
     private String code;
 
+    // VARCHAR, not a MySQL ENUM: ddl-auto=update never alters an ENUM,
+    // so new statuses would not fit (see SubmissionStatusColumn)
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 32)
     private SubmissionStatus status;
 
     private int executionTimeMs;
@@ -6,6 +6,9 @@ public enum SubmissionStatus {
     ACCEPTED,
     WRONG_ANSWER,
     TIME_LIMIT_EXCEEDED,
+    MEMORY_LIMIT_EXCEEDED,
+    OUTPUT_LIMIT_EXCEEDED,
     RUNTIME_ERROR,
-    COMPILATION_ERROR
+    COMPILATION_ERROR,
+    INTERNAL_ERROR
 }
@@ -0,0 +1,28 @@
+package com.cjs.cjs_service.repository;
+
+import com.cjs.cjs_service.model.ExecutionInstanceRecord;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ExecutionInstanceRepository extends JpaRepository<ExecutionInstanceRecord, String> {
+
+    @Query("SELECT i.instanceId FROM ExecutionInstanceRecord i WHERE i.heartbeatAt > :since")
+    List<String> findLiveSince(@Param("since") Instant since);
+
+    @Modifying
+    @Query("DELETE FROM ExecutionInstanceRecord i WHERE i.heartbeatAt < :before")
+    int deleteStaleBefore(@Param("before") Instant before);
+
+    // Runs on shutdown, outside any service transaction
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ExecutionInstanceRecord i WHERE i.instanceId = :instanceId")
+    int deleteInstance(@Param("instanceId") String instanceId);
+}
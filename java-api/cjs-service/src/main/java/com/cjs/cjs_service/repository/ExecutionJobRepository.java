@@ -0,0 +1,117 @@
+package com.cjs.cjs_service.repository;
+
+import com.cjs.cjs_service.dto.ExecutionStage;
+import com.cjs.cjs_service.dto.ExecutionStatus;
+import com.cjs.cjs_service.model.ExecutionJobRecord;
+import com.cjs.cjs_service.service.codeExecutionSerivce.JobClass;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ExecutionJobRepository extends JpaRepository<ExecutionJobRecord, String> {
+
+    // Rows other instances are claiming right now are skipped, not waited for
+    @Query(value = "SELECT job_id FROM execution_jobs"
+            + " WHERE status = 'PENDING' AND owner IS NULL"
+            + " ORDER BY run_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<String> lockClaimable(@Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE ExecutionJobRecord j SET j.owner = :owner, j.leaseUntil = :leaseUntil"
+            + " WHERE j.jobId IN :jobIds AND j.owner IS NULL")
+    int claim(
+            @Param("jobIds") List<String> jobIds,
+            @Param("owner") String owner,
+            @Param("leaseUntil") Instant leaseUntil);
+
+    @Modifying
+    @Query("UPDATE ExecutionJobRecord j SET j.leaseUntil = :leaseUntil"
+            + " WHERE j.jobId IN :jobIds AND j.owner = :owner AND j.finishedAt IS NULL")
+    int renewLeases(
+            @Param("jobIds") Collection<String> jobIds,
+            @Param("owner") String owner,
+            @Param("leaseUntil") Instant leaseUntil);
+
+    // Hands back jobs that are claimed but not started; also runs on
+    // shutdown, outside any service transaction
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExecutionJobRecord j SET j.owner = NULL, j.leaseUntil = NULL"
+            + " WHERE j.owner = :owner AND j.status = 'PENDING'")
+    int releasePending(@Param("owner") String owner);
+
+    // The submissions of the jobs failExpired is about to fail, locked so
+    // a late lease renewal cannot save one of them in between
+    @Query(value = "SELECT submission_id FROM execution_jobs"
+            + " WHERE finished_at IS NULL AND owner IS NOT NULL AND lease_until < :now"
+            + " AND attempts + 1 >= :maxAttempts AND submission_id >= 0 FOR UPDATE", nativeQuery = true)
+    List<Integer> lockExpiredSubmissions(
+            @Param("now") Instant now,
+            @Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("UPDATE ExecutionJobRecord j SET j.status = 'FAILED', j.stage = NULL,"
+            + " j.error = :error, j.finishedAt = :now"
+            + " WHERE j.finishedAt IS NULL AND j.owner IS NOT NULL AND j.leaseUntil < :now"
+            + " AND j.attempts + 1 >= :maxAttempts")
+    int failExpired(
+            @Param("now") Instant now,
+            @Param("maxAttempts") int maxAttempts,
+            @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE ExecutionJobRecord j SET j.owner = NULL, j.leaseUntil = NULL,"
+            + " j.status = 'PENDING', j.stage = 'QUEUED', j.progress = NULL,"
+            + " j.attempts = j.attempts + 1"
+            + " WHERE j.finishedAt IS NULL AND j.owner IS NOT NULL AND j.leaseUntil < :now")
+    int requeueExpired(@Param("now") Instant now);
+
+    // Fenced: an instance that lost the job (lease expired) cannot
+    // overwrite the new owner's state
+    @Modifying
+    @Query("UPDATE ExecutionJobRecord j SET j.status = :status, j.stage = :stage,"
+            + " j.progress = :progress, j.result = :result, j.error = :error,"
+            + " j.finishedAt = :finishedAt"
+            + " WHERE j.jobId = :jobId AND j.owner = :owner")
+    int updateState(
+            @Param("jobId") String jobId,
+            @Param("owner") String owner,
+            @Param("status") ExecutionStatus status,
+            @Param("stage") ExecutionStage stage,
+            @Param("progress") String progress,
+            @Param("result") String result,
+            @Param("error") String error,
+            @Param("finishedAt") Instant finishedAt);
+
+    @Modifying
+    @Query("UPDATE ExecutionJobRecord j SET j.progress = :progress"
+            + " WHERE j.jobId = :jobId AND j.owner = :owner")
+    int updateProgress(
+            @Param("jobId") String jobId,
+            @Param("owner") String owner,
+            @Param("progress") String progress);
+
+    @Modifying
+    @Query("DELETE FROM ExecutionJobRecord j WHERE j.finishedAt < :before")
+    int deleteFinishedBefore(@Param("before") Instant before);
+
+    @Query("SELECT COUNT(j) FROM ExecutionJobRecord j"
+            + " WHERE j.status = 'PENDING' AND j.owner IS NULL AND j.runAt <= :runAt")
+    long countWaitingUntil(@Param("runAt") Instant runAt);
+
+    @Query("SELECT COUNT(j) FROM ExecutionJobRecord j"
+            + " WHERE j.status = 'PENDING' AND j.owner IS NULL")
+    long countWaiting();
+
+    @Query("SELECT COUNT(j) FROM ExecutionJobRecord j"
+            + " WHERE j.status = 'PENDING' AND j.owner IS NULL"
+            + " AND j.userId = :userId AND j.jobClass = :jobClass")
+    long countWaiting(@Param("userId") int userId, @Param("jobClass") JobClass jobClass);
+}
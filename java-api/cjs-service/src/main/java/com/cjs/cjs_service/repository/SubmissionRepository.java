@@ -3,13 +3,55 @@ package com.cjs.cjs_service.repository;
 import com.cjs.cjs_service.model.Submission;
 import com.cjs.cjs_service.model.SubmissionStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface SubmissionRepository extends JpaRepository<Submission, Integer> {
    
     List<Submission> findByUserIdAndProblemId(int userId, int problemId);
     List<Submission> findByUserId(int userId);
 
+    // Submissions still waiting for a verdict that no job is working on,
+    // e.g. their job was lost with an instance; locked for re-enqueueing,
+    // skipping rows another instance is re-enqueueing right now
+    @Query(value = "SELECT s.id FROM submissions s"
+            + " WHERE s.status IN ('PENDING', 'RUNNING') AND s.submitted_at < :before"
+            + " AND NOT EXISTS (SELECT 1 FROM execution_jobs j"
+            + " WHERE j.submission_id = s.id AND j.finished_at IS NULL)"
+            + " AND (SELECT COUNT(*) FROM execution_jobs j WHERE j.submission_id = s.id) < :maxJobs"
+            + " ORDER BY s.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Integer> lockOrphaned(
+            @Param("before") LocalDateTime before,
+            @Param("maxJobs") int maxJobs,
+            @Param("limit") int limit);
+
+    // Orphaned submissions that already had maxJobs jobs, which
+    // lockOrphaned no longer returns
+    @Modifying
+    @Query(value = "UPDATE submissions s SET s.status = 'INTERNAL_ERROR'"
+            + " WHERE s.status IN ('PENDING', 'RUNNING') AND s.submitted_at < :before"
+            + " AND NOT EXISTS (SELECT 1 FROM execution_jobs j"
+            + " WHERE j.submission_id = s.id AND j.finished_at IS NULL)"
+            + " AND (SELECT COUNT(*) FROM execution_jobs j WHERE j.submission_id = s.id) >= :maxJobs",
+            nativeQuery = true)
+    int failExhausted(
+            @Param("before") LocalDateTime before,
+            @Param("maxJobs") int maxJobs);
+
+    // Gives up on submissions still waiting for a verdict; one that got
+    // its verdict meanwhile keeps it
+    @Modifying
+    @Query("UPDATE Submission s SET s.status = :status WHERE s.id IN :ids"
+            + " AND s.status IN (com.cjs.cjs_service.model.SubmissionStatus.PENDING,"
+            + " com.cjs.cjs_service.model.SubmissionStatus.RUNNING)")
+    int failUnjudged(
+            @Param("ids") Collection<Integer> ids,
+            @Param("status") SubmissionStatus status);
+
 }
@@ -10,6 +10,7 @@ import com.cjs.cjs_service.model.TestCase;
 import com.cjs.cjs_service.repository.ProblemRepository;
 import com.cjs.cjs_service.repository.TagRepository;
 import com.cjs.cjs_service.service.ProblemService;
+import com.cjs.cjs_service.service.codeExecutionSerivce.cache.VerdictCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -32,10 +33,15 @@ public class ProblemService {
 
     private final ProblemRepository problemRepository;
     private final TagRepository tagRepository;
+    private final VerdictCache verdictCache;
 
-    public ProblemService(ProblemRepository problemRepository, TagRepository tagRepository) {
+    public ProblemService(
+            ProblemRepository problemRepository,
+            TagRepository tagRepository,
+            VerdictCache verdictCache) {
         this.problemRepository = problemRepository;
         this.tagRepository = tagRepository;
+        this.verdictCache = verdictCache;
     }
 
 
@@ -77,6 +83,12 @@ public class ProblemService {
         problem.setTitle(dto.getTitle());
         problem.setDescription(dto.getDescription());
         problem.setDifficulty(dto.getDifficulty());
+        problem.setTimeLimitMs(dto.getTimeLimitMs());
+        problem.setMemoryLimitMb(dto.getMemoryLimitMb());
+        if (dto.getCheckerMode() != null) {
+            problem.setCheckerMode(dto.getCheckerMode());
+        }
+        problem.setCheckerEpsilon(dto.getCheckerEpsilon());
 
         List<TestCase> testCases = new ArrayList<>();
         for (TestCaseDto tcDto : dto.getTestCases()) {  
@@ -130,6 +142,20 @@ public class ProblemService {
         problem.setDifficulty(dto.getDifficulty());
         problem.setUpdatedAt(LocalDateTime.now());
 
+        // 0 means the client did not send a limit; keep the stored one
+        if (dto.getTimeLimitMs() > 0) {
+            problem.setTimeLimitMs(dto.getTimeLimitMs());
+        }
+        if (dto.getMemoryLimitMb() > 0) {
+            problem.setMemoryLimitMb(dto.getMemoryLimitMb());
+        }
+        if (dto.getCheckerMode() != null) {
+            problem.setCheckerMode(dto.getCheckerMode());
+        }
+        if (dto.getCheckerEpsilon() > 0) {
+            problem.setCheckerEpsilon(dto.getCheckerEpsilon());
+        }
+
         // ===============================
         // Update TestCases (OK to replace)
         // ===============================
@@ -144,6 +170,10 @@ public class ProblemService {
             problem.getTestCases().add(tc);
         }
 
+        // Frees old verdicts and the cached test data digest; the new
+        // updatedAt keeps other instances from reusing their digests
+        verdictCache.invalidateProblem(id);
+
         // ===============================
         // Update Tags (DIFF-BASED 🔥)
         // ===============================
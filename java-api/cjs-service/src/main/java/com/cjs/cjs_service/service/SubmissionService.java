@@ -45,6 +45,21 @@ public class SubmissionService {
         return repository.save(submission);
     }
 
+    public Submission getSubmission(int submissionId) {
+        return repository.findById(submissionId)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid submission ID"));
+    }
+
+    public void updateStatus(int submissionId, SubmissionStatus status) {
+        Submission submission = getSubmission(submissionId);
+        submission.setStatus(status);
+        repository.save(submission);
+    }
+
+    public void deleteSubmission(int submissionId) {
+        repository.deleteById(submissionId);
+    }
+
     // ===============================
     // Update Result
     // ===============================
@@ -58,11 +73,10 @@ public class SubmissionService {
                 .orElseThrow(() -> new IllegalArgumentException("Invalid submission ID"));
 
         submission.setStatus(status);
-        // submission.setTimeMs(timeMs);
-        // submission.setMemoryKb(memoryKb);
+        submission.setExecutionTimeMs(timeMs);
+        submission.setMemoryUsedKb(memoryKb);
 
         repository.save(submission);
-        // extend later for time & memory
     }
 
     // ===============================
@@ -83,6 +97,8 @@ public class SubmissionService {
                     dto.setTitle(s.getProblem().getTitle());
                     dto.setStatus(s.getStatus().toString());
                     dto.setLanguage(s.getLanguage());
+                    dto.setExecutionTimeMs(s.getExecutionTimeMs());
+                    dto.setMemoryUsedKb(s.getMemoryUsedKb());
                     dto.setDifficulty(s.getProblem().getDifficulty() != null ? s.getProblem().getDifficulty().toString() : "MEDIUM"); // Default or Null safe
                     return dto;
                 })
@@ -103,6 +119,8 @@ public class SubmissionService {
                     dto.setTitle(s.getProblem().getTitle());
                     dto.setStatus(s.getStatus().toString());
                     dto.setLanguage(s.getLanguage());
+                    dto.setExecutionTimeMs(s.getExecutionTimeMs());
+                    dto.setMemoryUsedKb(s.getMemoryUsedKb());
                     dto.setDifficulty(s.getProblem().getDifficulty() != null ? s.getProblem().getDifficulty().toString() : "MEDIUM");
                     return dto;
                 })
@@ -1,9 +1,13 @@
 package com.cjs.cjs_service.service.codeExecutionSerivce;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.cjs.cjs_service.dto.TestCaseDto;
+import com.cjs.cjs_service.model.CheckerMode;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.HarnessResult;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -16,8 +20,18 @@ public class CodeExecutionRequest {
     private String sourceCode = "";
     private String input; // nullable
     private int timeLimitMs = 2000;
+    private int wallTimeLimitMs; // set by the executor from timeLimitMs
+    private Instant deadline;    // whole job, set when execution starts
     private int memoryLimitMb = 256;
     private List<TestCaseDto> testCases = new ArrayList<>();
+    private CheckerMode checkerMode = CheckerMode.EXACT;
+    private double checkerEpsilon;
+    private int problemId;
+    private String testDataVersion; // problem's last edit; null = unknown
+    private String verdictKey; // set on a verdict cache lookup
+    private JobClass jobClass = JobClass.RUN;
+    private int userId = -1;   // -1 = not signed in; all such jobs share a queue
+    private Consumer<HarnessResult> testListener; // each test as the harness reports it
 
     public CodeExecutionRequest(String language, String sourceCode, List<TestCaseDto> testCases) {
         this.language = language;
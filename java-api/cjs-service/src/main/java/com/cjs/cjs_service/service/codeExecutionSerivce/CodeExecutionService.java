@@ -1,90 +1,141 @@
 package com.cjs.cjs_service.service.codeExecutionSerivce;
 
 import com.cjs.cjs_service.dto.ExecutionJob;
-import com.cjs.cjs_service.dto.TestCaseDto;
 import com.cjs.cjs_service.dto.request.CodeRunRequestDto;
-import com.cjs.cjs_service.service.ProblemService;
+import com.cjs.cjs_service.dto.response.ExecutionTicketDto;
+import com.cjs.cjs_service.model.Submission;
+import com.cjs.cjs_service.model.SubmissionStatus;
+import com.cjs.cjs_service.service.SubmissionService;
 import com.cjs.cjs_service.service.codeExecutionSerivce.store.ExecutionJobStore;
+import com.cjs.cjs_service.service.codeExecutionSerivce.store.JobStatusStreams;
 import com.cjs.cjs_service.service.codeExecutionSerivce.worker.CodeExecutionWorker;
+import com.cjs.cjs_service.service.codeExecutionSerivce.worker.ExecutionRejectedException;
+import com.cjs.cjs_service.service.codeExecutionSerivce.worker.QueueTicket;
 
 import org.springframework.stereotype.Service;
-
-import java.util.List;
-import java.util.stream.Collectors;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 public class CodeExecutionService {
 
     private final ExecutionJobStore jobStore;
+    private final JobStatusStreams statusStreams;
     private final CodeExecutionWorker worker;
-    private final ProblemService problemService;
+    private final ExecutionRequestFactory requestFactory;
+    private final SubmissionService submissionService;
 
     public CodeExecutionService(
             ExecutionJobStore jobStore,
+            JobStatusStreams statusStreams,
             CodeExecutionWorker worker,
-            ProblemService problemService) {
+            ExecutionRequestFactory requestFactory,
+            SubmissionService submissionService) {
         this.jobStore = jobStore;
+        this.statusStreams = statusStreams;
         this.worker = worker;
-        this.problemService = problemService;
+        this.requestFactory = requestFactory;
+        this.submissionService = submissionService;
     }
 
-    public String run(CodeRunRequestDto dto) {
-        ExecutionJob job = jobStore.createJob();
-
-        var problem = problemService.getProblemById(dto.getProblemId());
-        if (problem == null) {
-            throw new RuntimeException("Problem not found");
-        }
-
-        List<TestCaseDto> testCases = problem.getTestCases().stream()
-                .filter(tc -> tc.isSample())
-                .map(tc -> {
-                    TestCaseDto tcd = new TestCaseDto();
-                    tcd.setInput(tc.getInput());
-                    tcd.setOutput(tc.getExpectedOutput());
-                    tcd.setSample(tc.isSample());
-                    return tcd;
-
-                })
-                .collect(Collectors.toList());
+    public ExecutionTicketDto run(CodeRunRequestDto dto, int userId) {
+        ExecutionJob job = new ExecutionJob();
 
-        CodeExecutionRequest request = new CodeExecutionRequest(dto.getLanguage(), dto.getSourceCode(), testCases);
+        CodeExecutionRequest request = requestFactory.build(
+                dto.getProblemId(),
+                dto.getLanguage(),
+                dto.getSourceCode(),
+                JobClass.RUN,
+                userId);
 
         System.out.println("Enqueuing job: " + job.getJobId());
-        worker.enqueue(job, request);
+        ExecutionTicketDto ticket = enqueue(job, request);
         System.out.println("Job enqueued: " + job.getJobId());
-        return job.getJobId();
+        return ticket;
     }
 
-    public String submit(CodeRunRequestDto dto, int submissionId) {
-        ExecutionJob job = jobStore.createJob(submissionId);
+    /**
+     * A submission the queue turns away is deleted again, so it does not
+     * stay PENDING.
+     */
+    public ExecutionTicketDto submit(CodeRunRequestDto dto, int submissionId, int userId) {
+        try {
+            return judgeSubmission(dto, submissionId, userId, JobClass.SUBMIT);
+        } catch (ExecutionRejectedException e) {
+            submissionService.deleteSubmission(submissionId);
+            throw e;
+        }
+    }
 
-        var problem = problemService.getProblemById(dto.getProblemId());
-        if (problem == null) {
-            throw new RuntimeException("Problem not found");
+    /**
+     * Judges a stored submission again, e.g. after its problem's tests
+     * changed, and overwrites its verdict.
+     */
+    public ExecutionTicketDto rejudge(int submissionId) {
+        Submission submission = submissionService.getSubmission(submissionId);
+        CodeRunRequestDto dto = toRunRequest(submission);
+
+        // So the old verdict does not show while it is rejudged
+        SubmissionStatus previous = submission.getStatus();
+        submissionService.updateStatus(submissionId, SubmissionStatus.PENDING);
+        try {
+            return judgeSubmission(dto, submissionId, submission.getUserId(), JobClass.REJUDGE);
+        } catch (ExecutionRejectedException e) {
+            submissionService.updateStatus(submissionId, previous);
+            throw e;
         }
+    }
 
-        var testCases = problem.getTestCases().stream()
-                .map(tc -> {
-                    TestCaseDto tcd = new TestCaseDto();
-                    tcd.setInput(tc.getInput());
-                    tcd.setOutput(tc.getExpectedOutput());
-                    tcd.setSample(tc.isSample());
-                    return tcd;
+    /**
+     * Queues a submission that is still waiting for its verdict but lost
+     * its job (see ExecutionRecovery). Runs as a rejudge, behind live
+     * traffic.
+     */
+    public ExecutionTicketDto recover(int submissionId) {
+        Submission submission = submissionService.getSubmission(submissionId);
+        if (submission.getStatus() != SubmissionStatus.PENDING) {
+            submissionService.updateStatus(submissionId, SubmissionStatus.PENDING);
+        }
+        return judgeSubmission(toRunRequest(submission), submissionId, submission.getUserId(), JobClass.REJUDGE);
+    }
 
-                })
-                .collect(Collectors.toList());
+    private static CodeRunRequestDto toRunRequest(Submission submission) {
+        CodeRunRequestDto dto = new CodeRunRequestDto();
+        dto.setLanguage(submission.getLanguage());
+        dto.setSourceCode(submission.getCode());
+        dto.setProblemId(submission.getProblem().getId());
+        return dto;
+    }
 
-        CodeExecutionRequest request = new CodeExecutionRequest(
+    private ExecutionTicketDto judgeSubmission(CodeRunRequestDto dto, int submissionId, int userId, JobClass jobClass) {
+        ExecutionJob job = new ExecutionJob();
+        job.setSubmissionId(submissionId);
+
+        CodeExecutionRequest request = requestFactory.build(
+                dto.getProblemId(),
                 dto.getLanguage(),
                 dto.getSourceCode(),
-                testCases);
+                jobClass,
+                userId);
 
-        worker.enqueue(job, request);
-        return job.getJobId();
+        return enqueue(job, request);
+    }
+
+    private ExecutionTicketDto enqueue(ExecutionJob job, CodeExecutionRequest request) {
+        QueueTicket queued = worker.enqueue(job, request);
+
+        ExecutionTicketDto ticket = new ExecutionTicketDto();
+        ticket.setJobId(job.getJobId());
+        ticket.setQueuePosition(queued.position());
+        ticket.setEstimatedStartAt(queued.estimatedStart());
+        return ticket;
     }
 
     public ExecutionJob getStatus(String jobId) {
         return jobStore.getJob(jobId);
     }
-}
\ No newline at end of file
+
+    /** Null when the job is unknown. */
+    public SseEmitter streamStatus(String jobId) {
+        return statusStreams.subscribe(jobId);
+    }
+}
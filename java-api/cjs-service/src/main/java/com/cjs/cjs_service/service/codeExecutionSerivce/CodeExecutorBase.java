@@ -1,15 +1,358 @@
 package com.cjs.cjs_service.service.codeExecutionSerivce;
 
 import com.cjs.cjs_service.dto.CodeExecutionResult;
+import com.cjs.cjs_service.dto.TestCaseDto;
+import com.cjs.cjs_service.dto.TestCaseResultDto;
+import com.cjs.cjs_service.model.SubmissionStatus;
+import com.cjs.cjs_service.service.codeExecutionSerivce.checker.CheckResult;
+import com.cjs.cjs_service.service.codeExecutionSerivce.checker.OutputChecker;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.BatchHarness;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.ExecResult;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.HarnessResult;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.MemoryLimitException;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.Sandbox;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.SandboxArchive;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.SandboxPool;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.SandboxSpec;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a job in stages: provision (lease a sandbox, upload sources),
+ * compile, run (all tests in one harness exec) and verdict.
+ * CodeExecutionWorker calls each stage from its own worker pool, so the
+ * stages of different jobs overlap; the {@link ExecutionContext} carries
+ * the job from one stage to the next.
+ */
 public abstract class CodeExecutorBase {
 
+    private static final Logger log = LoggerFactory.getLogger(CodeExecutorBase.class);
+
+    // Harness and Docker overhead allowed per test on top of its wall limit
+    private static final long PER_TEST_OVERHEAD_MS = 1000;
+
+    protected final SandboxPool sandboxPool;
+
+    @Value("${code-execution.limits.wall-time-factor:2.0}")
+    private double wallTimeFactor;
+
+    @Value("${code-execution.limits.compile-timeout:PT30S}")
+    protected Duration compileTimeout;
+
+    @Value("${code-execution.limits.max-job-time:PT3M}")
+    private Duration maxJobTime;
+
+    protected CodeExecutorBase(SandboxPool sandboxPool) {
+        this.sandboxPool = sandboxPool;
+    }
+
     public abstract String getLanguage();
 
-    public CodeExecutionResult execute(CodeExecutionRequest request) throws Exception {
-        return executeInternal(request);
+    public abstract SandboxSpec getSandboxSpec();
+
+    /**
+     * Jobs of this language allowed in the pipeline while other languages
+     * have jobs waiting; 0 = an even split of the pipeline.
+     */
+    public abstract int getMaxConcurrency();
+
+    /** Source files (and runner scripts) to write into /workspace. */
+    protected abstract SandboxArchive sources(CodeExecutionRequest request);
+
+    /**
+     * Compiles the uploaded sources. Returns null when the language has
+     * nothing to compile.
+     */
+    protected ExecResult compileSources(
+            Sandbox sandbox,
+            CodeExecutionRequest request) throws InterruptedException {
+        return null;
+    }
+
+    /** Runs every test case, normally in one harness exec. */
+    protected abstract BatchHarness.BatchRun runTests(
+            Sandbox sandbox,
+            CodeExecutionRequest request) throws InterruptedException;
+
+    // ===============================
+    // Stages
+    // ===============================
+
+    /**
+     * Leases a sandbox and writes the sources. A failed upload ends the
+     * job; the sandbox must still be released.
+     */
+    public void provision(ExecutionContext context) throws InterruptedException {
+        CodeExecutionRequest request = context.getRequest();
+        request.setWallTimeLimitMs((int) Math.ceil(request.getTimeLimitMs() * wallTimeFactor));
+        request.setDeadline(Instant.now().plus(jobTimeout(request)));
+
+        context.setSandbox(sandboxPool.lease(getSandboxSpec(), request.getDeadline()));
+
+        ExecResult write = context.getSandbox().upload(sources(request));
+        if (write.exitCode() != 0) {
+            context.setResult(fail(write));
+        }
     }
 
-    protected abstract CodeExecutionResult executeInternal(
-            CodeExecutionRequest request) throws Exception;
+    /**
+     * Compiles (or reuses cached artifacts). A compile error ends the job.
+     */
+    public void compile(ExecutionContext context) throws InterruptedException {
+        CodeExecutionRequest request = context.getRequest();
+        // Time spent queued for this stage does not count against the job
+        renewDeadline(context, jobTimeout(request));
+
+        long start = System.nanoTime();
+        ExecResult compile = compileSources(context.getSandbox(), request);
+        if (compile == null) {
+            return;
+        }
+        context.setCompileTimeMs((System.nanoTime() - start) / 1_000_000);
+
+        if (compile.exitCode() != 0) {
+            CodeExecutionResult result = fail(compile);
+            result.setSubmissionStatus(SubmissionStatus.COMPILATION_ERROR);
+            context.setResult(result);
+        }
+    }
+
+    /**
+     * Runs the tests, judging each one as soon as the harness reports it
+     * so the job can show progress. Frames are matched to tests by their
+     * index; a second frame for a test is dropped.
+     */
+    public void run(ExecutionContext context) throws InterruptedException {
+        CodeExecutionRequest request = context.getRequest();
+        renewDeadline(context, runTimeout(request));
+
+        OutputChecker checker = checker(request);
+        List<TestCaseDto> testCases = request.getTestCases();
+
+        request.setTestListener(hr -> {
+            int i = hr.index() - 1;
+            if (i >= 0 && i < testCases.size()) {
+                context.testJudged(judgeTest(testCases.get(i), i, hr, false, checker));
+            }
+        });
+        context.reportProgress();
+
+        try {
+            context.setRun(runTests(context.getSandbox(), request));
+        } catch (MemoryLimitException e) {
+            // No test has run yet; go on in a fresh container once
+            log.warn("{}, moving to a fresh sandbox", e.getMessage());
+            Sandbox tainted = context.getSandbox();
+            context.setSandbox(null); // released by replace(), even when it fails
+            context.setSandbox(sandboxPool.replace(tainted, request.getDeadline()));
+            context.setRun(runTests(context.getSandbox(), request));
+        } finally {
+            request.setTestListener(null);
+        }
+    }
+
+    /** Returns the sandbox to the pool; safe to call more than once. */
+    public void release(ExecutionContext context) {
+        Sandbox sandbox = context.getSandbox();
+        if (sandbox != null) {
+            context.setSandbox(null);
+            sandboxPool.release(sandbox);
+        }
+    }
+
+    public CodeExecutionResult verdict(ExecutionContext context) {
+        CodeExecutionResult result = context.isFinished()
+                ? context.getResult()
+                : judge(context.getRequest(), context.getRun(), context.getJudgedTests());
+        result.setCompileTimeMs(context.getCompileTimeMs());
+        return result;
+    }
+
+    // ===============================
+    // Deadlines
+    // ===============================
+
+    /**
+     * Compile allowance plus every test's wall limit, capped so one job
+     * can never hold a sandbox longer than max-job-time.
+     */
+    private Duration jobTimeout(CodeExecutionRequest request) {
+        return cap(compileTimeout.plus(runTimeout(request)));
+    }
+
+    private Duration runTimeout(CodeExecutionRequest request) {
+        long perTestMs = request.getWallTimeLimitMs() + PER_TEST_OVERHEAD_MS;
+        return cap(Duration.ofMillis(perTestMs * request.getTestCases().size()));
+    }
+
+    private Duration cap(Duration budget) {
+        return budget.compareTo(maxJobTime) < 0 ? budget : maxJobTime;
+    }
+
+    private void renewDeadline(ExecutionContext context, Duration timeout) {
+        Instant deadline = Instant.now().plus(timeout);
+        context.getRequest().setDeadline(deadline);
+        sandboxPool.renewLease(context.getSandbox(), deadline);
+    }
+
+    // ===============================
+    // Shared helpers
+    // ===============================
+
+    protected static CodeExecutionResult fail(ExecResult r) {
+        CodeExecutionResult res = new CodeExecutionResult();
+        res.setExitCode(r.exitCode());
+        res.setOutput(r.output());
+        if (r.timedOut()) {
+            res.setTimedOut(true);
+            res.setError("Time limit exceeded");
+        }
+        return res;
+    }
+
+    /**
+     * Turns the harness output into per-test results and a verdict.
+     * The first failing test decides the verdict. Tests the harness never
+     * reported count as TLE when the job deadline cut it short, and as
+     * crashes otherwise. Output is compared by the problem's checker.
+     *
+     * Frames are matched to tests by index, not by position: a persistent
+     * runner that dies after writing a test's frame gets a second frame
+     * for that test from its script, and only the first one counts.
+     *
+     * judged holds tests already judged while the run was going, by
+     * index; they are not checked again.
+     */
+    protected static CodeExecutionResult judge(
+            CodeExecutionRequest request,
+            BatchHarness.BatchRun run,
+            Map<Integer, TestCaseResultDto> judged) {
+
+        List<TestCaseDto> testCases = request.getTestCases();
+        OutputChecker checker = checker(request);
+
+        Map<Integer, HarnessResult> reported = new HashMap<>();
+        for (HarnessResult hr : run.results()) {
+            reported.putIfAbsent(hr.index(), hr);
+        }
+
+        CodeExecutionResult result = new CodeExecutionResult();
+        List<TestCaseResultDto> results = new ArrayList<>();
+        SubmissionStatus firstFailure = null;
+        boolean unreported = false;
+
+        for (int i = 0; i < testCases.size(); i++) {
+            HarnessResult hr = reported.get(i + 1);
+            unreported |= hr == null;
+
+            TestCaseResultDto dto = judged.containsKey(i + 1)
+                    ? judged.get(i + 1)
+                    : judgeTest(testCases.get(i), i, hr, run.timedOut(), checker);
+
+            if (!dto.isPassed() && firstFailure == null) {
+                firstFailure = dto.getStatus();
+            }
+            if (dto.getStatus() == SubmissionStatus.TIME_LIMIT_EXCEEDED) {
+                result.setTimedOut(true);
+            }
+
+            result.setTimeMs(Math.max(result.getTimeMs(), dto.getCpuTimeMs()));
+            result.setMemoryKb(Math.max(result.getMemoryKb(), dto.getMemoryKb()));
+
+            results.add(dto);
+        }
+
+        result.setExitCode(0);
+
+        long passedCount = results.stream()
+                .filter(TestCaseResultDto::isPassed)
+                .count();
+
+        result.setOutput(passedCount + " / " + results.size() + " test cases passed");
+        result.setTestCaseResults(results);
+        result.setSubmissionStatus(firstFailure == null ? SubmissionStatus.ACCEPTED : firstFailure);
+
+        if (unreported && !run.error().isBlank()) {
+            result.setError(run.error());
+        }
+
+        return result;
+    }
+
+    /**
+     * One test's result; hr is null for a test the harness never
+     * reported, and timedOut says whether the job deadline stopped it.
+     */
+    private static TestCaseResultDto judgeTest(
+            TestCaseDto test,
+            int i,
+            HarnessResult hr,
+            boolean timedOut,
+            OutputChecker checker) {
+
+        String expected = test.getOutput();
+        int exitCode = hr == null ? -1 : hr.exitCode();
+
+        TestCaseResultDto dto = new TestCaseResultDto();
+        dto.setIndex(i + 1);
+        dto.setInput(test.getInput());
+        dto.setOutput(hr == null ? "" : new String(hr.stdout(), StandardCharsets.UTF_8));
+        dto.setExpected(expected);
+        dto.setExitCode(exitCode);
+        dto.setTimeMs(hr == null ? 0 : hr.timeMs());
+        dto.setCpuTimeMs(hr == null ? 0 : hr.cpuTimeMs());
+        dto.setMemoryKb(hr == null ? 0 : hr.memoryKb());
+
+        if (hr == null) {
+            dto.setStatus(timedOut
+                    ? SubmissionStatus.TIME_LIMIT_EXCEEDED
+                    : SubmissionStatus.RUNTIME_ERROR);
+        } else if (hr.memoryLimitExceeded() || isOutOfMemory(hr)) {
+            dto.setStatus(SubmissionStatus.MEMORY_LIMIT_EXCEEDED);
+        } else if (hr.outputLimitExceeded()) {
+            dto.setStatus(SubmissionStatus.OUTPUT_LIMIT_EXCEEDED);
+        } else if (hr.timeLimitExceeded()) {
+            dto.setStatus(SubmissionStatus.TIME_LIMIT_EXCEEDED);
+        } else if (exitCode != 0) {
+            dto.setStatus(SubmissionStatus.RUNTIME_ERROR);
+        } else {
+            CheckResult check = checker.check(hr.stdout(), expected);
+            dto.setCheckerMessage(check.message());
+            dto.setStatus(check.accepted()
+                    ? SubmissionStatus.ACCEPTED
+                    : SubmissionStatus.WRONG_ANSWER);
+        }
+        dto.setPassed(dto.getStatus() == SubmissionStatus.ACCEPTED);
+        return dto;
+    }
+
+    private static OutputChecker checker(CodeExecutionRequest request) {
+        return OutputChecker.of(
+                request.getCheckerMode(),
+                request.getCheckerEpsilon());
+    }
+
+    /**
+     * Runtimes with their own heap cap (JVM, V8) usually die with an
+     * error message before the cgroup limit is reached.
+     */
+    private static boolean isOutOfMemory(HarnessResult hr) {
+        if (hr.exitCode() == 0) {
+            return false;
+        }
+        String stderr = new String(hr.stderr(), StandardCharsets.UTF_8);
+        return stderr.contains("java.lang.OutOfMemoryError")
+                || stderr.contains("JavaScript heap out of memory")
+                || stderr.contains("std::bad_alloc");
+    }
 }
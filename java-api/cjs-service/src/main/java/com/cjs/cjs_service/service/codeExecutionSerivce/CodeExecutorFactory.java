@@ -1,8 +1,9 @@
 package com.cjs.cjs_service.service.codeExecutionSerivce;
 
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.SandboxPool;
 
-
-
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -11,9 +12,22 @@ import java.util.List;
 public class CodeExecutorFactory {
 
     private final List<CodeExecutorBase> executors;
+    private final SandboxPool sandboxPool;
 
-    public CodeExecutorFactory(List<CodeExecutorBase> executors) {
+    public CodeExecutorFactory(List<CodeExecutorBase> executors, SandboxPool sandboxPool) {
         this.executors = executors;
+        this.sandboxPool = sandboxPool;
+    }
+
+    // Start min-idle containers for every language before the first job arrives
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpSandboxes() {
+        executors.forEach(e -> Thread.ofVirtual()
+                .start(() -> sandboxPool.warmUp(e.getSandboxSpec())));
+    }
+
+    public List<CodeExecutorBase> getExecutors() {
+        return executors;
     }
 
     public CodeExecutorBase getExecutor(String language) {
@@ -0,0 +1,112 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce;
+
+import com.cjs.cjs_service.dto.CodeExecutionResult;
+import com.cjs.cjs_service.dto.ExecutionProgress;
+import com.cjs.cjs_service.dto.TestCaseResultDto;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.BatchHarness;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.Sandbox;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * State of one job as it moves through the executor's stages
+ * (provision, compile, run, verdict), possibly on different threads.
+ *
+ * During run, tests are judged as the harness reports them and each one
+ * is passed on to the progress listener as an ExecutionProgress.
+ */
+@Getter
+@Setter
+public class ExecutionContext {
+
+    private final CodeExecutionRequest request;
+
+    private Sandbox sandbox;         // leased by provision, released after run
+    private Long compileTimeMs;      // null when nothing was compiled
+    private BatchHarness.BatchRun run;
+
+    // Set by a stage that ends the job early (upload or compile failure)
+    private CodeExecutionResult result;
+
+    // Told after every judged test; may be null
+    private Consumer<ExecutionProgress> progressListener;
+
+    // By 1-based test index; guarded by this
+    private final TreeMap<Integer, TestCaseResultDto> judgedTests = new TreeMap<>();
+
+    public ExecutionContext(CodeExecutionRequest request) {
+        this.request = request;
+    }
+
+    /** True once a stage has produced the final result. */
+    public boolean isFinished() {
+        return result != null;
+    }
+
+    /**
+     * Records a judged test and reports progress. False, and nothing is
+     * reported, when a test of that index was already recorded.
+     */
+    public boolean testJudged(TestCaseResultDto test) {
+        ExecutionProgress progress;
+        synchronized (this) {
+            if (judgedTests.putIfAbsent(test.getIndex(), test) != null) {
+                return false;
+            }
+            progress = progress();
+        }
+        report(progress);
+        return true;
+    }
+
+    /** Reports the progress so far, e.g. before the first test ends. */
+    public void reportProgress() {
+        ExecutionProgress progress;
+        synchronized (this) {
+            progress = progress();
+        }
+        report(progress);
+    }
+
+    public synchronized Map<Integer, TestCaseResultDto> getJudgedTests() {
+        return new TreeMap<>(judgedTests);
+    }
+
+    private void report(ExecutionProgress progress) {
+        if (progressListener != null) {
+            progressListener.accept(progress);
+        }
+    }
+
+    private ExecutionProgress progress() {
+        int total = request.getTestCases().size();
+        StringBuilder mask = new StringBuilder(judgedTests.size());
+
+        ExecutionProgress progress = new ExecutionProgress();
+        progress.setTotal(total);
+        progress.setCompleted(judgedTests.size());
+        progress.setRunning(judgedTests.size() < total ? judgedTests.size() + 1 : null);
+
+        for (TestCaseResultDto test : judgedTests.values()) {
+            mask.append(test.isPassed() ? '1' : '0');
+            if (test.isPassed()) {
+                progress.setPassed(progress.getPassed() + 1);
+            } else {
+                progress.setFailed(progress.getFailed() + 1);
+                if (progress.getFirstFailedIndex() == null) {
+                    progress.setFirstFailedIndex(test.getIndex());
+                    progress.setFirstFailure(test.getStatus());
+                }
+            }
+            progress.setTimeMs(Math.max(progress.getTimeMs(), test.getCpuTimeMs()));
+            progress.setMemoryKb(Math.max(progress.getMemoryKb(), test.getMemoryKb()));
+        }
+        progress.setPassedMask(mask.toString());
+        return progress;
+    }
+}
@@ -0,0 +1,41 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+import java.util.UUID;
+
+/**
+ * Identity of this cjs-service process: the owner of its job claims in
+ * the shared queue and of the sandbox containers it starts.
+ *
+ * Unique per process, so a restarted instance never renews the leases
+ * of the one it replaced, and can tell that one's containers from its own.
+ */
+@Component
+public class ExecutionInstance {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionInstance.class);
+
+    private final String id;
+
+    public ExecutionInstance(@Value("${code-execution.queue.instance-id:}") String instanceId) {
+        String host = instanceId.isBlank()
+                ? System.getenv().getOrDefault("HOSTNAME", "cjs-service")
+                : instanceId;
+        this.id = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @PostConstruct
+    void logInstance() {
+        log.info("Execution instance: {}", id);
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,198 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce;
+
+import com.cjs.cjs_service.repository.SubmissionRepository;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.SandboxPool;
+import com.cjs.cjs_service.service.codeExecutionSerivce.store.DurableJobQueue;
+import com.cjs.cjs_service.service.codeExecutionSerivce.worker.ExecutionRejectedException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cleans up after instances that died, once at startup and then every
+ * interval, since instances can die at any time.
+ *
+ * Jobs in the shared queue recover on their own once their lease runs
+ * out (see DurableJobQueue). What is left is:
+ *
+ *   - sandbox containers of dead instances on this Docker host, which
+ *     are removed (see SandboxPool#reapOrphans);
+ *   - submissions still PENDING or RUNNING after stale-after with no
+ *     unfinished job, e.g. their job failed or was lost before it was
+ *     queued. These are queued again as rejudges, batch-size at a time
+ *     every batch-interval, so a backlog does not crowd out live
+ *     traffic. After max-jobs jobs a submission is given up as an
+ *     INTERNAL_ERROR.
+ *
+ * Each batch is locked with SKIP LOCKED, so instances starting together
+ * never queue the same submission twice. When admission turns a batch
+ * away the pass waits the Retry-After it was given; the rest of the
+ * backlog is left to the next pass.
+ */
+@Component
+public class ExecutionRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionRecovery.class);
+
+    private final SandboxPool sandboxPool;
+    private final DurableJobQueue jobQueue;
+    private final SubmissionRepository submissionRepository;
+    private final CodeExecutionService executionService;
+    private final TransactionTemplate transactionTemplate;
+    private volatile Thread recoveryThread;
+
+    @Value("${code-execution.recovery.enabled:true}")
+    private boolean enabled;
+
+    @Value("${code-execution.recovery.interval:PT1M}")
+    private Duration interval;
+
+    // Younger submissions may still be on their way into the queue
+    @Value("${code-execution.recovery.stale-after:PT2M}")
+    private Duration staleAfter;
+
+    @Value("${code-execution.recovery.batch-size:20}")
+    private int batchSize;
+
+    @Value("${code-execution.recovery.batch-interval:PT1S}")
+    private Duration batchInterval;
+
+    @Value("${code-execution.recovery.max-jobs:3}")
+    private int maxJobs;
+
+    @Value("${code-execution.queue.lease:PT30S}")
+    private Duration lease;
+
+    public ExecutionRecovery(
+            SandboxPool sandboxPool,
+            DurableJobQueue jobQueue,
+            SubmissionRepository submissionRepository,
+            CodeExecutionService executionService,
+            PlatformTransactionManager transactionManager) {
+        this.sandboxPool = sandboxPool;
+        this.jobQueue = jobQueue;
+        this.submissionRepository = submissionRepository;
+        this.executionService = executionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Its own thread rather than @Scheduled: a pass can wait out
+    // admission for a long time, and must not hold up the scheduler
+    // thread that renews leases
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRecovery() {
+        if (!enabled) {
+            return;
+        }
+        recoveryThread = Thread.ofVirtual().name("execution-recovery").start(() -> {
+            try {
+                while (true) {
+                    recover();
+                    Thread.sleep(interval);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @PreDestroy
+    void stopRecovery() {
+        Thread thread = recoveryThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /** One pass; a failed step is logged and tried again next pass. */
+    void recover() throws InterruptedException {
+        reapContainers();
+        try {
+            recoverSubmissions();
+        } catch (RuntimeException e) {
+            log.warn("Submission recovery failed: {}", e.getMessage());
+        }
+    }
+
+    // ===============================
+    // Containers
+    // ===============================
+
+    private void reapContainers() {
+        try {
+            // An instance gets a lease to write its first heartbeat
+            int reaped = sandboxPool.reapOrphans(jobQueue.liveInstances(), lease);
+            if (reaped > 0) {
+                log.info("Removed {} sandbox containers of stopped instances", reaped);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Sandbox reaping failed: {}", e.getMessage());
+        }
+    }
+
+    // ===============================
+    // Submissions
+    // ===============================
+
+    private void recoverSubmissions() throws InterruptedException {
+        LocalDateTime before = LocalDateTime.now().minus(staleAfter);
+
+        Integer exhausted = transactionTemplate.execute(status -> submissionRepository.failExhausted(before, maxJobs));
+        if (exhausted != null && exhausted > 0) {
+            log.warn("Gave up {} submissions after {} jobs each", exhausted, maxJobs);
+        }
+
+        int recovered = 0;
+        while (true) {
+            Batch batch = transactionTemplate.execute(status -> recoverBatch(before));
+            recovered += batch.recovered();
+
+            if (batch.retryAfter() != null) {
+                Thread.sleep(batch.retryAfter().compareTo(batchInterval) > 0
+                        ? batch.retryAfter()
+                        : batchInterval);
+            } else if (batch.locked() < batchSize) {
+                break;
+            } else {
+                Thread.sleep(batchInterval);
+            }
+        }
+
+        if (recovered > 0) {
+            log.info("Re-enqueued {} orphaned submissions", recovered);
+        }
+    }
+
+    // Runs in one transaction, so the rows stay locked until their jobs
+    // are visible to other instances
+    private Batch recoverBatch(LocalDateTime before) {
+        List<Integer> submissionIds = submissionRepository.lockOrphaned(before, maxJobs, batchSize);
+
+        int recovered = 0;
+        for (int submissionId : submissionIds) {
+            try {
+                executionService.recover(submissionId);
+                recovered++;
+            } catch (ExecutionRejectedException e) {
+                // The rest stay orphaned and are picked up once there is room
+                return new Batch(submissionIds.size(), recovered, e.getRetryAfter());
+            }
+        }
+        return new Batch(submissionIds.size(), recovered, null);
+    }
+
+    private record Batch(int locked, int recovered, Duration retryAfter) {
+    }
+}
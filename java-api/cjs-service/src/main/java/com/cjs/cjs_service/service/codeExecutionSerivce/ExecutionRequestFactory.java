@@ -0,0 +1,80 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce;
+
+import com.cjs.cjs_service.dto.TestCaseDto;
+import com.cjs.cjs_service.model.Problem;
+import com.cjs.cjs_service.service.ProblemService;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the request for a job from its problem, both when the job is
+ * created and when an instance claims it from the shared queue.
+ * Runs use the sample tests only; submissions and rejudges use all.
+ */
+@Component
+public class ExecutionRequestFactory {
+
+    private final ProblemService problemService;
+
+    public ExecutionRequestFactory(ProblemService problemService) {
+        this.problemService = problemService;
+    }
+
+    // The test cases are loaded lazily, so this needs its own
+    // transaction off the request thread
+    @Transactional(readOnly = true)
+    public CodeExecutionRequest build(
+            int problemId,
+            String language,
+            String sourceCode,
+            JobClass jobClass,
+            int userId) {
+
+        Problem problem = problemService.getProblemById(problemId);
+        if (problem == null) {
+            throw new RuntimeException("Problem not found");
+        }
+
+        List<TestCaseDto> testCases = problem.getTestCases().stream()
+                .filter(tc -> jobClass != JobClass.RUN || tc.isSample())
+                .map(tc -> {
+                    TestCaseDto tcd = new TestCaseDto();
+                    tcd.setInput(tc.getInput());
+                    tcd.setOutput(tc.getExpectedOutput());
+                    tcd.setSample(tc.isSample());
+                    return tcd;
+
+                })
+                .collect(Collectors.toList());
+
+        CodeExecutionRequest request = new CodeExecutionRequest(language, sourceCode, testCases);
+        applyLimits(request, problem);
+        request.setUserId(userId);
+        request.setJobClass(jobClass);
+        return request;
+    }
+
+    // Problems created before limits were stored have 0; keep the defaults then.
+    // Also tags the request with its problem and test data version (verdict
+    // cache) and checker.
+    private static void applyLimits(CodeExecutionRequest request, Problem problem) {
+        request.setProblemId(problem.getId());
+        LocalDateTime version = problem.getUpdatedAt() != null ? problem.getUpdatedAt() : problem.getCreatedAt();
+        request.setTestDataVersion(version == null ? null : version.toString());
+        if (problem.getTimeLimitMs() > 0) {
+            request.setTimeLimitMs(problem.getTimeLimitMs());
+        }
+        if (problem.getMemoryLimitMb() > 0) {
+            request.setMemoryLimitMb(problem.getMemoryLimitMb());
+        }
+        if (problem.getCheckerMode() != null) {
+            request.setCheckerMode(problem.getCheckerMode());
+        }
+        request.setCheckerEpsilon(problem.getCheckerEpsilon());
+    }
+}
@@ -0,0 +1,14 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce;
+
+/**
+ * Why a job was queued. The scheduler gives each class its own weight
+ * and per-user concurrency cap (code-execution.scheduler.<class>.*).
+ */
+public enum JobClass {
+    // Sample tests from the editor; someone is waiting on the result
+    RUN,
+    // Full test set, stored as a Submission
+    SUBMIT,
+    // Re-run of a stored Submission: admin rejudge, or crash recovery
+    REJUDGE
+}
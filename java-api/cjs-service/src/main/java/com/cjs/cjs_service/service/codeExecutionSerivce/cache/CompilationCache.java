@@ -0,0 +1,199 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.cache;
+
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.ExecResult;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.Sandbox;
+
+import com.github.dockerjava.api.DockerClient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled artifacts keyed by SHA-256 of (language, image id, compile
+ * command, source). Pressing Run several times and then Submit compiles
+ * the source once; later jobs get the artifacts extracted straight into
+ * their sandbox.
+ *
+ * Entries are tar streams of the artifact paths, so file modes (the C++
+ * binary's exec bit) survive. Eviction is LRU, bounded by total bytes.
+ */
+@Component
+public class CompilationCache {
+
+    private final DockerClient docker;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, String> imageIds = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${code-execution.compile-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${code-execution.compile-cache.max-size-mb:256}")
+    private long maxSizeMb;
+
+    @Value("${code-execution.compile-cache.max-entry-mb:16}")
+    private long maxEntryMb;
+
+    public CompilationCache(DockerClient docker, MeterRegistry meterRegistry) {
+        this.docker = docker;
+        this.meterRegistry = meterRegistry;
+
+        this.hits = meterRegistry.counter("compile.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("compile.cache.requests", "result", "miss");
+
+        Gauge.builder("compile.cache.entries", this, c -> c.size())
+                .register(meterRegistry);
+        Gauge.builder("compile.cache.bytes", this, c -> c.bytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // ===============================
+    // Compile through the cache
+    // ===============================
+
+    /**
+     * Runs the compile command unless the same source was already built
+     * with the same command and image. On a hit the artifacts are
+     * extracted into /workspace and an empty successful result is
+     * returned; on a successful miss the artifacts are stored.
+     *
+     * @param artifacts /workspace paths (shell globs allowed) the run needs
+     */
+    public ExecResult compile(
+            Sandbox sandbox,
+            String source,
+            Duration timeout,
+            String artifacts,
+            String... compileCommand) throws InterruptedException {
+
+        long start = System.nanoTime();
+
+        if (!enabled) {
+            ExecResult compile = sandbox.exec(timeout, compileCommand);
+            recordDuration(sandbox, "disabled", start);
+            return compile;
+        }
+
+        String key = key(sandbox, source, compileCommand);
+
+        byte[] cached = get(key);
+        if (cached != null && sandbox.upload(cached).exitCode() == 0) {
+            hits.increment();
+            recordDuration(sandbox, "hit", start);
+            return new ExecResult(0, "", "");
+        }
+        misses.increment();
+
+        ExecResult compile = sandbox.exec(timeout, compileCommand);
+        recordDuration(sandbox, "miss", start);
+
+        if (compile.exitCode() == 0) {
+            byte[] tar = sandbox.download(artifacts);
+            if (tar != null) {
+                put(key, tar);
+            }
+        }
+
+        return compile;
+    }
+
+    // Compile latency per language, split by how the cache served it
+    private void recordDuration(Sandbox sandbox, String result, long startNanos) {
+        Timer.builder("compile.duration")
+                .tag("language", sandbox.getSpec().language())
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // ===============================
+    // LRU store
+    // ===============================
+
+    private synchronized byte[] get(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(String key, byte[] tar) {
+        if (tar.length > maxEntryMb * 1024 * 1024) {
+            return;
+        }
+
+        byte[] previous = entries.put(key, tar);
+        totalBytes += tar.length - (previous == null ? 0 : previous.length);
+
+        Iterator<byte[]> eldest = entries.values().iterator();
+        while (totalBytes > maxSizeMb * 1024 * 1024 && eldest.hasNext()) {
+            totalBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized long bytes() {
+        return totalBytes;
+    }
+
+    // ===============================
+    // Key
+    // ===============================
+
+    private String key(Sandbox sandbox, String source, String... compileCommand) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[] {
+                    sandbox.getSpec().language(),
+                    imageId(sandbox.getSpec().image()),
+                    String.join("\u0000", compileCommand),
+                    source }) {
+                sha.update(part.getBytes(StandardCharsets.UTF_8));
+                sha.update((byte) 0x1f);
+            }
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Image id (config digest) of a tag, so binaries built by one compiler
+     * image are never served for another. Looked up once per tag; a failed
+     * lookup is retried on the next job.
+     */
+    private String imageId(String image) {
+        String id = imageIds.computeIfAbsent(image, name -> {
+            try {
+                return docker.inspectImageCmd(name).exec().getId();
+            } catch (RuntimeException e) {
+                return null;
+            }
+        });
+        return id != null ? id : image;
+    }
+}
@@ -0,0 +1,204 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.cache;
+
+import com.cjs.cjs_service.dto.CodeExecutionResult;
+import com.cjs.cjs_service.dto.TestCaseDto;
+import com.cjs.cjs_service.dto.TestCaseResultDto;
+import com.cjs.cjs_service.model.SubmissionStatus;
+import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutionRequest;
+import com.cjs.cjs_service.service.codeExecutionSerivce.JobClass;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finished results keyed by SHA-256 of (problem, language, source,
+ * limits, test data). Resubmitting identical code against unchanged
+ * tests completes without touching a sandbox.
+ *
+ * The test data is part of the key, so edited tests can never be
+ * served a stale verdict; {@link #invalidateProblem} just frees the
+ * entries early. Only verdicts that do not depend on host load are
+ * stored: TLE and MLE are always judged again.
+ *
+ * The test data goes into the key as a digest kept per problem, so a
+ * lookup does not hash every test again. A digest is reused only for the
+ * same test data version (the problem's last edit, which every instance
+ * reads from the database) and test count; requests without a version
+ * are hashed in full.
+ *
+ * A runtime error is only stored when the harness reported it as a real
+ * exit (1-127) of the program. A test the harness never reported (exit
+ * -1), or one killed by a signal (128+), may be down to the sandbox, not
+ * the code, and must not stick until the problem is edited.
+ */
+@Component
+public class VerdictCache {
+
+    private static final Set<SubmissionStatus> CACHEABLE = EnumSet.of(
+            SubmissionStatus.ACCEPTED,
+            SubmissionStatus.WRONG_ANSWER,
+            SubmissionStatus.RUNTIME_ERROR,
+            SubmissionStatus.COMPILATION_ERROR);
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    // Test data digests by problem and test set
+    private final Map<TestSet, TestDigest> testDigests = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${code-execution.verdict-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${code-execution.verdict-cache.max-entries:10000}")
+    private int maxEntries;
+
+    public VerdictCache(MeterRegistry meterRegistry) {
+        this.hits = meterRegistry.counter("verdict.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("verdict.cache.requests", "result", "miss");
+
+        Gauge.builder("verdict.cache.entries", this, c -> c.size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Looks the request up and remembers its key on the request so the
+     * worker can store the result under it later.
+     */
+    public CodeExecutionResult get(CodeExecutionRequest request) {
+        if (!enabled || request.getProblemId() <= 0) {
+            return null;
+        }
+
+        request.setVerdictKey(key(request, testDigest(request)));
+
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(request.getVerdictKey());
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.result();
+    }
+
+    public void put(CodeExecutionRequest request, CodeExecutionResult result) {
+        if (request.getVerdictKey() == null
+                || !CACHEABLE.contains(result.getSubmissionStatus())
+                || !result.getError().isBlank()
+                || !result.getTestCaseResults().stream().allMatch(VerdictCache::isDeterministic)) {
+            return;
+        }
+
+        synchronized (this) {
+            entries.put(request.getVerdictKey(), new Entry(request.getProblemId(), result));
+
+            var eldest = entries.values().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private static boolean isDeterministic(TestCaseResultDto test) {
+        if (test.getStatus() == SubmissionStatus.RUNTIME_ERROR) {
+            return test.getExitCode() > 0 && test.getExitCode() < 128;
+        }
+        return test.getStatus() == null || CACHEABLE.contains(test.getStatus());
+    }
+
+    public synchronized void invalidateProblem(int problemId) {
+        entries.values().removeIf(entry -> entry.problemId() == problemId);
+        testDigests.keySet().removeIf(set -> set.problemId() == problemId);
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private String testDigest(CodeExecutionRequest request) {
+        String version = request.getTestDataVersion();
+        if (version == null) {
+            return hashTests(request.getTestCases());
+        }
+
+        TestSet set = new TestSet(request.getProblemId(), request.getJobClass() == JobClass.RUN);
+        int count = request.getTestCases().size();
+        TestDigest cached = testDigests.get(set);
+        if (cached != null && cached.version().equals(version) && cached.testCount() == count) {
+            return cached.digest();
+        }
+
+        String digest = hashTests(request.getTestCases());
+        testDigests.put(set, new TestDigest(version, count, digest));
+        return digest;
+    }
+
+    private static String key(CodeExecutionRequest request, String testDigest) {
+        MessageDigest sha = sha256();
+
+        update(sha, String.valueOf(request.getProblemId()));
+        update(sha, request.getLanguage());
+        update(sha, request.getSourceCode());
+        update(sha, request.getTimeLimitMs() + ":" + request.getMemoryLimitMb());
+        update(sha, request.getCheckerMode() + ":" + request.getCheckerEpsilon());
+        update(sha, testDigest);
+
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    private static String hashTests(List<TestCaseDto> tests) {
+        MessageDigest sha = sha256();
+        for (TestCaseDto test : tests) {
+            update(sha, test.getInput());
+            update(sha, test.getOutput());
+        }
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Length-prefixed so field boundaries cannot shift between inputs
+    private static void update(MessageDigest sha, String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        sha.update(Integer.toString(bytes.length).getBytes(StandardCharsets.US_ASCII));
+        sha.update((byte) ':');
+        sha.update(bytes);
+    }
+
+    private record Entry(int problemId, CodeExecutionResult result) {
+    }
+
+    // Runs only see the sample tests, so they have their own digest
+    private record TestSet(int problemId, boolean samplesOnly) {
+    }
+
+    private record TestDigest(String version, int testCount, String digest) {
+    }
+}
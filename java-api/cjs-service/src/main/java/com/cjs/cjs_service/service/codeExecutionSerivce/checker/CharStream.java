@@ -0,0 +1,107 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.checker;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Buffered one-character lookahead over a Reader that tracks the line
+ * and column of the next character. "\r\n" is read as a single '\n',
+ * so expected outputs saved with Windows line endings still match.
+ */
+final class CharStream {
+
+    static final int EOF = -1;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+
+    private long line = 1;
+    private long column = 1;
+
+    CharStream(Reader reader) {
+        this.reader = reader;
+    }
+
+    int peek() {
+        int c = raw();
+        if (c == '\r') {
+            pos++;
+            if (raw() != '\n') {
+                pos--; // lone '\r' is an ordinary character
+            }
+            c = raw();
+        }
+        return c;
+    }
+
+    int read() {
+        int c = peek();
+        if (c == EOF) {
+            return EOF;
+        }
+        pos++;
+        if (c == '\n') {
+            line++;
+            column = 1;
+        } else {
+            column++;
+        }
+        return c;
+    }
+
+    /**
+     * Skips whitespace; true when a token follows.
+     */
+    boolean skipWhitespace() {
+        while (isWhitespace(peek())) {
+            read();
+        }
+        return peek() != EOF;
+    }
+
+    /**
+     * Next character of the current token, or EOF once it has ended.
+     */
+    int readTokenChar() {
+        int c = peek();
+        return c == EOF || isWhitespace(c) ? EOF : read();
+    }
+
+    long line() {
+        return line;
+    }
+
+    long column() {
+        return column;
+    }
+
+    static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+
+    private int raw() {
+        if (pos == limit) {
+            fill();
+        }
+        return pos < limit ? buffer[pos] : EOF;
+    }
+
+    // Keeps one character behind pos so a '\r' lookahead can step back
+    private void fill() {
+        int keep = 0;
+        if (limit > 0) {
+            buffer[0] = buffer[limit - 1];
+            keep = 1;
+        }
+        try {
+            int n = reader.read(buffer, keep, buffer.length - keep);
+            limit = keep + Math.max(n, 0);
+            pos = keep;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.checker;
+
+/**
+ * Checker verdict; message describes the first mismatch, null when accepted.
+ */
+public record CheckResult(boolean accepted, String message) {
+
+    static final CheckResult OK = new CheckResult(true, null);
+
+    static CheckResult mismatch(String message) {
+        return new CheckResult(false, message);
+    }
+}
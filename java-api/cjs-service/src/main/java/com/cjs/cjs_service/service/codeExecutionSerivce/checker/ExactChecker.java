@@ -0,0 +1,54 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.checker;
+
+import java.io.Reader;
+
+/**
+ * Character-for-character comparison, ignoring whitespace before the
+ * first and after the last non-whitespace character of each side.
+ */
+class ExactChecker implements OutputChecker {
+
+    @Override
+    public CheckResult check(Reader actualReader, Reader expectedReader) {
+        CharStream actual = new CharStream(actualReader);
+        CharStream expected = new CharStream(expectedReader);
+
+        actual.skipWhitespace();
+        expected.skipWhitespace();
+
+        while (true) {
+            int a = actual.peek();
+            int e = expected.peek();
+
+            if (a == e) {
+                if (a == CharStream.EOF) {
+                    return CheckResult.OK;
+                }
+                actual.read();
+                expected.read();
+                continue;
+            }
+
+            long line = actual.line();
+            long column = actual.column();
+
+            // Differences in trailing whitespace only are accepted
+            if (!actual.skipWhitespace() && !expected.skipWhitespace()) {
+                return CheckResult.OK;
+            }
+
+            return CheckResult.mismatch("line " + line + ", column " + column
+                    + ": expected " + describe(e) + ", got " + describe(a));
+        }
+    }
+
+    private static String describe(int c) {
+        return switch (c) {
+            case CharStream.EOF -> "end of output";
+            case '\n' -> "end of line";
+            case ' ' -> "space";
+            case '\t' -> "tab";
+            default -> "'" + (char) c + "'";
+        };
+    }
+}
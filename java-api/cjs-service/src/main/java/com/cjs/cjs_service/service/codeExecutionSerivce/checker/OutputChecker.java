@@ -0,0 +1,42 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.checker;
+
+import com.cjs.cjs_service.model.CheckerMode;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares a program's output with the expected output. Both sides are
+ * read as character streams, so no trimmed or split copies are made.
+ */
+public interface OutputChecker {
+
+    double DEFAULT_EPSILON = 1e-6;
+
+    CheckResult check(Reader actual, Reader expected);
+
+    default CheckResult check(byte[] actual, String expected) {
+        return check(
+                new InputStreamReader(new ByteArrayInputStream(actual), StandardCharsets.UTF_8),
+                new StringReader(expected));
+    }
+
+    /**
+     * Checker for a problem's mode. A missing mode means EXACT, which
+     * matches how outputs were compared before modes existed.
+     */
+    static OutputChecker of(CheckerMode mode, double epsilon) {
+        if (mode == null) {
+            return new ExactChecker();
+        }
+        return switch (mode) {
+            case EXACT -> new ExactChecker();
+            case WHITESPACE -> new TokenChecker(false, 0);
+            case CASE_INSENSITIVE -> new TokenChecker(true, 0);
+            case FLOAT -> new TokenChecker(false, epsilon > 0 ? epsilon : DEFAULT_EPSILON);
+        };
+    }
+}
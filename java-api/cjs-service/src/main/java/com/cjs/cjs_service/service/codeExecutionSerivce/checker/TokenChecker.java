@@ -0,0 +1,114 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.checker;
+
+import java.io.Reader;
+import java.util.regex.Pattern;
+
+/**
+ * Compares whitespace-separated tokens; the amount and kind of
+ * whitespace between them does not matter.
+ *
+ * Tokens are compared character by character as they are read. Only
+ * the first {@link #KEPT_CHARS} characters of each are kept, for the
+ * mismatch message and for parsing numbers when an epsilon is set.
+ */
+class TokenChecker implements OutputChecker {
+
+    private static final int KEPT_CHARS = 64;
+
+    private static final Pattern NUMBER =
+            Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+
+    private final boolean ignoreCase;
+    private final double epsilon;
+
+    TokenChecker(boolean ignoreCase, double epsilon) {
+        this.ignoreCase = ignoreCase;
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public CheckResult check(Reader actualReader, Reader expectedReader) {
+        CharStream actual = new CharStream(actualReader);
+        CharStream expected = new CharStream(expectedReader);
+
+        StringBuilder a = new StringBuilder(KEPT_CHARS);
+        StringBuilder e = new StringBuilder(KEPT_CHARS);
+
+        for (long token = 1; ; token++) {
+            boolean hasActual = actual.skipWhitespace();
+            boolean hasExpected = expected.skipWhitespace();
+
+            if (!hasActual && !hasExpected) {
+                return CheckResult.OK;
+            }
+
+            long line = actual.line();
+            a.setLength(0);
+            e.setLength(0);
+
+            boolean same = true;
+            boolean actualComplete = true;
+            boolean expectedComplete = true;
+
+            while (true) {
+                int ca = actual.readTokenChar();
+                int ce = expected.readTokenChar();
+                if (ca == CharStream.EOF && ce == CharStream.EOF) {
+                    break;
+                }
+                same &= equal(ca, ce);
+                actualComplete &= keep(a, ca);
+                expectedComplete &= keep(e, ce);
+            }
+
+            if (same || (epsilon > 0 && actualComplete && expectedComplete && close(a, e))) {
+                continue;
+            }
+
+            return CheckResult.mismatch("token " + token + " (line " + line + "): expected "
+                    + describe(e, hasExpected, expectedComplete) + ", got "
+                    + describe(a, hasActual, actualComplete));
+        }
+    }
+
+    private boolean equal(int a, int e) {
+        if (a == e) {
+            return true;
+        }
+        return ignoreCase && a != CharStream.EOF && e != CharStream.EOF
+                && Character.toLowerCase(a) == Character.toLowerCase(e);
+    }
+
+    private boolean close(CharSequence actual, CharSequence expected) {
+        if (!NUMBER.matcher(actual).matches() || !NUMBER.matcher(expected).matches()) {
+            return false;
+        }
+        double a = Double.parseDouble(actual.toString());
+        double e = Double.parseDouble(expected.toString());
+        double diff = Math.abs(a - e);
+
+        // Absolute or relative error, whichever is more lenient
+        return diff <= epsilon || diff <= epsilon * Math.abs(e);
+    }
+
+    /**
+     * Appends while there is room; false once a character had to be dropped.
+     */
+    private static boolean keep(StringBuilder token, int c) {
+        if (c == CharStream.EOF) {
+            return true;
+        }
+        if (token.length() < KEPT_CHARS) {
+            token.append((char) c);
+            return true;
+        }
+        return false;
+    }
+
+    private static String describe(StringBuilder token, boolean present, boolean complete) {
+        if (!present) {
+            return "end of output";
+        }
+        return "'" + token + (complete ? "'" : "...'");
+    }
+}
@@ -1,200 +1,187 @@
 package com.cjs.cjs_service.service.codeExecutionSerivce.executor;
 
-import com.cjs.cjs_service.dto.CodeExecutionResult;
-import com.cjs.cjs_service.dto.TestCaseResultDto;
-import com.cjs.cjs_service.model.SubmissionStatus;
 import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutionRequest;
 import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutorBase;
-import com.cjs.cjs_service.service.codeExecutionSerivce.infrastructure.DockerClientFactory;
-
-import com.github.dockerjava.api.DockerClient;
-import com.github.dockerjava.api.async.ResultCallback;
-import com.github.dockerjava.api.command.ExecCreateCmdResponse;
-import com.github.dockerjava.api.model.*;
-
+import com.cjs.cjs_service.service.codeExecutionSerivce.cache.CompilationCache;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.BatchHarness;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.ExecResult;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.Sandbox;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.SandboxArchive;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.SandboxPool;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.SandboxSpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class JavaCodeExecutor extends CodeExecutorBase {
 
+        private final BatchHarness batchHarness;
+        private final CompilationCache compilationCache;
+        private final String judgeRunnerSource;
+
+        // One JVM for many tests (JudgeRunner) instead of one per test
+        @Value("${code-execution.java.persistent-jvm:true}")
+        private boolean persistentJvm;
+
+        // The derived judge image (sandbox-images/java) adds CDS archives
+        @Value("${code-execution.java.image:eclipse-temurin:17-jdk-alpine}")
+        private String image;
+
+        // Bulkhead against other languages; see CodeExecutorBase
+        @Value("${code-execution.java.max-concurrency:0}")
+        private int maxConcurrency;
+
+        // 0 = code-execution.pool.max-size
+        @Value("${code-execution.java.pool-size:0}")
+        private int poolSize;
+
+        // Directory of javac.jsa and run.jsa in the image; empty = none
+        @Value("${code-execution.java.cds-archive-dir:}")
+        private String cdsArchiveDir;
+
+        @Value("${code-execution.java.compile-profile:SHORT_LIVED}")
+        private JvmLaunchProfile compileProfile;
+
+        @Value("${code-execution.java.run-profile:DEFAULT}")
+        private JvmLaunchProfile runProfile;
+
+        public JavaCodeExecutor(
+                        SandboxPool sandboxPool,
+                        BatchHarness batchHarness,
+                        CompilationCache compilationCache) {
+                super(sandboxPool);
+                this.batchHarness = batchHarness;
+                this.compilationCache = compilationCache;
+                try {
+                        this.judgeRunnerSource = new ClassPathResource("sandbox/JudgeRunner.java")
+                                        .getContentAsString(StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                }
+        }
+
         @Override
         public String getLanguage() {
                 return "java";
         }
 
         @Override
-        protected CodeExecutionResult executeInternal(
-                        CodeExecutionRequest request) throws Exception {
-
-                DockerClient docker = DockerClientFactory.create();
-
-                // Encode Java source safely (same as C#)
-                String sourceB64 = Base64.getEncoder()
-                                .encodeToString(request.getSourceCode()
-                                                .getBytes(StandardCharsets.UTF_8));
-
-                String containerId = docker.createContainerCmd("eclipse-temurin:17-jdk-alpine")
-                                .withCmd("sh", "-c", "sleep infinity")
-                                .withEnv("SOURCE_B64=" + sourceB64)
-                                .withWorkingDir("/workspace")
-                                .withHostConfig(
-                                                HostConfig.newHostConfig()
-                                                                .withNetworkMode("none")
-                                                                .withReadonlyRootfs(true)
-                                                                .withMemory(256L * 1024 * 1024)
-                                                                .withNanoCPUs(1_000_000_000L)
-                                                                .withPidsLimit(64L)
-                                                                .withCapDrop(Capability.ALL)
-                                                                .withTmpFs(
-                                                                                Map.of("/workspace",
-                                                                                                "rw,exec,size=64m"))
-                                                                .withAutoRemove(true))
-                                .exec()
-                                .getId();
-
-                docker.startContainerCmd(containerId).exec();
+        public SandboxSpec getSandboxSpec() {
+                return new SandboxSpec("java", image, "rw,exec", poolSize);
+        }
 
-                try {
-                        /*
-                         * -------------------------------------------------
-                         * STEP 1: Write Main.java
-                         * -------------------------------------------------
-                         */
-                        ExecResult write = exec(
-                                        docker, containerId,
-                                        "sh", "-c",
-                                        "echo \"$SOURCE_B64\" | base64 -d > /workspace/Main.java");
-
-                        if (write.exitCode != 0)
-                                return fail(write);
-
-                        /*
-                         * -------------------------------------------------
-                         * STEP 2: Compile ONCE
-                         * -------------------------------------------------
-                         */
-                        ExecResult compile = exec(
-                                        docker, containerId,
-                                        "javac", "/workspace/Main.java");
-
-                        if (compile.exitCode != 0) {
-                                CodeExecutionResult r = fail(compile);
-                                r.setSubmissionStatus(SubmissionStatus.COMPILATION_ERROR);
-                                return r;
-                        }
-
-                        /*
-                         * -------------------------------------------------
-                         * STEP 3: Run for EACH test case
-                         * -------------------------------------------------
-                         */
-                        List<TestCaseResultDto> results = new ArrayList<>();
-
-                        for (int i = 0; i < request.getTestCases().size(); i++) {
-                                var test = request.getTestCases().get(i);
-
-                                String inputB64 = Base64.getEncoder()
-                                                .encodeToString(test.getInput()
-                                                                .getBytes(StandardCharsets.UTF_8));
-
-                                ExecResult run = exec(
-                                                docker, containerId,
-                                                "sh", "-c",
-                                                "echo \"" + inputB64 + "\" | base64 -d | java -cp /workspace Main");
-
-                                String output = run.output.trim();
-                                String expected = test.getOutput().trim();
-
-                                TestCaseResultDto dto = new TestCaseResultDto();
-                                dto.setIndex(i + 1);
-                                dto.setInput(test.getInput());
-                                dto.setOutput(output);
-                                dto.setExpected(expected);
-                                dto.setPassed(output.equals(expected));
-
-                                results.add(dto);
-                        }
-
-                        /*
-                         * -------------------------------------------------
-                         * FINAL RESULT
-                         * -------------------------------------------------
-                         */
-                        CodeExecutionResult result = new CodeExecutionResult();
-                        result.setExitCode(0);
-
-                        long passedCount = results.stream()
-                                        .filter(TestCaseResultDto::isPassed)
-                                        .count();
-
-                        int totalCount = results.size();
-
-                        result.setOutput(passedCount + " / " + totalCount + " test cases passed");
-                        result.setTestCaseResults(results);
-
-                        if (passedCount == totalCount) {
-                                result.setSubmissionStatus(SubmissionStatus.ACCEPTED);
-                        } else if (passedCount > 0) {
-                                result.setSubmissionStatus(SubmissionStatus.WRONG_ANSWER);
-                        } else {
-                                result.setSubmissionStatus(SubmissionStatus.WRONG_ANSWER);
-                        }
-
-                        return result;
-
-                } finally {
-                        docker.stopContainerCmd(containerId).exec();
-                }
+        @Override
+        public int getMaxConcurrency() {
+                return maxConcurrency;
+        }
+
+        /*
+         * -------------------------------------------------
+         * STEP 1: Main.java (and the test runner)
+         * -------------------------------------------------
+         */
+        @Override
+        protected SandboxArchive sources(CodeExecutionRequest request) {
+                SandboxArchive sources = new SandboxArchive()
+                                .add("Main.java", request.getSourceCode());
+                if (persistentJvm)
+                        sources.add(".cjs/JudgeRunner.java", judgeRunnerSource);
+                return sources;
+        }
+
+        /*
+         * -------------------------------------------------
+         * STEP 2: Compile ONCE (or reuse cached classes)
+         * -------------------------------------------------
+         */
+        @Override
+        protected ExecResult compileSources(
+                        Sandbox sandbox,
+                        CodeExecutionRequest request) throws InterruptedException {
+
+                return compilationCache.compile(
+                                sandbox,
+                                request.getSourceCode(),
+                                compileTimeout,
+                                "*.class",
+                                javac("/workspace/Main.java"));
+        }
+
+        /*
+         * -------------------------------------------------
+         * STEP 3: Run ALL test cases in one harness exec
+         * -------------------------------------------------
+         */
+        @Override
+        protected BatchHarness.BatchRun runTests(
+                        Sandbox sandbox,
+                        CodeExecutionRequest request) throws InterruptedException {
+
+                if (persistentJvm && compileRunner(sandbox))
+                        // JudgeRunner traps System.exit() with a SecurityManager
+                        return batchHarness.runPersistent(sandbox, request,
+                                        java("-Djava.security.manager=allow",
+                                                        "-cp", "/workspace/.cjs/runner", "JudgeRunner"));
+
+                return batchHarness.run(sandbox, request,
+                                java("-cp", "/workspace", "Main"));
+        }
+
+        // Same source every job, so after the first job per image this is
+        // a cache hit. Without a runner the tests run one JVM each.
+        private boolean compileRunner(Sandbox sandbox) throws InterruptedException {
+                ExecResult runner = compilationCache.compile(
+                                sandbox,
+                                judgeRunnerSource,
+                                compileTimeout,
+                                ".cjs/runner",
+                                javac("-d", "/workspace/.cjs/runner",
+                                                "/workspace/.cjs/JudgeRunner.java"));
+                return runner.exitCode() == 0;
         }
 
         // ===============================
-        // Helpers (same as C++)
+        // Launch commands
         // ===============================
 
-        private static CodeExecutionResult fail(ExecResult r) {
-                CodeExecutionResult res = new CodeExecutionResult();
-                res.setExitCode(r.exitCode);
-                res.setOutput(r.output);
-                return res;
+        private String[] javac(String... args) {
+                List<String> cmd = new ArrayList<>();
+                cmd.add("javac");
+                compileProfile.options().forEach(o -> cmd.add("-J" + o));
+                cdsOptions("javac").forEach(o -> cmd.add("-J" + o));
+                cmd.addAll(List.of(args));
+                return cmd.toArray(String[]::new);
         }
 
-        private static ExecResult exec(
-                        DockerClient docker,
-                        String containerId,
-                        String... cmd) throws Exception {
-
-                ExecCreateCmdResponse exec = docker.execCreateCmd(containerId)
-                                .withCmd(cmd)
-                                .withAttachStdout(true)
-                                .withAttachStderr(true)
-                                .exec();
-
-                ByteArrayOutputStream out = new ByteArrayOutputStream();
-
-                docker.execStartCmd(exec.getId())
-                                .exec(new ResultCallback.Adapter<Frame>() {
-                                        @Override
-                                        public void onNext(Frame frame) {
-                                                out.writeBytes(frame.getPayload());
-                                        }
-                                })
-                                .awaitCompletion();
-
-                Long exitCodeLong = docker.inspectExecCmd(exec.getId())
-                                .exec()
-                                .getExitCodeLong();
-
-                int exitCode = exitCodeLong == null ? -1 : exitCodeLong.intValue();
-
-                return new ExecResult(
-                                exitCode,
-                                out.toString(StandardCharsets.UTF_8));
+        private String[] java(String... args) {
+                List<String> cmd = new ArrayList<>();
+                cmd.add("java");
+                // Keep the heap under the cgroup limit so an overflow
+                // surfaces as OutOfMemoryError instead of a kernel kill
+                cmd.add("-XX:MaxRAMPercentage=75");
+                cmd.add("-XX:+UseSerialGC");
+                // JVM warnings (e.g. an unusable CDS archive) default to
+                // stdout, where they would be judged as program output
+                cmd.add("-Xlog:disable");
+                cmd.add("-Xlog:all=warning:stderr");
+                cmd.addAll(runProfile.options());
+                cmd.addAll(cdsOptions("run"));
+                cmd.addAll(List.of(args));
+                return cmd.toArray(String[]::new);
         }
 
-        private record ExecResult(int exitCode, String output) {
+        // An archive that does not match the JVM is ignored by the JVM
+        private List<String> cdsOptions(String archive) {
+                if (cdsArchiveDir.isBlank())
+                        return List.of();
+                return List.of("-XX:SharedArchiveFile=" + cdsArchiveDir + "/" + archive + ".jsa");
         }
 }
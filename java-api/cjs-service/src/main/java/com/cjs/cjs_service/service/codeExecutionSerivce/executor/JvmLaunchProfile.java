@@ -0,0 +1,27 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.executor;
+
+import java.util.List;
+
+/**
+ * Extra JVM options for a javac or java launch in the Java sandbox.
+ * Compile and run choose theirs separately
+ * (code-execution.java.compile-profile / run-profile).
+ */
+public enum JvmLaunchProfile {
+    // JVM defaults
+    DEFAULT(List.of()),
+    // For processes that live well under a second: C1 only, so no time
+    // goes to C2 compiles that never pay off, and no hsperfdata file.
+    // Long CPU-bound programs run slower, so it suits javac best.
+    SHORT_LIVED(List.of("-XX:TieredStopAtLevel=1", "-XX:-UsePerfData"));
+
+    private final List<String> options;
+
+    JvmLaunchProfile(List<String> options) {
+        this.options = options;
+    }
+
+    public List<String> options() {
+        return options;
+    }
+}
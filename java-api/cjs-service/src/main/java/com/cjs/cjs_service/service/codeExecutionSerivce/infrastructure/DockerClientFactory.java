@@ -5,13 +5,32 @@ import com.github.dockerjava.core.DefaultDockerClientConfig;
 import com.github.dockerjava.core.DockerClientImpl;
 import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
 import java.time.Duration;
 
-public final class DockerClientFactory {
+/**
+ * Builds the single DockerClient shared by the sandbox pool and executors.
+ * Closing it on shutdown releases the pooled HTTP connections.
+ */
+@Configuration
+public class DockerClientFactory {
+
+    @Value("${code-execution.docker.max-connections:32}")
+    private int maxConnections;
+
+    @Value("${code-execution.docker.connection-timeout:PT5S}")
+    private Duration connectionTimeout;
 
-    private DockerClientFactory() {}
+    @Value("${code-execution.docker.response-timeout:PT30S}")
+    private Duration responseTimeout;
 
-    public static DockerClient create() {
+    @Bean(destroyMethod = "close")
+    public DockerClient dockerClient(MeterRegistry meterRegistry) {
 
         DefaultDockerClientConfig.Builder configBuilder =
                 DefaultDockerClientConfig.createDefaultConfigBuilder();
@@ -31,10 +50,13 @@ public final class DockerClientFactory {
                 new ApacheDockerHttpClient.Builder()
                         .dockerHost(config.getDockerHost())
                         .sslConfig(config.getSSLConfig())
-                        .connectionTimeout(Duration.ofSeconds(5))
-                        .responseTimeout(Duration.ofSeconds(30))
+                        .maxConnections(maxConnections)
+                        .connectionTimeout(connectionTimeout)
+                        .responseTimeout(responseTimeout)
                         .build();
 
-        return DockerClientImpl.getInstance(config, httpClient);
+        return DockerClientImpl.getInstance(
+                config,
+                new MeteredDockerHttpClient(httpClient, maxConnections, meterRegistry));
     }
 }
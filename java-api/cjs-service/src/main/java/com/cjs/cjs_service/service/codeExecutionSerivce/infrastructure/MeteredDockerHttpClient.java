@@ -0,0 +1,107 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.infrastructure;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps the Docker HTTP transport and counts connections.
+ * A response holds its permit until it is closed, so streaming calls
+ * (exec attach, logs) count as leased for their whole duration.
+ * The permit count equals the transport's pool size, which means a
+ * caller waits here, visible as "pending", and not inside the pool.
+ */
+class MeteredDockerHttpClient implements DockerHttpClient {
+
+    private final DockerHttpClient delegate;
+    private final Semaphore permits;
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    MeteredDockerHttpClient(DockerHttpClient delegate, int maxConnections, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConnections, true);
+
+        Gauge.builder("docker.connections.leased", leased, AtomicInteger::get)
+                .description("Docker API connections currently in use")
+                .register(registry);
+        Gauge.builder("docker.connections.pending", pending, AtomicInteger::get)
+                .description("Docker API calls waiting for a free connection")
+                .register(registry);
+        Gauge.builder("docker.connections.max", () -> maxConnections)
+                .register(registry);
+    }
+
+    @Override
+    public Response execute(Request request) {
+        pending.incrementAndGet();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a Docker connection", e);
+        } finally {
+            pending.decrementAndGet();
+        }
+
+        leased.incrementAndGet();
+        try {
+            return new LeasedResponse(delegate.execute(request));
+        } catch (RuntimeException e) {
+            leased.decrementAndGet();
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private class LeasedResponse implements Response {
+
+        private final Response response;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        LeasedResponse(Response response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public Map<String, List<String>> getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    leased.decrementAndGet();
+                    permits.release();
+                }
+            }
+        }
+    }
+}
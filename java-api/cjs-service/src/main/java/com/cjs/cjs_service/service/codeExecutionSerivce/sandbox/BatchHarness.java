@@ -0,0 +1,177 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+import com.cjs.cjs_service.dto.TestCaseDto;
+import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutionRequest;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Runs every test case of a job through one in-container harness:
+ * one upload for all inputs and one exec for all runs, instead of an
+ * exec create/start/inspect round-trip per test.
+ *
+ * The harness enforces the per-test CPU and wall-clock limits; the
+ * exec itself is bounded by the sandbox's job deadline.
+ *
+ * Inputs and build output live on the /workspace tmpfs, whose pages are
+ * charged to the container's memory cgroup and cannot be reclaimed, so
+ * the cgroup limit for the run is the problem's memory limit plus what
+ * the workspace holds.
+ *
+ * runPersistent() instead starts a runner that keeps one process across
+ * tests (JudgeRunner, judge-runner.js) and writes the same frames.
+ *
+ * The request's testListener, if set, gets each result the moment its
+ * frame is complete, on the exec's callback thread.
+ */
+@Component
+public class BatchHarness {
+
+    static final String HARNESS_PATH = ".cjs/harness.sh";
+    static final String PERSISTENT_HARNESS_PATH = ".cjs/persistent-harness.sh";
+
+    private static final int MAX_HARNESS_ERRORS = 16 * 1024;
+
+    private final SandboxPool sandboxPool;
+    private final byte[] harnessScript;
+    private final byte[] persistentHarnessScript;
+
+    // Per test; larger output ends the test with OUTPUT_LIMIT_EXCEEDED
+    @Value("${code-execution.limits.output-limit-kb:8192}")
+    private long outputLimitKb;
+
+    public BatchHarness(SandboxPool sandboxPool) {
+        this.sandboxPool = sandboxPool;
+        try {
+            harnessScript = new ClassPathResource("sandbox/harness.sh")
+                    .getContentAsByteArray();
+            persistentHarnessScript = new ClassPathResource("sandbox/persistent-harness.sh")
+                    .getContentAsByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Runs every test as a fresh process of runCommand.
+     */
+    public BatchRun run(
+            Sandbox sandbox,
+            CodeExecutionRequest request,
+            String... runCommand) throws InterruptedException {
+
+        return run(sandbox, request, HARNESS_PATH, runCommand);
+    }
+
+    /**
+     * Runs the tests through a runner process that executes many tests
+     * itself, restarted only when it asks to be. runnerCommand gets
+     * FROM COUNT TIME_LIMIT_MS WALL_LIMIT_MS OUTPUT_LIMIT appended.
+     */
+    public BatchRun runPersistent(
+            Sandbox sandbox,
+            CodeExecutionRequest request,
+            String... runnerCommand) throws InterruptedException {
+
+        return run(sandbox, request, PERSISTENT_HARNESS_PATH, runnerCommand);
+    }
+
+    private BatchRun run(
+            Sandbox sandbox,
+            CodeExecutionRequest request,
+            String harnessPath,
+            String... runCommand) throws InterruptedException {
+
+        List<TestCaseDto> testCases = request.getTestCases();
+
+        SandboxArchive archive = new SandboxArchive()
+                .add(HARNESS_PATH, harnessScript)
+                .add(PERSISTENT_HARNESS_PATH, persistentHarnessScript);
+
+        for (int i = 0; i < testCases.size(); i++) {
+            archive.add("in/" + (i + 1), testCases.get(i).getInput());
+        }
+
+        ExecResult upload = sandbox.upload(archive);
+        if (upload.exitCode() != 0) {
+            return new BatchRun(List.of(), upload.exitCode(), upload.output(), upload.timedOut());
+        }
+
+        sandboxPool.limitMemory(sandbox, request.getMemoryLimitMb() + workspaceMb(sandbox, archive.size()));
+
+        List<HarnessResult> results = new ArrayList<>();
+        Consumer<HarnessResult> listener = request.getTestListener();
+        long outputLimit = outputLimitKb * 1024;
+        HarnessFrameDecoder decoder = new HarnessFrameDecoder(result -> {
+            results.add(result);
+            if (listener != null) {
+                listener.accept(result);
+            }
+        }, outputLimit);
+        BoundedBuffer harnessErrors = new BoundedBuffer(MAX_HARNESS_ERRORS);
+
+        String[] cmd = new String[runCommand.length + 6];
+        cmd[0] = "sh";
+        cmd[1] = "/workspace/" + harnessPath;
+        cmd[2] = String.valueOf(testCases.size());
+        cmd[3] = String.valueOf(request.getTimeLimitMs());
+        cmd[4] = String.valueOf(request.getWallTimeLimitMs());
+        cmd[5] = String.valueOf(outputLimit);
+        System.arraycopy(runCommand, 0, cmd, 6, runCommand.length);
+
+        int exitCode = sandbox.exec(null, new ResultCallback.Adapter<Frame>() {
+            @Override
+            public void onNext(Frame frame) {
+                if (frame.getStreamType() == StreamType.STDERR) {
+                    harnessErrors.write(frame.getPayload());
+                } else {
+                    decoder.feed(frame.getPayload());
+                }
+            }
+        }, cmd);
+
+        return new BatchRun(
+                results,
+                exitCode,
+                harnessErrors.toString(),
+                exitCode == Sandbox.EXIT_TIMED_OUT);
+    }
+
+    // Size of the files in /workspace, or at least of the inputs if du fails
+    private static long workspaceMb(Sandbox sandbox, long inputBytes) throws InterruptedException {
+        long kb = (inputBytes + 1023) / 1024;
+        ExecResult du = sandbox.exec("du", "-sk", "/workspace");
+        if (du.exitCode() == 0) {
+            try {
+                kb = Math.max(kb, Long.parseLong(du.output().trim().split("\\s+")[0]));
+            } catch (NumberFormatException e) {
+                // keep the input size
+            }
+        }
+        return (kb + 1023) / 1024;
+    }
+
+    /**
+     * Results for the tests the harness finished, plus the harness's own
+     * exit code and stderr for diagnosing a harness failure. timedOut means
+     * the job deadline cut the run short.
+     */
+    public record BatchRun(
+            List<HarnessResult> results,
+            int exitCode,
+            String error,
+            boolean timedOut) {
+    }
+}
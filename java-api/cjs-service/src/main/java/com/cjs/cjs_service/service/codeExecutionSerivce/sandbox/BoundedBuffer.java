@@ -0,0 +1,45 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Collects stream output up to a byte cap and only counts the rest,
+ * so a runaway process cannot grow the judge's heap.
+ */
+class BoundedBuffer {
+
+    private final ByteArrayOutputStream bytes;
+    private final long limit;
+    private long total;
+
+    BoundedBuffer(long limit) {
+        this.limit = limit;
+        this.bytes = new ByteArrayOutputStream((int) Math.min(limit, 8 * 1024));
+    }
+
+    void write(byte[] data) {
+        write(data, 0, data.length);
+    }
+
+    void write(byte[] data, int offset, int length) {
+        long room = limit - bytes.size();
+        if (room > 0) {
+            bytes.write(data, offset, (int) Math.min(room, length));
+        }
+        total += length;
+    }
+
+    boolean isTruncated() {
+        return total > limit;
+    }
+
+    byte[] toByteArray() {
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public String toString() {
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
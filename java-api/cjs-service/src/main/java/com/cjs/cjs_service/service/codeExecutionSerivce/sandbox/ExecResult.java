@@ -0,0 +1,19 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+/**
+ * Outcome of a single exec. stdout and stderr are each capped at
+ * {@link Sandbox#EXEC_OUTPUT_LIMIT} bytes.
+ */
+public record ExecResult(int exitCode, String stdout, String stderr) {
+
+    public boolean timedOut() {
+        return exitCode == Sandbox.EXIT_TIMED_OUT;
+    }
+
+    /**
+     * Both streams, stdout first; compilers report on stderr.
+     */
+    public String output() {
+        return stdout.isEmpty() ? stderr : stdout + stderr;
+    }
+}
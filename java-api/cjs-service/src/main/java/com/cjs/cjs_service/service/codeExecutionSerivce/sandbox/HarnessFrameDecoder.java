@@ -0,0 +1,114 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Incremental parser for the harness stdout stream. Docker splits the
+ * stream into arbitrary frames, so state is kept between feed() calls
+ * and a result is emitted as soon as its last byte arrives.
+ *
+ * Frame layout: "@@CJS index exit ms outBytes errBytes flags memKb cpuMs\n" + out + err
+ *
+ * The harness already caps what it frames; the decoder keeps its own
+ * cap as well so a broken harness cannot grow the heap.
+ */
+class HarnessFrameDecoder {
+
+    private static final String MARKER = "@@CJS";
+
+    private static final int MAX_HEADER = 256;
+    private static final int MAX_STDERR = 4 * 1024;
+
+    private final Consumer<HarnessResult> sink;
+    private final long maxStdout;
+
+    private final ByteArrayOutputStream header = new ByteArrayOutputStream();
+    private BoundedBuffer stdout;
+    private BoundedBuffer stderr;
+    private long[] fields;
+    private long stdoutLeft;
+    private long stderrLeft;
+
+    HarnessFrameDecoder(Consumer<HarnessResult> sink, long maxStdout) {
+        this.sink = sink;
+        this.maxStdout = maxStdout;
+    }
+
+    void feed(byte[] data) {
+        int pos = 0;
+
+        while (pos < data.length) {
+            if (fields == null) {
+                byte b = data[pos++];
+                if (b == '\n') {
+                    startFrame();
+                } else if (header.size() < MAX_HEADER) {
+                    header.write(b);
+                }
+                continue;
+            }
+
+            if (stdoutLeft > 0) {
+                int n = (int) Math.min(stdoutLeft, data.length - pos);
+                stdout.write(data, pos, n);
+                stdoutLeft -= n;
+                pos += n;
+            } else if (stderrLeft > 0) {
+                int n = (int) Math.min(stderrLeft, data.length - pos);
+                stderr.write(data, pos, n);
+                stderrLeft -= n;
+                pos += n;
+            }
+
+            completeIfDone();
+        }
+    }
+
+    private void startFrame() {
+        String line = header.toString(StandardCharsets.UTF_8).trim();
+        header.reset();
+
+        if (!line.startsWith(MARKER)) {
+            return; // stray harness output; not part of any test
+        }
+
+        String[] parts = line.split(" ");
+        if (parts.length < 9) {
+            throw new IllegalStateException("Malformed harness frame: " + line);
+        }
+
+        fields = new long[parts.length - 1];
+        for (int i = 1; i < parts.length; i++) {
+            fields[i - 1] = Long.parseLong(parts[i]);
+        }
+
+        stdoutLeft = fields[3];
+        stderrLeft = fields[4];
+        stdout = new BoundedBuffer(maxStdout);
+        stderr = new BoundedBuffer(MAX_STDERR);
+
+        completeIfDone();
+    }
+
+    private void completeIfDone() {
+        if (fields == null || stdoutLeft > 0 || stderrLeft > 0) {
+            return;
+        }
+
+        sink.accept(new HarnessResult(
+                (int) fields[0],
+                (int) fields[1],
+                fields[2],
+                stdout.toByteArray(),
+                stderr.toByteArray(),
+                (int) fields[5] | (stdout.isTruncated() ? HarnessResult.FLAG_OUTPUT_LIMIT : 0),
+                fields[6],
+                fields[7]));
+
+        fields = null;
+        stdout = null;
+        stderr = null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+/**
+ * One test's outcome as reported by the in-container harness.
+ * index is 1-based, matching the order of the uploaded inputs.
+ */
+public record HarnessResult(
+        int index,
+        int exitCode,
+        long timeMs,
+        byte[] stdout,
+        byte[] stderr,
+        int flags,
+        long memoryKb,
+        long cpuTimeMs) {
+
+    public static final int FLAG_TIME_LIMIT = 1;
+    public static final int FLAG_MEMORY_LIMIT = 2;
+    public static final int FLAG_OUTPUT_LIMIT = 4;
+
+    public boolean timeLimitExceeded() {
+        return (flags & FLAG_TIME_LIMIT) != 0;
+    }
+
+    public boolean memoryLimitExceeded() {
+        return (flags & FLAG_MEMORY_LIMIT) != 0;
+    }
+
+    public boolean outputLimitExceeded() {
+        return (flags & FLAG_OUTPUT_LIMIT) != 0;
+    }
+}
@@ -0,0 +1,13 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+/**
+ * The container's memory cgroup could not be narrowed to the run's
+ * limit, typically because it holds more than that already. The sandbox
+ * is tainted; the run can go on in a fresh one (see SandboxPool#replace).
+ */
+public class MemoryLimitException extends RuntimeException {
+
+    public MemoryLimitException(long limitMb, Throwable cause) {
+        super("Could not limit sandbox memory to " + limitMb + " MB", cause);
+    }
+}
@@ -0,0 +1,286 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+
+import lombok.Getter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A started sandbox container owned by {@link SandboxPool}.
+ * Executors only see it between lease() and release().
+ *
+ * Every exec is bounded by the lease deadline. An exec that overruns it
+ * is abandoned and the container is marked tainted, so the pool destroys
+ * it instead of wiping and reusing it.
+ */
+@Getter
+public class Sandbox {
+
+    /** Exit code reported for an exec cut off by the deadline. */
+    public static final int EXIT_TIMED_OUT = -2;
+
+    /** Per-stream cap for output collected by exec() and upload(). */
+    public static final int EXEC_OUTPUT_LIMIT = 64 * 1024;
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String containerId;
+    private final SandboxSpec spec;
+    private final Instant createdAt = Instant.now();
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final DockerClient docker;
+
+    private int leaseCount;
+    private Instant deadline;
+    private volatile boolean tainted;
+
+    /** Current memory (and memory+swap) limit of the container. */
+    private long memoryMb;
+
+    Sandbox(DockerClient docker, String containerId, SandboxSpec spec, long memoryMb) {
+        this.docker = docker;
+        this.containerId = containerId;
+        this.spec = spec;
+        this.memoryMb = memoryMb;
+    }
+
+    void markLeased(Instant deadline) {
+        this.leaseCount++;
+        this.deadline = deadline;
+    }
+
+    void renew(Instant deadline) {
+        this.deadline = deadline;
+    }
+
+    void markReturned() {
+        this.deadline = null;
+    }
+
+    void markTainted() {
+        this.tainted = true;
+    }
+
+    void setMemoryMb(long memoryMb) {
+        this.memoryMb = memoryMb;
+    }
+
+    // ===============================
+    // Exec helpers
+    // ===============================
+
+    /**
+     * Runs a command and collects stdout and stderr, each up to
+     * {@link #EXEC_OUTPUT_LIMIT} bytes.
+     */
+    public ExecResult exec(String... cmd) throws InterruptedException {
+        return exec((Duration) null, cmd);
+    }
+
+    /**
+     * Same as {@link #exec(String...)} but also bounded by the given
+     * timeout, whichever comes first.
+     */
+    public ExecResult exec(Duration timeout, String... cmd) throws InterruptedException {
+        return exec(null, timeout, cmd);
+    }
+
+    private ExecResult exec(InputStream stdin, Duration timeout, String... cmd)
+            throws InterruptedException {
+        BoundedBuffer out = new BoundedBuffer(EXEC_OUTPUT_LIMIT);
+        BoundedBuffer err = new BoundedBuffer(EXEC_OUTPUT_LIMIT);
+
+        int exitCode = exec(stdin, timeout, collector(out, err), cmd);
+
+        return new ExecResult(exitCode, out.toString(), err.toString());
+    }
+
+    private static ResultCallback.Adapter<Frame> collector(BoundedBuffer out, BoundedBuffer err) {
+        return new ResultCallback.Adapter<Frame>() {
+            @Override
+            public void onNext(Frame frame) {
+                (frame.getStreamType() == StreamType.STDERR ? err : out)
+                        .write(frame.getPayload());
+            }
+        };
+    }
+
+    /**
+     * Runs a command, streaming its output frames into the callback.
+     * When stdin is given it is attached and copied to the process.
+     */
+    public int exec(
+            InputStream stdin,
+            ResultCallback.Adapter<Frame> callback,
+            String... cmd) throws InterruptedException {
+        return exec(stdin, null, callback, cmd);
+    }
+
+    private int exec(
+            InputStream stdin,
+            Duration timeout,
+            ResultCallback.Adapter<Frame> callback,
+            String... cmd) throws InterruptedException {
+
+        ExecCreateCmdResponse exec = docker.execCreateCmd(containerId)
+                .withCmd(cmd)
+                .withAttachStdin(stdin != null)
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .exec();
+
+        var start = docker.execStartCmd(exec.getId());
+        if (stdin != null) {
+            start.withStdIn(stdin);
+        }
+        start.exec(callback);
+
+        if (!callback.awaitCompletion(remaining(timeout).toMillis(), TimeUnit.MILLISECONDS)) {
+            tainted = true;
+            try {
+                callback.close();
+            } catch (Exception e) {
+                // the container is discarded anyway
+            }
+            return EXIT_TIMED_OUT;
+        }
+
+        Long exitCodeLong = docker.inspectExecCmd(exec.getId())
+                .exec()
+                .getExitCodeLong();
+
+        return exitCodeLong == null ? -1 : exitCodeLong.intValue();
+    }
+
+    /**
+     * Extracts the archive into /workspace in a single exec, streaming
+     * it straight to the process's stdin.
+     */
+    public ExecResult upload(SandboxArchive archive) throws InterruptedException {
+        return upload(archive.openStream(), archive.size());
+    }
+
+    /**
+     * Extracts a ready-made tar stream into /workspace.
+     */
+    public ExecResult upload(byte[] tar) throws InterruptedException {
+        return upload(new ByteArrayInputStream(tar), tar.length);
+    }
+
+    /*
+     * The attached stdin is never half-closed by the transport, so
+     * `head -c` cuts the stream at the archive's exact length. A stream
+     * that ends short of it would leave head waiting until the deadline,
+     * so the exec is abandoned the moment that happens, and any mismatch
+     * fails the upload.
+     */
+    private ExecResult upload(InputStream tar, long length) throws InterruptedException {
+        BoundedBuffer out = new BoundedBuffer(EXEC_OUTPUT_LIMIT);
+        BoundedBuffer err = new BoundedBuffer(EXEC_OUTPUT_LIMIT);
+        ResultCallback.Adapter<Frame> callback = collector(out, err);
+
+        CountingInputStream stdin = new CountingInputStream(tar, length, () -> {
+            try {
+                callback.close();
+            } catch (IOException e) {
+                // the container is discarded anyway
+            }
+        });
+
+        int exitCode = exec(stdin, null, callback,
+                "sh", "-c", "head -c " + length + " | tar -x -C /workspace");
+
+        if (stdin.count != length) {
+            tainted = true;
+            return new ExecResult(-1, "",
+                    "Upload sent " + stdin.count + " bytes, expected " + length);
+        }
+        return new ExecResult(exitCode, out.toString(), err.toString());
+    }
+
+    /**
+     * Packs the given /workspace paths (shell globs allowed) into a tar,
+     * keeping file modes. Returns null when tar fails or the exec times out.
+     */
+    public byte[] download(String... paths) throws InterruptedException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+
+        int exitCode = exec(null, null, new ResultCallback.Adapter<Frame>() {
+            @Override
+            public void onNext(Frame frame) {
+                if (frame.getStreamType() == StreamType.STDOUT) {
+                    tar.writeBytes(frame.getPayload());
+                }
+            }
+        }, "sh", "-c", "cd /workspace && exec tar -c " + String.join(" ", paths));
+
+        return exitCode == 0 ? tar.toByteArray() : null;
+    }
+
+    /** Counts what the transport reads and reports a stream that ends early. */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final long expected;
+        private final Runnable onShort;
+        private volatile long count;
+
+        CountingInputStream(InputStream in, long expected, Runnable onShort) {
+            super(in);
+            this.expected = expected;
+            this.onShort = onShort;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                ended();
+            } else {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n < 0) {
+                ended();
+            } else {
+                count += n;
+            }
+            return n;
+        }
+
+        private void ended() {
+            if (count < expected) {
+                onShort.run();
+            }
+        }
+    }
+
+    private Duration remaining(Duration timeout) {
+        Duration limit = timeout == null ? DEFAULT_TIMEOUT : timeout;
+
+        if (deadline != null) {
+            Duration left = Duration.between(Instant.now(), deadline);
+            if (timeout == null || left.compareTo(limit) < 0) {
+                limit = left;
+            }
+        }
+        return limit.isNegative() ? Duration.ZERO : limit;
+    }
+}
@@ -0,0 +1,98 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Files to place under /workspace, uploaded as one tar stream.
+ *
+ * The tar is never assembled in memory: {@link #openStream()} chains
+ * each entry's header, content and padding, so a multi-MB input is
+ * held once (as its encoded bytes) rather than again inside the archive.
+ */
+public class SandboxArchive {
+
+    private static final int BLOCK = TarConstants.DEFAULT_RCDSIZE;
+
+    private final Set<String> directories = new LinkedHashSet<>();
+    private final Map<String, byte[]> files = new LinkedHashMap<>();
+
+    public SandboxArchive add(String path, String content) {
+        return add(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public SandboxArchive add(String path, byte[] content) {
+        // Plain ustar headers only; every path we upload is short
+        if (path.length() >= TarConstants.NAMELEN) {
+            throw new IllegalArgumentException("Archive path too long: " + path);
+        }
+        for (int slash = path.indexOf('/'); slash > 0; slash = path.indexOf('/', slash + 1)) {
+            directories.add(path.substring(0, slash + 1));
+        }
+        files.put(path, content);
+        return this;
+    }
+
+    /**
+     * Exact length of the stream returned by {@link #openStream()}.
+     */
+    public long size() {
+        long size = (long) directories.size() * BLOCK;
+        for (byte[] content : files.values()) {
+            size += BLOCK + padded(content.length);
+        }
+        return size + 2L * BLOCK; // end-of-archive marker
+    }
+
+    public InputStream openStream() {
+        List<InputStream> parts = new ArrayList<>();
+
+        for (String directory : directories) {
+            TarArchiveEntry entry = new TarArchiveEntry(directory);
+            entry.setMode(040755);
+            parts.add(header(entry));
+        }
+
+        for (var file : files.entrySet()) {
+            byte[] content = file.getValue();
+
+            TarArchiveEntry entry = new TarArchiveEntry(file.getKey());
+            entry.setSize(content.length);
+            entry.setMode(0644);
+
+            parts.add(header(entry));
+            parts.add(new ByteArrayInputStream(content));
+            parts.add(zeros(padded(content.length) - content.length));
+        }
+
+        parts.add(zeros(2 * BLOCK));
+
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+
+    private static InputStream header(TarArchiveEntry entry) {
+        byte[] block = new byte[BLOCK];
+        entry.writeEntryHeader(block);
+        return new ByteArrayInputStream(block);
+    }
+
+    private static InputStream zeros(long count) {
+        return new ByteArrayInputStream(new byte[(int) count]);
+    }
+
+    private static long padded(long length) {
+        return (length + BLOCK - 1) / BLOCK * BLOCK;
+    }
+}
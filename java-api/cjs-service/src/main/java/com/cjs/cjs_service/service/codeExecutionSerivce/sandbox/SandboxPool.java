@@ -0,0 +1,349 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+import com.cjs.cjs_service.service.codeExecutionSerivce.ExecutionInstance;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.Capability;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.HostConfig;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps pre-started sandbox containers per language image so that a job
+ * only pays for exec round-trips, not for create/start/stop.
+ *
+ * A container is wiped (processes killed, /workspace emptied and checked)
+ * before it goes back to the idle list. Containers older than
+ * max-lease-age, or that fail the wipe, are destroyed instead.
+ *
+ * Containers start with the default sandbox memory so compilers have
+ * room; {@link #limitMemory} then narrows the cgroup to the problem's
+ * limit for the run, and release() widens it again.
+ *
+ * Every container is labelled with the instance that started it, so
+ * {@link #reapOrphans} can remove the ones a dead instance left behind
+ * without touching those of instances sharing the Docker host.
+ */
+@Component
+public class SandboxPool {
+
+    public static final String LABEL = "cjs.sandbox";
+    public static final String OWNER_LABEL = "cjs.sandbox.owner";
+
+    private static final Logger log = LoggerFactory.getLogger(SandboxPool.class);
+
+    private static final String WIPE_SCRIPT =
+            "kill -9 -1 2>/dev/null; "
+                    + "rm -rf /workspace/* /workspace/.[!.]* /workspace/..?* 2>/dev/null; "
+                    + "[ -z \"$(ls -A /workspace)\" ]";
+
+    private final DockerClient docker;
+    private final String instanceId;
+    private final Map<String, LanguagePool> pools = new ConcurrentHashMap<>();
+
+    @Value("${code-execution.pool.max-size:4}")
+    private int maxSize;
+
+    @Value("${code-execution.pool.min-idle:1}")
+    private int minIdle;
+
+    @Value("${code-execution.pool.max-lease-age:PT10M}")
+    private Duration maxLeaseAge;
+
+    @Value("${code-execution.sandbox.memory-mb:256}")
+    private long memoryMb;
+
+    @Value("${code-execution.sandbox.cpus:1}")
+    private double cpus;
+
+    // Cap only; tmpfs pages are charged to the memory cgroup as they fill
+    @Value("${code-execution.sandbox.workspace-mb:512}")
+    private long workspaceMb;
+
+    public SandboxPool(DockerClient docker, ExecutionInstance instance) {
+        this.docker = docker;
+        this.instanceId = instance.getId();
+    }
+
+    // ===============================
+    // Lease / Release
+    // ===============================
+
+    public void warmUp(SandboxSpec spec) {
+        pool(spec).replenish();
+    }
+
+    /**
+     * Leases a container whose execs must all finish before the deadline.
+     */
+    public Sandbox lease(SandboxSpec spec, Instant deadline) throws InterruptedException {
+        LanguagePool pool = pool(spec);
+        pool.permits.acquire();
+
+        try {
+            Sandbox sandbox;
+            while ((sandbox = pool.idle.pollFirst()) != null && isExpired(sandbox)) {
+                destroy(pool, sandbox);
+            }
+
+            if (sandbox == null) {
+                sandbox = create(pool);
+            }
+
+            sandbox.markLeased(deadline);
+            pool.replenishAsync();
+            return sandbox;
+
+        } catch (RuntimeException e) {
+            pool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Moves the lease deadline, e.g. when a job was queued between
+     * stages while holding the sandbox.
+     */
+    public void renewLease(Sandbox sandbox, Instant deadline) {
+        sandbox.renew(deadline);
+    }
+
+    /**
+     * Sets the container's memory limit, with swap disabled, for the
+     * processes started after this call. A container whose cgroup cannot
+     * be updated is tainted so it is not reused.
+     *
+     * @throws MemoryLimitException when Docker refuses the new limit
+     */
+    public void limitMemory(Sandbox sandbox, long limitMb) {
+        if (limitMb <= 0 || limitMb == sandbox.getMemoryMb()) {
+            return;
+        }
+        try {
+            long bytes = limitMb * 1024 * 1024;
+            docker.updateContainerCmd(sandbox.getContainerId())
+                    .withMemory(bytes)
+                    .withMemorySwap(bytes)
+                    .exec();
+            sandbox.setMemoryMb(limitMb);
+        } catch (RuntimeException e) {
+            sandbox.markTainted();
+            throw new MemoryLimitException(limitMb, e);
+        }
+    }
+
+    /**
+     * Moves a leased sandbox's /workspace into a freshly started container
+     * and leases that one in its place; the old one is released (and, if
+     * tainted, destroyed). For a container that can no longer be narrowed
+     * to a run's memory limit.
+     */
+    public Sandbox replace(Sandbox sandbox, Instant deadline) throws InterruptedException {
+        byte[] workspace = sandbox.download(".");
+        sandbox.markTainted();
+        release(sandbox);
+        if (workspace == null) {
+            throw new IllegalStateException("Could not copy the sandbox workspace");
+        }
+
+        Sandbox fresh = lease(sandbox.getSpec(), deadline);
+        ExecResult upload = fresh.upload(workspace);
+        if (upload.exitCode() != 0) {
+            release(fresh);
+            throw new IllegalStateException("Could not restore the sandbox workspace: " + upload.output());
+        }
+        return fresh;
+    }
+
+    public void release(Sandbox sandbox) {
+        LanguagePool pool = pool(sandbox.getSpec());
+
+        sandbox.markReturned();
+
+        try {
+            if (!sandbox.isTainted() && !isExpired(sandbox) && wipe(sandbox)
+                    && restoreMemory(sandbox)) {
+                pool.idle.offerFirst(sandbox);
+            } else {
+                destroy(pool, sandbox);
+                pool.replenishAsync();
+            }
+        } finally {
+            pool.permits.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pools.values().forEach(pool -> {
+            Sandbox sandbox;
+            while ((sandbox = pool.idle.pollFirst()) != null) {
+                destroy(pool, sandbox);
+            }
+        });
+    }
+
+    /**
+     * Removes sandbox containers whose owner is not in liveOwners (or that
+     * have no owner), skipping those younger than minAge so an instance
+     * that has just started is not mistaken for a dead one. Returns the
+     * number removed.
+     */
+    public int reapOrphans(Set<String> liveOwners, Duration minAge) {
+        List<Container> containers = docker.listContainersCmd()
+                .withShowAll(true)
+                .withLabelFilter(List.of(LABEL))
+                .exec();
+
+        long newest = Instant.now().minus(minAge).getEpochSecond();
+        int reaped = 0;
+        for (Container container : containers) {
+            String owner = container.getLabels() == null ? null : container.getLabels().get(OWNER_LABEL);
+            if (instanceId.equals(owner) || liveOwners.contains(owner)
+                    || container.getCreated() > newest) {
+                continue;
+            }
+            try {
+                docker.removeContainerCmd(container.getId())
+                        .withForce(true)
+                        .exec();
+                reaped++;
+            } catch (RuntimeException e) {
+                // already gone or removal in progress
+            }
+        }
+        return reaped;
+    }
+
+    // ===============================
+    // Container lifecycle
+    // ===============================
+
+    private Sandbox create(LanguagePool pool) {
+        SandboxSpec spec = pool.spec;
+
+        String containerId = docker.createContainerCmd(spec.image())
+                .withCmd("sh", "-c", "sleep infinity")
+                .withWorkingDir("/workspace")
+                .withLabels(Map.of(LABEL, spec.language(), OWNER_LABEL, instanceId))
+                .withHostConfig(
+                        HostConfig.newHostConfig()
+                                .withNetworkMode("none")
+                                .withReadonlyRootfs(true)
+                                .withMemory(memoryMb * 1024 * 1024)
+                                .withMemorySwap(memoryMb * 1024 * 1024)
+                                .withNanoCPUs((long) (cpus * 1_000_000_000L))
+                                .withPidsLimit(64L)
+                                .withCapDrop(Capability.ALL)
+                                .withTmpFs(Map.of("/workspace",
+                                        spec.workspaceTmpfs() + ",size=" + workspaceMb + "m"))
+                                .withAutoRemove(true))
+                .exec()
+                .getId();
+
+        pool.live.incrementAndGet();
+
+        try {
+            docker.startContainerCmd(containerId).exec();
+        } catch (RuntimeException e) {
+            destroy(pool, new Sandbox(docker, containerId, spec, memoryMb));
+            throw e;
+        }
+
+        return new Sandbox(docker, containerId, spec, memoryMb);
+    }
+
+    private void destroy(LanguagePool pool, Sandbox sandbox) {
+        pool.live.decrementAndGet();
+        try {
+            // AutoRemove=true, so a forced remove is enough to kill and clean up
+            docker.removeContainerCmd(sandbox.getContainerId())
+                    .withForce(true)
+                    .exec();
+        } catch (RuntimeException e) {
+            // already gone or removal in progress
+        }
+    }
+
+    private boolean wipe(Sandbox sandbox) {
+        try {
+            return sandbox.exec("sh", "-c", WIPE_SCRIPT).exitCode() == 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private boolean restoreMemory(Sandbox sandbox) {
+        try {
+            limitMemory(sandbox, memoryMb);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(Sandbox sandbox) {
+        return sandbox.getCreatedAt().plus(maxLeaseAge).isBefore(Instant.now());
+    }
+
+    private LanguagePool pool(SandboxSpec spec) {
+        return pools.computeIfAbsent(spec.image(), image -> new LanguagePool(spec));
+    }
+
+    private class LanguagePool {
+
+        private final SandboxSpec spec;
+        private final BlockingDeque<Sandbox> idle = new LinkedBlockingDeque<>();
+        private final int maxContainers;
+        private final Semaphore permits;
+        private final AtomicInteger live = new AtomicInteger();
+        private final AtomicBoolean replenishing = new AtomicBoolean();
+
+        LanguagePool(SandboxSpec spec) {
+            this.spec = spec;
+            this.maxContainers = spec.maxContainers() > 0 ? spec.maxContainers() : maxSize;
+            this.permits = new Semaphore(maxContainers, true);
+        }
+
+        void replenishAsync() {
+            if (idle.size() < minIdle && !replenishing.get()) {
+                Thread.ofVirtual().start(this::replenish);
+            }
+        }
+
+        void replenish() {
+            if (!replenishing.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                while (idle.size() < minIdle && live.get() < maxContainers) {
+                    idle.offerLast(create(this));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Sandbox warm-up failed for {}: {}", spec.image(), e.getMessage());
+            } finally {
+                replenishing.set(false);
+            }
+        }
+    }
+}
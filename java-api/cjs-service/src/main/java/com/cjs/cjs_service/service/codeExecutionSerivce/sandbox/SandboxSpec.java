@@ -0,0 +1,10 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+/**
+ * Describes the container an executor needs: the language it serves,
+ * the image to start and the tmpfs mount options for /workspace
+ * (the size comes from code-execution.sandbox.workspace-mb).
+ * maxContainers caps the language's pool; 0 = code-execution.pool.max-size.
+ */
+public record SandboxSpec(String language, String image, String workspaceTmpfs, int maxContainers) {
+}
@@ -0,0 +1,316 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cjs.cjs_service.dto.CodeExecutionResult;
+import com.cjs.cjs_service.dto.ExecutionJob;
+import com.cjs.cjs_service.dto.ExecutionProgress;
+import com.cjs.cjs_service.dto.ExecutionStatus;
+import com.cjs.cjs_service.model.ExecutionInstanceRecord;
+import com.cjs.cjs_service.model.ExecutionJobRecord;
+import com.cjs.cjs_service.model.SubmissionStatus;
+import com.cjs.cjs_service.repository.ExecutionInstanceRepository;
+import com.cjs.cjs_service.repository.ExecutionJobRepository;
+import com.cjs.cjs_service.repository.SubmissionRepository;
+import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutionRequest;
+import com.cjs.cjs_service.service.codeExecutionSerivce.ExecutionInstance;
+import com.cjs.cjs_service.service.codeExecutionSerivce.JobClass;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The execution_jobs table as a queue shared by every cjs-service
+ * instance, and as the status of record for any job.
+ *
+ * Instances claim waiting rows with SELECT ... FOR UPDATE SKIP LOCKED, so
+ * two instances never block on or take the same row, and hold each claim
+ * by a lease they renew while the job is theirs. A job whose lease runs
+ * out (its instance died or hung) goes back to the queue, up to
+ * max-attempts claims, after which it is FAILED and its submission, if
+ * still without a verdict, an INTERNAL_ERROR. State writes are fenced
+ * by owner, so an instance that lost a job cannot overwrite it. Only jobs
+ * the instance is still working on have their leases renewed: a job it
+ * gave up (see abandon) runs out and goes to another instance.
+ *
+ * Every instance also writes a heartbeat (execution_instances) with its
+ * lease renewals, whether or not it holds any jobs, so the others can
+ * tell which instances are alive.
+ *
+ * Results are stored in full; ExecutionJobStore compacts its own copy.
+ * Finished rows are deleted after retention. Exported as
+ * execution.queue.waiting (unclaimed jobs across all instances).
+ */
+@Component
+public class DurableJobQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(DurableJobQueue.class);
+
+    private final ExecutionJobRepository repository;
+    private final ExecutionInstanceRepository instanceRepository;
+    private final SubmissionRepository submissionRepository;
+    private final ObjectMapper objectMapper;
+    private final String instanceId;
+
+    // Claimed and not finished here, i.e. the leases to renew
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+    // Instances with a live heartbeat, refreshed with the leases
+    private volatile int activeInstances = 1;
+
+    @Value("${code-execution.queue.lease:PT30S}")
+    private Duration lease;
+
+    @Value("${code-execution.queue.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${code-execution.queue.retention:PT24H}")
+    private Duration retention;
+
+    public DurableJobQueue(
+            ExecutionJobRepository repository,
+            ExecutionInstanceRepository instanceRepository,
+            SubmissionRepository submissionRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            ExecutionInstance instance) {
+        this.repository = repository;
+        this.instanceRepository = instanceRepository;
+        this.submissionRepository = submissionRepository;
+        this.objectMapper = objectMapper;
+        this.instanceId = instance.getId();
+
+        Gauge.builder("execution.queue.waiting", repository, ExecutionJobRepository::countWaiting)
+                .description("Jobs no instance has claimed yet")
+                .register(meterRegistry);
+    }
+
+    public int getActiveInstances() {
+        return activeInstances;
+    }
+
+    /** Instances whose heartbeat is younger than a lease, this one included. */
+    public Set<String> liveInstances() {
+        Set<String> live = new HashSet<>(instanceRepository.findLiveSince(Instant.now().minus(lease)));
+        live.add(instanceId);
+        return live;
+    }
+
+    // ===============================
+    // Queue
+    // ===============================
+
+    /**
+     * Adds a job; claimed says this instance takes it right away (e.g. a
+     * verdict cache hit that is finished on the spot).
+     */
+    @Transactional
+    public void insert(ExecutionJob job, CodeExecutionRequest request, Instant runAt, boolean claimed) {
+        ExecutionJobRecord record = new ExecutionJobRecord();
+        record.setJobId(job.getJobId());
+        record.setSubmissionId(job.getSubmissionId());
+        record.setStatus(job.getStatus());
+        record.setStage(job.getStage());
+        record.setJobClass(request.getJobClass());
+        record.setUserId(request.getUserId());
+        record.setProblemId(request.getProblemId());
+        record.setLanguage(request.getLanguage());
+        record.setSourceCode(request.getSourceCode());
+        record.setRunAt(runAt);
+        if (claimed) {
+            record.setOwner(instanceId);
+            record.setLeaseUntil(Instant.now().plus(lease));
+            held.add(job.getJobId());
+        }
+        repository.save(record);
+    }
+
+    /** Claims up to max waiting jobs, earliest runAt first. */
+    @Transactional
+    public List<ExecutionJobRecord> claim(int max) {
+        List<String> jobIds = repository.lockClaimable(max);
+        if (jobIds.isEmpty()) {
+            return List.of();
+        }
+        repository.claim(jobIds, instanceId, Instant.now().plus(lease));
+        held.addAll(jobIds);
+        return repository.findAllById(jobIds);
+    }
+
+    /** Unclaimed jobs that will be claimed no later than runAt. */
+    public long waitingUntil(Instant runAt) {
+        return repository.countWaitingUntil(runAt);
+    }
+
+    public long waiting() {
+        return repository.countWaiting();
+    }
+
+    public long waiting(int userId, JobClass jobClass) {
+        return repository.countWaiting(userId, jobClass);
+    }
+
+    // ===============================
+    // State
+    // ===============================
+
+    /**
+     * Writes the job's state; false when this instance no longer owns it.
+     * A finished or lost job is no longer held.
+     */
+    @Transactional
+    public boolean save(ExecutionJob job) {
+        boolean finished = job.getStatus() == ExecutionStatus.COMPLETED
+                || job.getStatus() == ExecutionStatus.FAILED;
+        boolean owned = repository.updateState(
+                job.getJobId(),
+                instanceId,
+                job.getStatus(),
+                job.getStage(),
+                toJson(job.getProgress()),
+                toJson(job.getResult()),
+                job.getError(),
+                finished ? Instant.now() : null) > 0;
+        if (!owned || finished) {
+            held.remove(job.getJobId());
+        }
+        return owned;
+    }
+
+    /**
+     * Stops renewing the job's lease, e.g. when its state could not be
+     * written; once the lease runs out it is judged again.
+     */
+    public void abandon(String jobId) {
+        held.remove(jobId);
+    }
+
+    @Transactional
+    public void saveProgress(ExecutionJob job) {
+        repository.updateProgress(job.getJobId(), instanceId, toJson(job.getProgress()));
+    }
+
+    /** The job as last written by its owner, or null. */
+    public ExecutionJob find(String jobId) {
+        return repository.findById(jobId).map(this::toJob).orElse(null);
+    }
+
+    public boolean exists(String jobId) {
+        return repository.existsById(jobId);
+    }
+
+    @Transactional
+    public void delete(String jobId) {
+        repository.deleteById(jobId);
+    }
+
+    // ===============================
+    // Leases
+    // ===============================
+
+    @Scheduled(fixedDelayString = "${code-execution.queue.renew-interval:PT10S}")
+    @Transactional
+    public void renewLeases() {
+        Instant now = Instant.now();
+        if (!held.isEmpty()) {
+            repository.renewLeases(Set.copyOf(held), instanceId, now.plus(lease));
+        }
+
+        ExecutionInstanceRecord heartbeat = instanceRepository.findById(instanceId)
+                .orElseGet(ExecutionInstanceRecord::new);
+        heartbeat.setInstanceId(instanceId);
+        heartbeat.setHeartbeatAt(now);
+        instanceRepository.save(heartbeat);
+
+        activeInstances = Math.max(1, instanceRepository.findLiveSince(now.minus(lease)).size());
+    }
+
+    /**
+     * Requeues jobs whose owner went away; past max-attempts they are
+     * failed instead, along with their submissions.
+     */
+    @Scheduled(fixedDelayString = "${code-execution.queue.recover-interval:PT15S}")
+    @Transactional
+    public void recoverExpired() {
+        Instant now = Instant.now();
+        List<Integer> lost = repository.lockExpiredSubmissions(now, maxAttempts);
+        int failed = repository.failExpired(now, maxAttempts, "Execution lost: worker stopped responding");
+        int requeued = repository.requeueExpired(now);
+        if (!lost.isEmpty()) {
+            submissionRepository.failUnjudged(lost, SubmissionStatus.INTERNAL_ERROR);
+        }
+        if (failed + requeued > 0) {
+            log.warn("Recovered expired jobs: {} requeued, {} failed", requeued, failed);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${code-execution.queue.purge-interval:PT10M}")
+    @Transactional
+    public void purgeFinished() {
+        Instant now = Instant.now();
+        repository.deleteFinishedBefore(now.minus(retention));
+        instanceRepository.deleteStaleBefore(now.minus(retention));
+    }
+
+    // Jobs claimed but not started can go to another instance now
+    // instead of after their lease
+    @PreDestroy
+    public void releaseClaims() {
+        repository.releasePending(instanceId);
+        instanceRepository.deleteInstance(instanceId);
+    }
+
+    // ===============================
+    // JSON
+    // ===============================
+
+    private ExecutionJob toJob(ExecutionJobRecord record) {
+        ExecutionJob job = new ExecutionJob();
+        job.setJobId(record.getJobId());
+        job.setSubmissionId(record.getSubmissionId());
+        job.setStatus(record.getStatus());
+        job.setStage(record.getStage());
+        job.setProgress(fromJson(record.getProgress(), ExecutionProgress.class));
+        job.setResult(fromJson(record.getResult(), CodeExecutionResult.class));
+        job.setError(record.getError());
+        return job;
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
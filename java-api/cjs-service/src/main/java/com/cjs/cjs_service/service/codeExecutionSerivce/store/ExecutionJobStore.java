@@ -1,30 +1,195 @@
 package com.cjs.cjs_service.service.codeExecutionSerivce.store;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import com.cjs.cjs_service.dto.ExecutionJob;
+import com.cjs.cjs_service.dto.ExecutionStatus;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Jobs this instance runs, by id, for status lookups; any other job is
+ * read from the shared queue (DurableJobQueue), which may lag the owner's
+ * copy by a progress write. Finished jobs expire ttl after they finish,
+ * and beyond max-entries the oldest finished jobs go first. Unfinished
+ * jobs are kept (up to max-age) since a worker still owns them.
+ *
+ * The first read of a completed job returns the full result. After that
+ * the stored result is replaced by a compact copy (see ResultCompactor).
+ *
+ * Exported as execution.jobs.entries and execution.jobs.retained.bytes
+ * (an estimate of the results held).
+ */
 @Component
 public class ExecutionJobStore {
 
-    private final ConcurrentHashMap<String, ExecutionJob> jobs = new ConcurrentHashMap<>();
+    private final DurableJobQueue durableQueue;
+    private final ConcurrentHashMap<String, Entry> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong retainedBytes = new AtomicLong();
+
+    @Value("${code-execution.job-store.ttl:PT30M}")
+    private Duration ttl;
+
+    // Unfinished jobs older than this are dropped all the same
+    @Value("${code-execution.job-store.max-age:PT2H}")
+    private Duration maxAge;
+
+    @Value("${code-execution.job-store.max-entries:10000}")
+    private int maxEntries;
+
+    // Longest input/output/expected kept for failures after the first
+    @Value("${code-execution.job-store.compact-diff-chars:256}")
+    private int compactDiffChars;
 
-    public ExecutionJob createJob() {
-        return createJob(-1);
+    public ExecutionJobStore(DurableJobQueue durableQueue, MeterRegistry meterRegistry) {
+        this.durableQueue = durableQueue;
+        Gauge.builder("execution.jobs.entries", jobs, ConcurrentHashMap::size)
+                .description("Jobs held for status lookups")
+                .register(meterRegistry);
+        Gauge.builder("execution.jobs.retained.bytes", retainedBytes, AtomicLong::get)
+                .description("Estimated heap held by finished job results")
+                .baseUnit("bytes")
+                .register(meterRegistry);
     }
 
-    public ExecutionJob createJob(int submissionId) {
-        ExecutionJob job = new ExecutionJob();
-        if (submissionId != -1) {
-            job.setSubmissionId(submissionId);
-        }
-        jobs.put(job.getJobId(), job);
-        return job;
+    /** Tracks a job this instance has taken on. */
+    public void add(ExecutionJob job) {
+        jobs.put(job.getJobId(), new Entry(job));
     }
 
+    /**
+     * On the first read of a completed job the caller gets a copy with
+     * the full result, and the stored job keeps only the compact one.
+     * Jobs of other instances come from the shared queue.
+     */
     public ExecutionJob getJob(String jobId) {
-        return jobs.get(jobId);
+        Entry entry = jobs.get(jobId);
+        if (entry == null) {
+            return durableQueue.find(jobId);
+        }
+
+        ExecutionJob job = entry.job;
+        if (job.getStatus() != ExecutionStatus.COMPLETED || job.getResult() == null) {
+            return job;
+        }
+
+        synchronized (entry) {
+            if (entry.compacted) {
+                return job;
+            }
+            ExecutionJob full = copy(job);
+
+            job.setResult(ResultCompactor.compact(full.getResult(), compactDiffChars));
+            entry.compacted = true;
+            track(entry);
+            return full;
+        }
+    }
+
+    /** Whether the job exists anywhere, without counting as a read. */
+    public boolean hasJob(String jobId) {
+        return jobs.containsKey(jobId) || durableQueue.exists(jobId);
+    }
+
+    /** Whether this instance holds the job, i.e. sees its changes first-hand. */
+    public boolean isLocal(String jobId) {
+        return jobs.containsKey(jobId);
+    }
+
+    public void removeJob(String jobId) {
+        Entry entry = jobs.remove(jobId);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.removed = true;
+                retainedBytes.addAndGet(-entry.bytes);
+                entry.bytes = 0;
+            }
+        }
+    }
+
+    // ===============================
+    // Expiry
+    // ===============================
+
+    @Scheduled(fixedDelayString = "${code-execution.job-store.sweep-interval:PT30S}")
+    public void sweep() {
+        Instant now = Instant.now();
+
+        jobs.forEach((jobId, entry) -> {
+            if (entry.finishedAt == null && isFinished(entry.job)) {
+                entry.finishedAt = now;
+                synchronized (entry) {
+                    track(entry);
+                }
+            }
+
+            boolean expired = entry.finishedAt != null
+                    ? entry.finishedAt.plus(ttl).isBefore(now)
+                    : entry.createdAt.plus(maxAge).isBefore(now);
+            if (expired) {
+                removeJob(jobId);
+            }
+        });
+
+        int excess = jobs.size() - maxEntries;
+        if (excess > 0) {
+            jobs.entrySet().stream()
+                    .filter(e -> e.getValue().finishedAt != null)
+                    .sorted(Comparator.comparing(e -> e.getValue().finishedAt))
+                    .limit(excess)
+                    .map(e -> e.getKey())
+                    .toList()
+                    .forEach(this::removeJob);
+        }
+    }
+
+    private static boolean isFinished(ExecutionJob job) {
+        return job.getStatus() == ExecutionStatus.COMPLETED
+                || job.getStatus() == ExecutionStatus.FAILED;
+    }
+
+    // Keeps retainedBytes in step with the entry's current result;
+    // called with the entry locked
+    private void track(Entry entry) {
+        if (entry.removed) {
+            return;
+        }
+        long bytes = ResultCompactor.estimateBytes(entry.job.getResult());
+        retainedBytes.addAndGet(bytes - entry.bytes);
+        entry.bytes = bytes;
+    }
+
+    private static ExecutionJob copy(ExecutionJob job) {
+        ExecutionJob copy = new ExecutionJob();
+        copy.setJobId(job.getJobId());
+        copy.setSubmissionId(job.getSubmissionId());
+        copy.setStatus(job.getStatus());
+        copy.setStage(job.getStage());
+        copy.setProgress(job.getProgress());
+        copy.setResult(job.getResult());
+        copy.setError(job.getError());
+        return copy;
+    }
+
+    private static final class Entry {
+        final ExecutionJob job;
+        final Instant createdAt = Instant.now();
+        volatile Instant finishedAt;
+        boolean compacted;
+        boolean removed;
+        long bytes;
+
+        Entry(ExecutionJob job) {
+            this.job = job;
+        }
     }
 }
@@ -0,0 +1,192 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.store;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.cjs.cjs_service.dto.ExecutionJob;
+import com.cjs.cjs_service.dto.ExecutionStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events for job status, so clients are told about each
+ * change instead of polling for it. Every event ("status") carries the
+ * whole job as it is when the event is sent; the stream ends after the
+ * COMPLETED or FAILED one.
+ *
+ * Events are sent from their own virtual threads, so a slow client never
+ * holds up a pipeline stage. Sends to one subscriber are serialized and
+ * always read the current state, so a subscriber never sees a job go
+ * backwards even when events overtake each other. For the same reason
+ * changes that arrive while a send is still pending share that send, so
+ * a burst of quick tests does not queue one event per test.
+ *
+ * A job run by another instance has no local changes to follow; its
+ * subscribers are checked against its stored state every
+ * remote-poll-interval instead. Only states that differ from the last
+ * one sent go out.
+ *
+ * Exported as execution.status.subscribers.
+ */
+@Component
+public class JobStatusStreams {
+
+    private final ExecutionJobStore jobStore;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Clients reconnect after this (EventSource does so on its own)
+    @Value("${code-execution.status-stream.timeout:PT5M}")
+    private Duration timeout;
+
+    public JobStatusStreams(
+            ExecutionJobStore jobStore,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.jobStore = jobStore;
+        this.objectMapper = objectMapper;
+
+        Gauge.builder("execution.status.subscribers", count, AtomicInteger::get)
+                .description("Open job status streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream that starts with the job's current state, or returns
+     * null when the job is unknown (or already expired).
+     */
+    public SseEmitter subscribe(String jobId) {
+        if (!jobStore.hasJob(jobId)) {
+            return null;
+        }
+
+        Subscriber subscriber = new Subscriber(jobId, new SseEmitter(timeout.toMillis()));
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(subscriber));
+        subscriber.emitter.onError(e -> unsubscribe(subscriber));
+
+        subscribers.compute(jobId, (id, listening) -> {
+            Set<Subscriber> set = listening != null ? listening : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        count.incrementAndGet();
+
+        // Registered first, so a change made meanwhile is not missed
+        subscriber.pending.set(true);
+        sender.execute(() -> send(subscriber));
+        return subscriber.emitter;
+    }
+
+    /** The job has changed; tells its subscribers, if any. */
+    public void publish(String jobId) {
+        Set<Subscriber> listening = subscribers.get(jobId);
+        if (listening == null) {
+            return;
+        }
+        for (Subscriber subscriber : listening) {
+            if (subscriber.pending.compareAndSet(false, true)) {
+                sender.execute(() -> send(subscriber));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${code-execution.status-stream.remote-poll-interval:PT1S}")
+    public void pollRemoteJobs() {
+        for (String jobId : subscribers.keySet()) {
+            if (!jobStore.isLocal(jobId)) {
+                publish(jobId);
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        synchronized (subscriber) {
+            // Changes from here on need a send of their own
+            subscriber.pending.set(false);
+            if (subscriber.closed) {
+                return;
+            }
+
+            // Read under the lock: whatever was sent before is no newer
+            ExecutionJob job = jobStore.getJob(subscriber.jobId);
+            try {
+                if (job == null) {
+                    subscriber.emitter.complete();
+                    subscriber.closed = true;
+                    return;
+                }
+
+                String json = objectMapper.writeValueAsString(job);
+                if (!json.equals(subscriber.lastSent)) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .name("status")
+                            .data(json, MediaType.APPLICATION_JSON));
+                    subscriber.lastSent = json;
+                }
+
+                if (isFinished(job)) {
+                    subscriber.emitter.complete();
+                    subscriber.closed = true;
+                }
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            } catch (IOException | IllegalStateException e) {
+                // Client gone or stream already over
+                subscriber.closed = true;
+                unsubscribe(subscriber);
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.jobId, (id, listening) -> {
+            if (listening.remove(subscriber)) {
+                count.decrementAndGet();
+            }
+            return listening.isEmpty() ? null : listening;
+        });
+    }
+
+    private static boolean isFinished(ExecutionJob job) {
+        return job.getStatus() == ExecutionStatus.COMPLETED
+                || job.getStatus() == ExecutionStatus.FAILED;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private static final class Subscriber {
+        final String jobId;
+        final SseEmitter emitter;
+        final AtomicBoolean pending = new AtomicBoolean();
+        boolean closed;
+        String lastSent;
+
+        Subscriber(String jobId, SseEmitter emitter) {
+            this.jobId = jobId;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.store;
+
+import com.cjs.cjs_service.dto.CodeExecutionResult;
+import com.cjs.cjs_service.dto.TestCaseResultDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shrinks a finished result for long-term retention. Passing tests
+ * collapse into a pass/fail mask, the first failing test is kept as is,
+ * and later failures keep only a prefix of their input, output and
+ * expected output.
+ *
+ * Always returns a copy: results are shared with the verdict cache and
+ * with other jobs that hit it.
+ */
+final class ResultCompactor {
+
+    private ResultCompactor() {
+    }
+
+    static CodeExecutionResult compact(CodeExecutionResult result, int maxDiffChars) {
+        CodeExecutionResult compact = new CodeExecutionResult();
+        compact.setOutput(result.getOutput());
+        compact.setError(result.getError());
+        compact.setExitCode(result.getExitCode());
+        compact.setTimedOut(result.isTimedOut());
+        compact.setSubmissionStatus(result.getSubmissionStatus());
+        compact.setTimeMs(result.getTimeMs());
+        compact.setMemoryKb(result.getMemoryKb());
+        compact.setCompileTimeMs(result.getCompileTimeMs());
+
+        StringBuilder mask = new StringBuilder(result.getTestCaseResults().size());
+        List<TestCaseResultDto> kept = new ArrayList<>();
+
+        for (TestCaseResultDto test : result.getTestCaseResults()) {
+            mask.append(test.isPassed() ? '1' : '0');
+            if (test.isPassed()) {
+                continue;
+            }
+            kept.add(kept.isEmpty() ? test : truncated(test, maxDiffChars));
+        }
+
+        compact.setPassedMask(mask.toString());
+        compact.setTestCaseResults(kept);
+        return compact;
+    }
+
+    private static TestCaseResultDto truncated(TestCaseResultDto test, int maxChars) {
+        TestCaseResultDto copy = new TestCaseResultDto();
+        copy.setIndex(test.getIndex());
+        copy.setInput(truncate(test.getInput(), maxChars));
+        copy.setOutput(truncate(test.getOutput(), maxChars));
+        copy.setExpected(truncate(test.getExpected(), maxChars));
+        copy.setPassed(test.isPassed());
+        copy.setExitCode(test.getExitCode());
+        copy.setTimeMs(test.getTimeMs());
+        copy.setCpuTimeMs(test.getCpuTimeMs());
+        copy.setMemoryKb(test.getMemoryKb());
+        copy.setCheckerMessage(test.getCheckerMessage());
+        copy.setStatus(test.getStatus());
+        return copy;
+    }
+
+    private static String truncate(String value, int maxChars) {
+        if (value == null || value.length() <= maxChars) {
+            return value;
+        }
+        return value.substring(0, maxChars) + "...";
+    }
+
+    // ===============================
+    // Size estimate
+    // ===============================
+
+    /**
+     * Rough heap footprint of a result: object headers plus one byte per
+     * character (compact strings).
+     */
+    static long estimateBytes(CodeExecutionResult result) {
+        if (result == null) {
+            return 0;
+        }
+        long bytes = 96 + chars(result.getOutput()) + chars(result.getError())
+                + chars(result.getPassedMask());
+        for (TestCaseResultDto test : result.getTestCaseResults()) {
+            bytes += 96 + chars(test.getInput()) + chars(test.getOutput())
+                    + chars(test.getExpected()) + chars(test.getCheckerMessage());
+        }
+        return bytes;
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+}
@@ -2,77 +2,643 @@ package com.cjs.cjs_service.service.codeExecutionSerivce.worker;
 
 import com.cjs.cjs_service.dto.CodeExecutionResult;
 import com.cjs.cjs_service.dto.ExecutionJob;
+import com.cjs.cjs_service.dto.ExecutionProgress;
+import com.cjs.cjs_service.dto.ExecutionStage;
 import com.cjs.cjs_service.dto.ExecutionStatus;
+import com.cjs.cjs_service.model.ExecutionJobRecord;
 import com.cjs.cjs_service.service.SubmissionService;
 import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutionRequest;
+import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutorBase;
 import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutorFactory;
+import com.cjs.cjs_service.service.codeExecutionSerivce.ExecutionContext;
+import com.cjs.cjs_service.service.codeExecutionSerivce.ExecutionRequestFactory;
+import com.cjs.cjs_service.service.codeExecutionSerivce.JobClass;
+import com.cjs.cjs_service.service.codeExecutionSerivce.cache.VerdictCache;
+import com.cjs.cjs_service.service.codeExecutionSerivce.store.DurableJobQueue;
+import com.cjs.cjs_service.service.codeExecutionSerivce.store.ExecutionJobStore;
+import com.cjs.cjs_service.service.codeExecutionSerivce.store.JobStatusStreams;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import jakarta.annotation.PostConstruct;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Runs jobs through the executor stages, each with its own bounded queue
+ * and worker pool:
+ *
+ *   provision -> compile -> run -> verdict
+ *
+ * so one job's compile overlaps another's test run and a cheap verdict
+ * never waits behind a slow compile. A job takes its share of the host
+ * budget in provision and gives it back, with the sandbox, when its run
+ * ends; the budget still bounds how many sandboxes are live at once.
+ * A job that ends early (upload or compile failure) skips to verdict.
+ *
+ * New jobs go to the queue shared by all instances (DurableJobQueue).
+ * Their claim order (runAt) is pushed back by the jobs their user
+ * already has waiting in that class, divided by the class weight, so one
+ * user's burst does not hold everyone else up. Each instance claims
+ * up to prefetch jobs into a local FairQueue, which orders them by user
+ * and job class (run before submit before rejudge, by weight) and caps
+ * how many jobs of a class one user has in the pipeline. It also keeps
+ * each language to its share of the pipeline while other languages have
+ * jobs waiting, so a burst of slow JVM compiles cannot hold up C++ and
+ * Node.
+ *
+ * A job is only admitted when its predicted wait (jobs ahead of it times
+ * the recent time per job, spread over the pipelines of the instances
+ * judging) stays under max-wait; otherwise enqueue() throws
+ * ExecutionRejectedException.
+ *
+ * Every change of a job's status or stage is written to the shared queue
+ * and published to its status streams; test progress is published as it
+ * comes and written at most every progress-interval.
+ */
 @Component
 public class CodeExecutionWorker {
 
-    private final BlockingQueue<JobRequest> queue = new LinkedBlockingQueue<>();
+    private static final Logger log = LoggerFactory.getLogger(CodeExecutionWorker.class);
 
     private final CodeExecutorFactory executorFactory;
     private final SubmissionService submissionService;
+    private final ResourceBudget budget;
+    private final VerdictCache verdictCache;
+    private final JobStatusStreams statusStreams;
+    private final ExecutionJobStore jobStore;
+    private final DurableJobQueue jobQueue;
+    private final ExecutionRequestFactory requestFactory;
+    private final MeterRegistry meterRegistry;
+
+    // Released to make the claimer look for jobs before its next poll
+    private final Semaphore claimSignal = new Semaphore(0);
+
+    private FairQueue<PipelineJob> waiting;
+    private int pipelineThreads;
+
+    // Moving average of provision-to-verdict time, for wait predictions
+    private volatile double averageJobMs;
+
+    private PipelineStage<PipelineJob> provisionStage;
+    private PipelineStage<PipelineJob> compileStage;
+    private PipelineStage<PipelineJob> runStage;
+    private PipelineStage<PipelineJob> verdictStage;
+
+    // Default for the provision, compile and run pools;
+    // 0 = as many as the host budget can run side by side
+    @Value("${code-execution.worker.threads:0}")
+    private int workerThreads;
+
+    // 0 = code-execution.worker.threads
+    @Value("${code-execution.pipeline.provision.threads:0}")
+    private int provisionThreads;
+
+    @Value("${code-execution.pipeline.compile.threads:0}")
+    private int compileThreads;
+
+    @Value("${code-execution.pipeline.run.threads:0}")
+    private int runThreads;
+
+    @Value("${code-execution.pipeline.verdict.threads:2}")
+    private int verdictThreads;
+
+    // Unclaimed jobs (all instances) beyond which new ones are rejected
+    @Value("${code-execution.pipeline.provision.queue-capacity:1000}")
+    private int provisionCapacity;
+
+    // Jobs claimed ahead into the local fair queue; 0 = one per pipeline thread
+    @Value("${code-execution.queue.prefetch:0}")
+    private int prefetch;
+
+    // How often to look for jobs queued on other instances
+    @Value("${code-execution.queue.poll-interval:PT1S}")
+    private Duration pollInterval;
+
+    @Value("${code-execution.queue.progress-interval:PT1S}")
+    private Duration progressInterval;
+
+    // Share of the pipeline per class, relative to each other
+    @Value("${code-execution.scheduler.run.weight:4}")
+    private double runWeight;
+
+    @Value("${code-execution.scheduler.submit.weight:2}")
+    private double submitWeight;
+
+    @Value("${code-execution.scheduler.rejudge.weight:1}")
+    private double rejudgeWeight;
+
+    // Jobs of the class one user may have past the queue; 0 = no cap
+    @Value("${code-execution.scheduler.run.max-per-user:2}")
+    private int runMaxPerUser;
+
+    @Value("${code-execution.scheduler.submit.max-per-user:2}")
+    private int submitMaxPerUser;
+
+    @Value("${code-execution.scheduler.rejudge.max-per-user:0}")
+    private int rejudgeMaxPerUser;
+
+    // Longest predicted queue wait a new job is admitted with
+    @Value("${code-execution.admission.max-wait:PT60S}")
+    private Duration maxWait;
+
+    // Time per job assumed until real jobs have been measured
+    @Value("${code-execution.admission.initial-job-time:PT2S}")
+    private Duration initialJobTime;
+
+    // Between stages; a full queue makes the stage before it wait
+    @Value("${code-execution.pipeline.stage-queue-capacity:64}")
+    private int stageCapacity;
+
+    @Value("${code-execution.sandbox.memory-mb:256}")
+    private long sandboxMemoryMb;
+
+    @Value("${code-execution.sandbox.cpus:1}")
+    private double sandboxCpus;
 
     public CodeExecutionWorker(
             CodeExecutorFactory executorFactory,
-            SubmissionService submissionService) {
+            SubmissionService submissionService,
+            ResourceBudget budget,
+            VerdictCache verdictCache,
+            JobStatusStreams statusStreams,
+            ExecutionJobStore jobStore,
+            DurableJobQueue jobQueue,
+            ExecutionRequestFactory requestFactory,
+            MeterRegistry meterRegistry) {
         this.executorFactory = executorFactory;
         this.submissionService = submissionService;
+        this.budget = budget;
+        this.verdictCache = verdictCache;
+        this.statusStreams = statusStreams;
+        this.jobStore = jobStore;
+        this.jobQueue = jobQueue;
+        this.requestFactory = requestFactory;
+        this.meterRegistry = meterRegistry;
     }
 
-    public void enqueue(ExecutionJob job, CodeExecutionRequest request) {
-        queue.offer(new JobRequest(job, request));
+    @PostConstruct
+    void createStages() {
+        averageJobMs = initialJobTime.toMillis();
+        pipelineThreads = workerThreads > 0
+                ? workerThreads
+                : budget.capacityFor(sandboxMemoryMb, sandboxMilliCpus());
+        if (prefetch <= 0) {
+            prefetch = pipelineThreads;
+        }
+
+        waiting = new FairQueue<>(
+                prefetch,
+                pipelineThreads,
+                Map.of(JobClass.RUN, runWeight,
+                        JobClass.SUBMIT, submitWeight,
+                        JobClass.REJUDGE, rejudgeWeight),
+                Map.of(JobClass.RUN, runMaxPerUser,
+                        JobClass.SUBMIT, submitMaxPerUser,
+                        JobClass.REJUDGE, rejudgeMaxPerUser),
+                languageLimits());
+        registerLanguageGauges();
+
+        provisionStage = new PipelineStage<>("provision", waiting,
+                job -> advance(job, ExecutionStage.PROVISIONING, this::provision, compileStage),
+                this::stageFailed, meterRegistry);
+        compileStage = new PipelineStage<>("compile", stageCapacity,
+                job -> advance(job, ExecutionStage.COMPILING, j -> j.executor.compile(j.context), runStage),
+                this::stageFailed, meterRegistry);
+        runStage = new PipelineStage<>("run", stageCapacity,
+                job -> advance(job, ExecutionStage.TESTING, j -> j.executor.run(j.context), verdictStage),
+                this::stageFailed, meterRegistry);
+        verdictStage = new PipelineStage<>("verdict", stageCapacity,
+                this::verdict, this::stageFailed, meterRegistry);
+    }
+
+    /**
+     * Queues the job for whichever instance has room first, or completes
+     * it on the spot when the same source was already judged against the
+     * same tests.
+     *
+     * @throws ExecutionRejectedException when the job would wait longer
+     *         than max-wait or the queue is full
+     */
+    public QueueTicket enqueue(ExecutionJob job, CodeExecutionRequest request) {
+        CodeExecutionResult cached = verdictCache.get(request);
+        if (cached != null) {
+            jobStore.add(job);
+            jobQueue.insert(job, request, Instant.now(), true);
+            complete(job, cached);
+            return new QueueTicket(0, Instant.now());
+        }
+
+        long maxAhead = jobsDrainedIn(maxWait);
+        long queued = jobQueue.waiting();
+        if (queued >= provisionCapacity) {
+            throw new ExecutionRejectedException(timeToDrain(Math.max(1, queued - maxAhead)));
+        }
+
+        Instant runAt = fairRunAt(request);
+        long ahead = jobQueue.waitingUntil(runAt);
+        if (ahead > maxAhead) {
+            throw new ExecutionRejectedException(timeToDrain(ahead - maxAhead));
+        }
+
+        jobQueue.insert(job, request, runAt, false);
+        claimSignal.release();
+        return new QueueTicket((int) Math.min(Integer.MAX_VALUE, ahead + 1),
+                Instant.now().plus(timeToDrain(ahead)));
+    }
+
+    // Now, plus one job time per job the user already has waiting in the
+    // class (and this one), divided by the class weight
+    private Instant fairRunAt(CodeExecutionRequest request) {
+        long mine = jobQueue.waiting(request.getUserId(), request.getJobClass()) + 1;
+        double weight = switch (request.getJobClass()) {
+            case RUN -> runWeight;
+            case SUBMIT -> submitWeight;
+            case REJUDGE -> rejudgeWeight;
+        };
+        return Instant.now().plusMillis((long) (mine * averageJobMs / Math.max(0.01, weight)));
+    }
+
+    // How long the instances judging take to get through this many waiting jobs
+    private Duration timeToDrain(long jobs) {
+        return Duration.ofMillis((long) Math.ceil(jobs * averageJobMs / clusterThreads()));
+    }
+
+    private long jobsDrainedIn(Duration time) {
+        return (long) (time.toMillis() * clusterThreads() / Math.max(1.0, averageJobMs));
+    }
+
+    // Assumes the other instances are sized like this one
+    private long clusterThreads() {
+        return (long) pipelineThreads * jobQueue.getActiveInstances();
     }
 
     @EventListener(ApplicationReadyEvent.class)
     public void startWorker() {
-        Thread.ofVirtual().start(this::workerLoop);
+        provisionStage.start(provisionThreads > 0 ? provisionThreads : pipelineThreads);
+        compileStage.start(compileThreads > 0 ? compileThreads : pipelineThreads);
+        runStage.start(runThreads > 0 ? runThreads : pipelineThreads);
+        verdictStage.start(verdictThreads);
+
+        Thread.ofVirtual().name("execution-claimer").start(this::claimLoop);
     }
 
-    private void workerLoop() {
+    // ===============================
+    // Claiming
+    // ===============================
+
+    /**
+     * Keeps the local fair queue topped up from the shared one. Wakes on
+     * a job queued or started here, or every poll-interval for jobs
+     * queued on other instances.
+     */
+    private void claimLoop() {
         while (!Thread.currentThread().isInterrupted()) {
             try {
-                JobRequest jr = queue.take();
-                ExecutionJob job = jr.job();
-                CodeExecutionRequest request = jr.request();
+                int room = prefetch - waiting.size();
+                List<ExecutionJobRecord> claimed = room > 0 ? jobQueue.claim(room) : List.of();
+                for (ExecutionJobRecord record : claimed) {
+                    admitClaimed(record);
+                }
 
-                job.setStatus(ExecutionStatus.RUNNING);
+                if (claimed.isEmpty() || claimed.size() < room) {
+                    claimSignal.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    claimSignal.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // graceful shutdown
+            } catch (RuntimeException e) {
+                // Database unavailable; try again after a poll
+                log.warn("Claiming jobs failed", e);
+                try {
+                    Thread.sleep(pollInterval.toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void admitClaimed(ExecutionJobRecord record) throws InterruptedException {
+        ExecutionJob job = new ExecutionJob();
+        job.setJobId(record.getJobId());
+        job.setSubmissionId(record.getSubmissionId());
+        jobStore.add(job);
 
-                var executor = executorFactory.getExecutor(request.getLanguage());
-                CodeExecutionResult result = executor.execute(request);
+        CodeExecutionRequest request;
+        try {
+            request = requestFactory.build(
+                    record.getProblemId(),
+                    record.getLanguage(),
+                    record.getSourceCode(),
+                    record.getJobClass(),
+                    record.getUserId());
+        } catch (RuntimeException e) {
+            failed(job, e.getMessage());
+            return;
+        }
 
-                job.setResult(result);
+        // The same code may have been judged on this instance since it
+        // was queued (the verdict cache is not shared between instances)
+        CodeExecutionResult cached = verdictCache.get(request);
+        if (cached != null) {
+            complete(job, cached);
+            return;
+        }
+        PipelineJob pipelineJob = new PipelineJob(job, request);
+        // Queue wait counts from when the job was queued, on any instance
+        pipelineJob.enqueuedAt -= Duration.between(record.getCreatedAt(), Instant.now()).toNanos();
+        waiting.put(pipelineJob);
+    }
 
-                if (job.getSubmissionId() != -1) {
-                    submissionService.updateResult(
-                            job.getSubmissionId(),
-                            result.getSubmissionStatus(),
-                            0,
-                            0);
-                }
+    // Each language's configured limit, or an even split of the pipeline
+    private Map<String, Integer> languageLimits() {
+        Map<String, Integer> limits = languageLimits(executorFactory.getExecutors(), pipelineThreads);
+        limits.forEach((language, limit) -> log.info("Execution limit for {}: {} jobs", language, limit));
+        return limits;
+    }
 
-                job.setStatus(ExecutionStatus.COMPLETED);
+    // A language's own max-concurrency, or else an even split of the
+    // pipeline (rounded up, so the shares together never leave it idle)
+    static Map<String, Integer> languageLimits(List<CodeExecutorBase> executors, int pipelineThreads) {
+        int evenShare = Math.max(1, (pipelineThreads + executors.size() - 1) / Math.max(1, executors.size()));
 
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt(); // graceful shutdown
-            } catch (Exception e) {
-                e.printStackTrace();
+        Map<String, Integer> limits = new TreeMap<>();
+        for (CodeExecutorBase executor : executors) {
+            int limit = executor.getMaxConcurrency() > 0 ? executor.getMaxConcurrency() : evenShare;
+            limits.put(executor.getLanguage(), limit);
+        }
+        return limits;
+    }
+
+    private void registerLanguageGauges() {
+        for (CodeExecutorBase executor : executorFactory.getExecutors()) {
+            String language = executor.getLanguage();
+            Gauge.builder("execution.language.queue.depth", waiting, q -> q.waiting(language))
+                    .description("Jobs of this language waiting to start")
+                    .tag("language", language)
+                    .register(meterRegistry);
+        }
+    }
+
+    // ===============================
+    // Stages
+    // ===============================
+
+    private void provision(PipelineJob job) throws Exception {
+        job.startedAt = System.nanoTime();
+        Timer.builder("execution.queue.wait")
+                .tag("language", job.language())
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry)
+                .record(System.nanoTime() - job.enqueuedAt, TimeUnit.NANOSECONDS);
+
+        claimSignal.release(); // room in the local queue
+
+        job.executor = executorFactory.getExecutor(job.context.getRequest().getLanguage());
+        job.context.setProgressListener(progress -> reportProgress(job, progress));
+
+        // Wait for room on the host before touching Docker.
+        // Compilers run at the sandbox default, tests at the problem limit.
+        long memoryMb = Math.max(sandboxMemoryMb, job.context.getRequest().getMemoryLimitMb());
+        job.reservation = budget.acquire(memoryMb, sandboxMilliCpus());
+
+        job.executor.provision(job.context);
+    }
+
+    /**
+     * Runs one stage of the job and hands it to the next one; a job that
+     * is finished, or has just run its tests, gives back its sandbox and
+     * reservation and goes to verdict.
+     */
+    private void advance(
+            PipelineJob job,
+            ExecutionStage stage,
+            Step step,
+            PipelineStage<PipelineJob> next) throws InterruptedException {
+        try {
+            job.job.setStatus(ExecutionStatus.RUNNING);
+            job.job.setStage(stage);
+            if (!changed(job.job)) {
+                // Lease ran out and another instance has the job now
+                leavePipeline(job);
+                return;
+            }
+
+            step.run(job);
+        } catch (InterruptedException e) {
+            fail(job, "Execution interrupted");
+            throw e;
+        } catch (Exception e) {
+            log.error("{} failed in {}", job, stage, e);
+            fail(job, e.getMessage());
+            return;
+        }
+
+        if (job.context.isFinished() || next == verdictStage) {
+            releaseResources(job);
+            next = verdictStage;
+        }
+
+        try {
+            next.put(job);
+        } catch (InterruptedException e) {
+            fail(job, "Execution interrupted");
+            throw e;
+        }
+    }
+
+    private void verdict(PipelineJob job) {
+        try {
+            CodeExecutionResult result = job.executor.verdict(job.context);
+
+            verdictCache.put(job.context.getRequest(), result);
+            leavePipeline(job);
+            complete(job.job, result);
+
+        } catch (RuntimeException e) {
+            log.error("{} failed in verdict", job, e);
+            fail(job, e.getMessage());
+        }
+    }
+
+    // A stage handler threw past its own error handling (e.g. the failure
+    // write itself); the stage has logged it
+    private void stageFailed(PipelineJob job, RuntimeException e) {
+        fail(job, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+    }
+
+    private void fail(PipelineJob job, String error) {
+        leavePipeline(job);
+        failed(job.job, error);
+    }
+
+    private void failed(ExecutionJob job, String error) {
+        job.setError(error);
+        job.setStage(null);
+        job.setStatus(ExecutionStatus.FAILED);
+        changed(job);
+    }
+
+    // Frees the job's resources and its user's slot in the fair queue
+    private void leavePipeline(PipelineJob job) {
+        releaseResources(job);
+        if (!job.left) {
+            job.left = true;
+            waiting.done(job);
+            recordJobTime(job);
+            claimSignal.release();
+        }
+    }
+
+    private synchronized void recordJobTime(PipelineJob job) {
+        if (job.startedAt > 0) {
+            double ms = (System.nanoTime() - job.startedAt) / 1_000_000.0;
+            averageJobMs = 0.9 * averageJobMs + 0.1 * ms;
+        }
+    }
+
+    private void releaseResources(PipelineJob job) {
+        if (job.executor != null) {
+            job.executor.release(job.context);
+        }
+        if (job.reservation != null) {
+            budget.release(job.reservation);
+            job.reservation = null;
+        }
+    }
+
+    // The verdict goes to the submission only once the fenced write has
+    // shown the job is still ours; otherwise the new owner writes it
+    private void complete(ExecutionJob job, CodeExecutionResult result) {
+        job.setResult(result);
+        job.setProgress(null);
+        job.setStage(null);
+        job.setStatus(ExecutionStatus.COMPLETED);
+
+        if (save(job) && job.getSubmissionId() != -1) {
+            submissionService.updateResult(
+                    job.getSubmissionId(),
+                    result.getSubmissionStatus(),
+                    (int) result.getTimeMs(),
+                    (int) result.getMemoryKb());
+        }
+        statusStreams.publish(job.getJobId());
+    }
+
+    /**
+     * Writes the job to the shared queue and tells its streams. False when
+     * this instance no longer owns the job.
+     */
+    private boolean changed(ExecutionJob job) {
+        boolean owned = save(job);
+        statusStreams.publish(job.getJobId());
+        return owned;
+    }
+
+    /**
+     * The fenced write. A job whose write was fenced off, or failed, is
+     * given up: status reads go to the shared queue, and the lease is left
+     * to run out so the job is judged again, here or elsewhere.
+     */
+    private boolean save(ExecutionJob job) {
+        boolean owned;
+        try {
+            owned = jobQueue.save(job);
+        } catch (RuntimeException e) {
+            // Whether the write landed is unknown, so the job cannot be
+            // counted as ours
+            log.warn("Saving job {} failed; giving it up", job.getJobId(), e);
+            jobQueue.abandon(job.getJobId());
+            owned = false;
+        }
+        if (!owned) {
+            jobStore.removeJob(job.getJobId());
+        }
+        return owned;
+    }
+
+    // On the harness callback thread; writes are spaced out since a fast
+    // job can report a test every millisecond
+    private void reportProgress(PipelineJob job, ExecutionProgress progress) {
+        job.job.setProgress(progress);
+        statusStreams.publish(job.job.getJobId());
+
+        long now = System.nanoTime();
+        if (now - job.progressWrittenAt >= progressInterval.toNanos()) {
+            job.progressWrittenAt = now;
+            try {
+                jobQueue.saveProgress(job.job);
+            } catch (RuntimeException e) {
+                log.warn("Saving progress of {} failed", job, e);
             }
         }
     }
 
-    private record JobRequest(ExecutionJob job, CodeExecutionRequest request) {
+    private long sandboxMilliCpus() {
+        return (long) (sandboxCpus * 1000);
+    }
+
+    private interface Step {
+        void run(PipelineJob job) throws Exception;
+    }
+
+    /** A job on its way through the stages; owned by one stage at a time. */
+    private static final class PipelineJob implements FairQueue.Schedulable {
+        final ExecutionJob job;
+        final ExecutionContext context;
+        CodeExecutorBase executor;
+        ResourceBudget.Reservation reservation;
+        boolean left;
+        long enqueuedAt = System.nanoTime();
+        long startedAt;
+        long progressWrittenAt = System.nanoTime();
+
+        PipelineJob(ExecutionJob job, CodeExecutionRequest request) {
+            this.job = job;
+            this.context = new ExecutionContext(request);
+        }
+
+        // Executors match languages case-insensitively
+        @Override
+        public String language() {
+            return context.getRequest().getLanguage().toLowerCase(Locale.ROOT);
+        }
+
+        @Override
+        public JobClass jobClass() {
+            return context.getRequest().getJobClass();
+        }
+
+        @Override
+        public int userId() {
+            return context.getRequest().getUserId();
+        }
+
+        @Override
+        public int cost() {
+            return context.getRequest().getTestCases().size();
+        }
+
+        @Override
+        public String toString() {
+            return "job " + job.getJobId();
+        }
     }
 }
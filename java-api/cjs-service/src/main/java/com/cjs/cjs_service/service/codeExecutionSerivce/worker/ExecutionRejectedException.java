@@ -0,0 +1,30 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.worker;
+
+import java.time.Duration;
+
+/**
+ * The queue is too long to take the job now; the caller should try
+ * again after retryAfter.
+ */
+public class ExecutionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ExecutionRejectedException(Duration retryAfter) {
+        super("Too many jobs waiting, try again in " + seconds(retryAfter) + "s");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /** retryAfter in whole seconds, rounded up so a retry is never early. */
+    public long getRetryAfterSeconds() {
+        return seconds(retryAfter);
+    }
+
+    private static long seconds(Duration duration) {
+        return Math.max(1, (duration.toMillis() + 999) / 1000);
+    }
+}
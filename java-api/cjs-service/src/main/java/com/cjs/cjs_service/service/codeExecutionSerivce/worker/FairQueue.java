@@ -0,0 +1,252 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.worker;
+
+import com.cjs.cjs_service.service.codeExecutionSerivce.JobClass;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Weighted fair queue over flows of (job class, user), using self-clocked
+ * fair queueing. Each job is tagged on arrival with
+ *
+ *   finish = max(V, finish of its flow's previous job) + cost / weight(class)
+ *
+ * where cost is its number of tests and V is the largest tag taken so
+ * far. take() returns the waiting job with the smallest tag, so users in
+ * a class share equally, classes share in proportion to their weights,
+ * and an idle user cannot save up credit for a later burst.
+ *
+ * A job is only eligible while its user has fewer than maxPerUser(class)
+ * jobs of that class in flight (0 = no cap). Flight ends with done().
+ *
+ * Languages are bulkheaded: a language with languageLimit jobs in flight
+ * only gets another one when no other language has an eligible job
+ * waiting, i.e. it borrows idle capacity, up to maxInFlight jobs in all.
+ * A burst of one runtime thus cannot take the slots the others need.
+ *
+ * Selection scans the waiting flows, which stays cheap at the number of
+ * users one instance serves.
+ */
+class FairQueue<T extends FairQueue.Schedulable> implements PipelineStage.StageQueue<T> {
+
+    interface Schedulable {
+        String language();
+
+        JobClass jobClass();
+
+        int userId();
+
+        // Relative amount of work, e.g. the number of tests
+        int cost();
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<FlowKey, Flow<T>> flows = new HashMap<>();
+    private final Map<String, Language> languages = new HashMap<>();
+
+    private final int capacity;
+    private final int maxInFlight;
+    private final Map<JobClass, Double> weights;
+    private final Map<JobClass, Integer> maxPerUser;
+    private final Map<String, Integer> languageLimits;
+
+    private int size;
+    private int inFlight;
+    private long sequence;
+    private double virtualTime;
+
+    FairQueue(
+            int capacity,
+            int maxInFlight,
+            Map<JobClass, Double> weights,
+            Map<JobClass, Integer> maxPerUser,
+            Map<String, Integer> languageLimits) {
+        this.capacity = capacity;
+        this.maxInFlight = maxInFlight;
+        this.weights = new EnumMap<>(JobClass.class);
+        this.weights.putAll(weights);
+        this.maxPerUser = new EnumMap<>(JobClass.class);
+        this.maxPerUser.putAll(maxPerUser);
+        this.languageLimits = Map.copyOf(languageLimits);
+    }
+
+    @Override
+    public void put(T item) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size >= capacity) {
+                changed.await();
+            }
+            Flow<T> flow = flow(item);
+            add(flow, item, finishTag(flow, item));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for an eligible job and counts it as in flight for its user.
+     */
+    @Override
+    public T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                Flow<T> next = select(false);
+                if (next == null && inFlight < maxInFlight) {
+                    next = select(true);
+                }
+
+                if (next != null) {
+                    Tagged<T> job = next.waiting.pollFirst();
+                    Language language = language(job.item().language());
+                    language.waiting--;
+                    language.inFlight++;
+                    next.inFlight++;
+                    inFlight++;
+                    size--;
+                    virtualTime = Math.max(virtualTime, job.finish());
+                    changed.signalAll();
+                    return job.item();
+                }
+                changed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The job taken earlier has left the pipeline. */
+    public void done(T item) {
+        lock.lock();
+        try {
+            FlowKey key = new FlowKey(item.jobClass(), item.userId());
+            Flow<T> flow = flows.get(key);
+            if (flow == null) {
+                return;
+            }
+            flow.inFlight--;
+            language(item.language()).inFlight--;
+            inFlight--;
+            if (flow.isIdle()) {
+                // Safe to forget: its last tag is <= virtualTime
+                flows.remove(key);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Jobs of the language waiting to be taken. */
+    public int waiting(String language) {
+        lock.lock();
+        try {
+            Language counts = languages.get(language);
+            return counts == null ? 0 : counts.waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The eligible head job with the smallest tag; unless borrowing, only
+    // among languages under their limit
+    private Flow<T> select(boolean borrow) {
+        Flow<T> next = null;
+        for (Flow<T> flow : flows.values()) {
+            if (!flow.isEligible()) {
+                continue;
+            }
+            if (!borrow && !hasRoom(flow.head().item().language())) {
+                continue;
+            }
+            if (next == null || flow.head().before(next.head())) {
+                next = flow;
+            }
+        }
+        return next;
+    }
+
+    private boolean hasRoom(String language) {
+        int limit = languageLimits.getOrDefault(language, 0);
+        return limit <= 0 || language(language).inFlight < limit;
+    }
+
+    private Language language(String language) {
+        return languages.computeIfAbsent(language, l -> new Language());
+    }
+
+    private Flow<T> flow(T item) {
+        return flows.computeIfAbsent(
+                new FlowKey(item.jobClass(), item.userId()),
+                key -> new Flow<>(maxPerUser.getOrDefault(key.jobClass(), 0)));
+    }
+
+    private double finishTag(Flow<T> flow, T item) {
+        double start = Math.max(virtualTime, flow.lastFinish);
+        return start + Math.max(1, item.cost()) / weights.getOrDefault(item.jobClass(), 1.0);
+    }
+
+    private void add(Flow<T> flow, T item, double finish) {
+        flow.lastFinish = finish;
+        flow.waiting.addLast(new Tagged<>(item, finish, sequence++));
+
+        language(item.language()).waiting++;
+        size++;
+        changed.signalAll();
+    }
+
+    private record FlowKey(JobClass jobClass, int userId) {
+    }
+
+    private record Tagged<T>(T item, double finish, long sequence) {
+        // Arrival order breaks ties
+        boolean before(Tagged<?> other) {
+            return finish < other.finish
+                    || (finish == other.finish && sequence < other.sequence);
+        }
+    }
+
+    private static final class Language {
+        int waiting;
+        int inFlight;
+    }
+
+    private static final class Flow<T> {
+        final ArrayDeque<Tagged<T>> waiting = new ArrayDeque<>();
+        final int maxInFlight;
+        double lastFinish;
+        int inFlight;
+
+        Flow(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        Tagged<T> head() {
+            return waiting.peekFirst();
+        }
+
+        boolean isEligible() {
+            return !waiting.isEmpty() && (maxInFlight <= 0 || inFlight < maxInFlight);
+        }
+
+        boolean isIdle() {
+            return waiting.isEmpty() && inFlight <= 0;
+        }
+    }
+}
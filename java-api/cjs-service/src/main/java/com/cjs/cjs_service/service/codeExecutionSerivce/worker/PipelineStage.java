@@ -0,0 +1,146 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.worker;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One stage of the execution pipeline: a bounded queue drained by its
+ * own pool of virtual threads. A full queue blocks put(), so a slow
+ * stage holds back the one before it instead of piling up work.
+ * The queue is a FIFO unless the stage is given its own (FairQueue).
+ *
+ * A handler that throws fails only the item it was given: the item goes
+ * to the stage's failure handler and the worker carries on with the next
+ * one, so a bug cannot take workers out of the pool one by one.
+ *
+ * Exported as execution.stage.queue.depth and execution.stage.active,
+ * tagged with the stage name.
+ */
+class PipelineStage<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelineStage.class);
+
+    interface Handler<T> {
+        void handle(T item) throws InterruptedException;
+    }
+
+    /** Ends an item whose handler threw. */
+    interface FailureHandler<T> {
+        void failed(T item, RuntimeException error);
+    }
+
+    /** The queue operations a stage needs. */
+    interface StageQueue<T> {
+        void put(T item) throws InterruptedException;
+
+        T take() throws InterruptedException;
+
+        int size();
+    }
+
+    private final String name;
+    private final StageQueue<T> queue;
+    private final Handler<T> handler;
+    private final FailureHandler<T> onFailure;
+    private final AtomicInteger active = new AtomicInteger();
+
+    PipelineStage(
+            String name,
+            int capacity,
+            Handler<T> handler,
+            FailureHandler<T> onFailure,
+            MeterRegistry registry) {
+        this(name, new FifoQueue<>(capacity), handler, onFailure, registry);
+    }
+
+    PipelineStage(
+            String name,
+            StageQueue<T> queue,
+            Handler<T> handler,
+            FailureHandler<T> onFailure,
+            MeterRegistry registry) {
+        this.name = name;
+        this.queue = queue;
+        this.handler = handler;
+        this.onFailure = onFailure;
+
+        Gauge.builder("execution.stage.queue.depth", queue, StageQueue::size)
+                .description("Jobs waiting for a worker of this stage")
+                .tag("stage", name)
+                .register(registry);
+        Gauge.builder("execution.stage.active", active, AtomicInteger::get)
+                .description("Workers of this stage busy with a job")
+                .tag("stage", name)
+                .register(registry);
+    }
+
+    void start(int threads) {
+        for (int i = 0; i < threads; i++) {
+            Thread.ofVirtual()
+                    .name("execution-" + name + "-" + i)
+                    .start(this::workerLoop);
+        }
+    }
+
+    /** Waits for room in the queue. */
+    void put(T item) throws InterruptedException {
+        queue.put(item);
+    }
+
+    private void workerLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                T item = queue.take();
+                active.incrementAndGet();
+                try {
+                    handler.handle(item);
+                } catch (RuntimeException e) {
+                    log.error("Stage {} failed on {}", name, item, e);
+                    failed(item, e);
+                } finally {
+                    active.decrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // graceful shutdown
+            }
+        }
+    }
+
+    private void failed(T item, RuntimeException error) {
+        try {
+            onFailure.failed(item, error);
+        } catch (RuntimeException e) {
+            log.error("Stage {} could not fail {}", name, item, e);
+        }
+    }
+
+    private static final class FifoQueue<T> implements StageQueue<T> {
+        private final BlockingQueue<T> queue;
+
+        FifoQueue(int capacity) {
+            this.queue = new LinkedBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void put(T item) throws InterruptedException {
+            queue.put(item);
+        }
+
+        @Override
+        public T take() throws InterruptedException {
+            return queue.take();
+        }
+
+        @Override
+        public int size() {
+            return queue.size();
+        }
+    }
+}
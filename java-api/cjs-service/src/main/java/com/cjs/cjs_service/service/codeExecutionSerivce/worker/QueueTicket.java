@@ -0,0 +1,10 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.worker;
+
+import java.time.Instant;
+
+/**
+ * Where an accepted job stands: its 1-based position among waiting jobs
+ * (0 = already done) and when it is expected to start.
+ */
+public record QueueTicket(int position, Instant estimatedStart) {
+}
@@ -0,0 +1,175 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.worker;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.Info;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * CPU and memory budget of the Docker host that runs the sandboxes.
+ * A job may only start once its container's share fits in what is left,
+ * so judging scales with the host instead of oversubscribing it.
+ *
+ * When code-execution.host.* is not set, capacity is taken from
+ * `docker info` (falling back to this JVM's machine).
+ *
+ * Waiters are served strictly in arrival order: each one waits on its
+ * own condition and only the head of the line is woken when resources
+ * come back.
+ */
+@Component
+public class ResourceBudget {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceBudget.class);
+
+    private final DockerClient docker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // One condition per blocked acquire(), in arrival order; guarded by lock
+    private final ArrayDeque<Condition> waiters = new ArrayDeque<>();
+
+    @Value("${code-execution.host.cpus:0}")
+    private int configuredCpus;
+
+    @Value("${code-execution.host.memory-mb:0}")
+    private long configuredMemoryMb;
+
+    @Value("${code-execution.host.memory-fraction:0.75}")
+    private double memoryFraction;
+
+    private long totalMilliCpus;
+    private long totalMemoryMb;
+
+    private long freeMilliCpus;
+    private long freeMemoryMb;
+
+    public ResourceBudget(DockerClient docker) {
+        this.docker = docker;
+    }
+
+    @PostConstruct
+    void detectCapacity() {
+        int cpus = configuredCpus;
+        long memoryMb = configuredMemoryMb;
+
+        if (cpus <= 0 || memoryMb <= 0) {
+            Info info = dockerInfo();
+
+            if (cpus <= 0) {
+                cpus = info != null && info.getNCPU() != null
+                        ? info.getNCPU()
+                        : Runtime.getRuntime().availableProcessors();
+            }
+            if (memoryMb <= 0) {
+                long bytes = info != null && info.getMemTotal() != null
+                        ? info.getMemTotal()
+                        : ((com.sun.management.OperatingSystemMXBean) ManagementFactory
+                                .getOperatingSystemMXBean()).getTotalMemorySize();
+                memoryMb = (long) (bytes / (1024 * 1024) * memoryFraction);
+            }
+        }
+
+        totalMilliCpus = freeMilliCpus = cpus * 1000L;
+        totalMemoryMb = freeMemoryMb = memoryMb;
+
+        log.info("Execution budget: {} CPUs, {} MB", cpus, memoryMb);
+    }
+
+    /**
+     * Blocks until the reservation fits and every earlier waiter has been
+     * served. A large job at the head of the line therefore holds back
+     * smaller ones that would fit, but is never starved by them.
+     */
+    public Reservation acquire(long memoryMb, long milliCpus) throws InterruptedException {
+        Reservation reservation = new Reservation(
+                Math.min(memoryMb, totalMemoryMb),
+                Math.min(milliCpus, totalMilliCpus));
+
+        lock.lockInterruptibly();
+        try {
+            if (waiters.isEmpty() && fits(reservation)) {
+                take(reservation);
+                return reservation;
+            }
+
+            Condition turn = lock.newCondition();
+            waiters.addLast(turn);
+            try {
+                while (waiters.peekFirst() != turn || !fits(reservation)) {
+                    turn.await();
+                }
+            } catch (InterruptedException e) {
+                waiters.remove(turn);
+                wakeHead(); // it may have been this one's turn
+                throw e;
+            }
+
+            waiters.removeFirst();
+            take(reservation);
+            wakeHead(); // what is left may fit the next one too
+            return reservation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Reservation reservation) {
+        lock.lock();
+        try {
+            freeMemoryMb += reservation.memoryMb();
+            freeMilliCpus += reservation.milliCpus();
+            wakeHead();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Callers hold the lock
+    private boolean fits(Reservation reservation) {
+        return freeMemoryMb >= reservation.memoryMb()
+                && freeMilliCpus >= reservation.milliCpus();
+    }
+
+    private void take(Reservation reservation) {
+        freeMemoryMb -= reservation.memoryMb();
+        freeMilliCpus -= reservation.milliCpus();
+    }
+
+    private void wakeHead() {
+        Condition head = waiters.peekFirst();
+        if (head != null) {
+            head.signal();
+        }
+    }
+
+    /**
+     * How many sandboxes of the given size fit on the host at once.
+     */
+    public int capacityFor(long memoryMb, long milliCpus) {
+        long byMemory = totalMemoryMb / Math.max(1, memoryMb);
+        long byCpu = totalMilliCpus / Math.max(1, milliCpus);
+        return (int) Math.max(1, Math.min(byMemory, byCpu));
+    }
+
+    private Info dockerInfo() {
+        try {
+            return docker.infoCmd().exec();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public record Reservation(long memoryMb, long milliCpus) {
+    }
+}
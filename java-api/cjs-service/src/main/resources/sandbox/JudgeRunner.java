@@ -0,0 +1,340 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Permission;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TimeZone;
+
+/**
+ * Persistent JVM test runner, compiled and started inside the sandbox by
+ * persistent-harness.sh as:
+ *   java -cp /workspace/.cjs/runner JudgeRunner FROM COUNT TIME_LIMIT_MS WALL_LIMIT_MS OUTPUT_LIMIT
+ *
+ * Runs /workspace/in/FROM..COUNT through Main in one JVM and writes the
+ * same frames as harness.sh. Each test loads Main in a fresh class loader
+ * (fresh static state) on its own thread, with System.in/out/err
+ * redirected. System.exit() from the program ends only that test.
+ *
+ * When the JVM can no longer be trusted (a test overran and its thread
+ * cannot be stopped, it ran out of memory, left threads behind or changed
+ * JVM-wide state) the runner exits with RESTART after that test's frame;
+ * the script starts a new JVM at the index written to .cjs/next.
+ *
+ * The workspace is /workspace unless CJS_WORKSPACE says otherwise.
+ *
+ * Must stay compilable by the oldest JDK image (17).
+ */
+public final class JudgeRunner {
+
+    static final int RESTART = 75; // EX_TEMPFAIL
+
+    private static final Path WORKSPACE = Path.of(System.getenv().getOrDefault("CJS_WORKSPACE", "/workspace"));
+    private static final Path NEXT = WORKSPACE.resolve(".cjs/next");
+    private static final int MAX_STDERR = 4096;
+    private static final long TEST_STACK_BYTES = 256L << 20;
+
+    private static final int FLAG_TIME_LIMIT = 1;
+    private static final int FLAG_MEMORY_LIMIT = 2;
+    private static final int FLAG_OUTPUT_LIMIT = 4;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static volatile ThreadGroup currentTest;
+
+    public static void main(String[] args) throws Exception {
+        int from = Integer.parseInt(args[0]);
+        int count = Integer.parseInt(args[1]);
+        long timeLimitMs = Long.parseLong(args[2]);
+        long wallLimitMs = Long.parseLong(args[3]);
+        long outputLimit = Long.parseLong(args[4]);
+
+        OutputStream frames = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16);
+        System.setSecurityManager(new ExitGuard());
+
+        for (int i = from; i <= count; i++) {
+            Result result = runTest(i, timeLimitMs, wallLimitMs, outputLimit);
+
+            // .cjs/next moves on before the frame goes out: a JVM killed in
+            // between then loses this frame, instead of the script reporting
+            // the test a second time
+            writeFrame(frames, i, result);
+            Files.writeString(NEXT, String.valueOf(i + 1));
+            frames.flush();
+
+            if (!result.reusable) {
+                Runtime.getRuntime().halt(RESTART);
+            }
+        }
+        Runtime.getRuntime().halt(0);
+    }
+
+    // ===============================
+    // One test
+    // ===============================
+
+    private static Result runTest(int index, long timeLimitMs, long wallLimitMs, long outputLimit)
+            throws Exception {
+
+        Result result = new Result();
+        Capture stdout = new Capture(outputLimit, true);
+        Capture stderr = new Capture(MAX_STDERR, false);
+
+        // TimeZone.getDefault() sets user.timezone the first time, so read
+        // it before taking the properties snapshot
+        Locale locale = Locale.getDefault();
+        TimeZone timeZone = TimeZone.getDefault();
+        Properties properties = (Properties) System.getProperties().clone();
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+
+        try (InputStream in = Files.newInputStream(WORKSPACE.resolve("in/" + index));
+             URLClassLoader loader = new URLClassLoader(
+                     new URL[] { WORKSPACE.toUri().toURL() },
+                     ClassLoader.getPlatformClassLoader())) {
+
+            System.setIn(in);
+            System.setOut(new PrintStream(stdout, false, StandardCharsets.UTF_8));
+            System.setErr(new PrintStream(stderr, true, StandardCharsets.UTF_8));
+
+            ThreadGroup group = new ThreadGroup("test-" + index);
+            Thread thread = new Thread(group, () -> invokeMain(loader, result), "main", TEST_STACK_BYTES);
+            thread.setContextClassLoader(loader);
+
+            currentTest = group;
+            long start = System.nanoTime();
+            thread.start();
+
+            long cpuLimitNs = timeLimitMs * 1_000_000L;
+            long wallDeadline = start + wallLimitMs * 1_000_000L;
+            Map<Long, Long> cpuByThread = new HashMap<>();
+
+            // Like a real JVM, wait for the program's non-daemon threads
+            while (thread.isAlive() || hasLiveUserThreads(group)) {
+                result.cpuNs = groupCpuTime(group, cpuByThread);
+                if (result.cpuNs > cpuLimitNs || System.nanoTime() > wallDeadline) {
+                    result.flags |= FLAG_TIME_LIMIT;
+                    result.exitCode = 137;
+                    result.reusable = false;
+                    break;
+                }
+                thread.join(5);
+            }
+
+            result.wallMs = (System.nanoTime() - start) / 1_000_000L;
+            currentTest = null;
+
+            // Leftover daemon threads would keep running into the next test
+            if (group.activeCount() > 0) {
+                result.reusable = false;
+            }
+        } finally {
+            System.out.flush();
+        }
+
+        if (result.thrown instanceof OutOfMemoryError) {
+            result.flags |= FLAG_MEMORY_LIMIT;
+            result.reusable = false;
+        }
+        if (stdout.overflowed) {
+            result.flags |= FLAG_OUTPUT_LIMIT;
+        }
+        if (result.thrown != null && !(result.thrown instanceof OutputLimitError)) {
+            result.thrown.printStackTrace(new PrintStream(stderr, true, StandardCharsets.UTF_8));
+        }
+
+        if (!properties.equals(System.getProperties())
+                || !locale.equals(Locale.getDefault())
+                || !timeZone.equals(TimeZone.getDefault())) {
+            result.reusable = false;
+        }
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        result.memoryKb = peak / 1024;
+        result.stdout = stdout.toByteArray();
+        result.stderr = stderr.toByteArray();
+        return result;
+    }
+
+    /**
+     * CPU time of every thread the test has started, main included. A
+     * thread's last sample is kept after it ends, so work done by
+     * short-lived threads still counts (up to one poll interval of it).
+     */
+    private static long groupCpuTime(ThreadGroup group, Map<Long, Long> cpuByThread) {
+        Thread[] threads = new Thread[group.activeCount() + 8];
+        int n = group.enumerate(threads, true);
+        for (int i = 0; i < n; i++) {
+            long cpu = THREADS.getThreadCpuTime(threads[i].getId());
+            if (cpu > 0) {
+                cpuByThread.put(threads[i].getId(), cpu);
+            }
+        }
+
+        long total = 0;
+        for (long cpu : cpuByThread.values()) {
+            total += cpu;
+        }
+        return total;
+    }
+
+    private static boolean hasLiveUserThreads(ThreadGroup group) {
+        Thread[] threads = new Thread[group.activeCount() + 8];
+        int n = group.enumerate(threads, true);
+        for (int i = 0; i < n; i++) {
+            if (threads[i].isAlive() && !threads[i].isDaemon()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void invokeMain(ClassLoader loader, Result result) {
+        Throwable thrown;
+        try {
+            Method main = loader.loadClass("Main").getMethod("main", String[].class);
+            main.invoke(null, (Object) new String[0]);
+            return;
+        } catch (InvocationTargetException e) {
+            thrown = e.getCause();
+        } catch (Throwable e) {
+            thrown = e;
+        }
+
+        for (Throwable t = thrown; t != null; t = t.getCause()) {
+            if (t instanceof ExitTrap exit) {
+                result.exitCode = exit.status;
+                return;
+            }
+        }
+        result.exitCode = 1;
+        result.thrown = thrown;
+    }
+
+    // ===============================
+    // Frames (same layout as harness.sh)
+    // ===============================
+
+    private static void writeFrame(OutputStream out, int index, Result r) throws IOException {
+        String header = "@@CJS " + index + " " + r.exitCode + " " + r.wallMs + " "
+                + r.stdout.length + " " + r.stderr.length + " " + r.flags + " "
+                + r.memoryKb + " " + (r.cpuNs / 1_000_000L) + "\n";
+        out.write(header.getBytes(StandardCharsets.US_ASCII));
+        out.write(r.stdout);
+        out.write(r.stderr);
+    }
+
+    private static final class Result {
+        volatile int exitCode;
+        int flags;
+        long wallMs;
+        long cpuNs;
+        long memoryKb;
+        byte[] stdout;
+        byte[] stderr;
+        volatile Throwable thrown;
+        boolean reusable = true;
+    }
+
+    // ===============================
+    // Capture and exit handling
+    // ===============================
+
+    /**
+     * In-memory stream with a byte cap. stdout stops the program once it
+     * goes over (OutputLimitError unwinds its thread); stderr just drops
+     * the rest.
+     */
+    private static final class Capture extends ByteArrayOutputStream {
+        private final long limit;
+        private final boolean stopOnOverflow;
+        volatile boolean overflowed;
+
+        Capture(long limit, boolean stopOnOverflow) {
+            super(8192);
+            this.limit = limit;
+            this.stopOnOverflow = stopOnOverflow;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            long room = limit - count;
+            if (len > room) {
+                super.write(b, off, (int) Math.max(room, 0));
+                overflowed = true;
+                if (stopOnOverflow) {
+                    throw new OutputLimitError();
+                }
+                return;
+            }
+            super.write(b, off, len);
+        }
+    }
+
+    private static final class OutputLimitError extends Error {
+        OutputLimitError() {
+            super("Output limit exceeded", null, false, false);
+        }
+    }
+
+    private static final class ExitTrap extends SecurityException {
+        final int status;
+
+        ExitTrap(int status) {
+            super("System.exit(" + status + ")");
+            this.status = status;
+        }
+    }
+
+    /**
+     * Turns System.exit() from a test's threads into an ExitTrap; all
+     * other permissions are granted.
+     */
+    private static final class ExitGuard extends SecurityManager {
+        @Override
+        public void checkPermission(Permission perm) {
+        }
+
+        @Override
+        public void checkPermission(Permission perm, Object context) {
+        }
+
+        @Override
+        public void checkExit(int status) {
+            ThreadGroup test = currentTest;
+            if (test != null && test.parentOf(Thread.currentThread().getThreadGroup())) {
+                throw new ExitTrap(status);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+#!/bin/sh
+# Batch test harness, run inside the sandbox as:
+#   sh /workspace/.cjs/harness.sh COUNT TIME_LIMIT_MS WALL_LIMIT_MS OUTPUT_LIMIT CMD [ARGS...]
+#
+# Runs CMD once per /workspace/in/<i> (1..COUNT) and writes one frame per
+# test to stdout:
+#   @@CJS <index> <exit-code> <wall-ms> <stdout-bytes> <stderr-bytes> <flags> <peak-kb> <cpu-ms>\n
+# followed by exactly <stdout-bytes> of stdout and <stderr-bytes> of stderr.
+#
+# Each run gets TIME_LIMIT_MS of CPU: a run whose measured cpu-ms exceeds
+# it is a time limit exceeded. ulimit -t (rounded up to whole seconds)
+# is only the hard backstop. A run is SIGKILLed once WALL_LIMIT_MS of
+# wall-clock time has passed.
+# The container's memory cgroup enforces the memory limit; an OOM kill is
+# detected from the cgroup's oom_kill counter.
+# Output files are capped with ulimit -f just above OUTPUT_LIMIT bytes:
+# a native program dies with SIGXFSZ, runtimes that ignore the signal
+# (the JVM) only see failed writes. At most OUTPUT_LIMIT bytes of stdout
+# are framed.
+# flags: 1 = time limit exceeded, 2 = memory limit exceeded,
+#        4 = output limit exceeded
+#
+# cpu-ms and peak-kb come from busybox time (getrusage of the child).
+# Without that applet, CPU time falls back to the container's cgroup
+# usage delta and peak-kb is 0.
+
+count=$1
+time_limit_ms=$2
+wall_limit_ms=$3
+output_limit=$4
+shift 4
+
+cpu_limit_s=$(( (time_limit_ms + 999) / 1000 ))
+wall_limit_s=$(( (wall_limit_ms + 999) / 1000 ))
+# 512-byte blocks, one past the limit so exceeding it is detectable
+output_blocks=$(( output_limit / 512 + 1 ))
+
+work=${CJS_WORKSPACE:-/workspace}
+mkdir -p "$work/out"
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# cgroup v2 first, then v1 (oom_kill is reported since Linux 4.13)
+oom_kills() {
+    for f in /sys/fs/cgroup/memory.events /sys/fs/cgroup/memory/memory.oom_control; do
+        if [ -r "$f" ]; then
+            sed -n 's/^oom_kill //p' "$f"
+            return
+        fi
+    done
+    echo 0
+}
+
+# Container CPU usage in microseconds: cgroup v2, then v1 (nanoseconds)
+cpu_usec() {
+    if [ -r /sys/fs/cgroup/cpu.stat ]; then
+        sed -n 's/^usage_usec //p' /sys/fs/cgroup/cpu.stat
+    elif [ -r /sys/fs/cgroup/cpuacct/cpuacct.usage ]; then
+        echo $(( $(cat /sys/fs/cgroup/cpuacct/cpuacct.usage) / 1000 ))
+    else
+        echo 0
+    fi
+}
+
+if busybox time -f '%U %S %M' -o /dev/null true 2>/dev/null; then
+    timed() { stat_file=$1; shift; exec busybox time -f '%U %S %M' -o "$stat_file" "$@"; }
+else
+    timed() { shift; exec "$@"; }
+fi
+
+i=1
+while [ "$i" -le "$count" ]; do
+    out="$work/out/$i"
+    err="$work/out/$i.err"
+    stat="$work/out/$i.stat"
+
+    oom_before=$(oom_kills)
+    cpu_before=$(cpu_usec)
+    start=$(now_ms)
+    (
+        ulimit -t "$cpu_limit_s"
+        ulimit -f "$output_blocks"
+        timed "$stat" timeout -s KILL "$wall_limit_s" "$@"
+    ) < "$work/in/$i" > "$out" 2> "$err"
+    code=$?
+    end=$(now_ms)
+    # busybox time exits with the bare signal number when the program is
+    # killed; report it the way the shell does (128 + signal)
+    signal=$(sed -n 's/^Command terminated by signal \([0-9]*\).*/\1/p' "$stat" 2>/dev/null)
+    if [ -n "$signal" ]; then
+        code=$((128 + signal))
+    fi
+    cpu_after=$(cpu_usec)
+    oom_after=$(oom_kills)
+
+    # The "terminated by signal" line, if any, comes first
+    usage=$(tail -n 1 "$stat" 2>/dev/null)
+    cpu_ms=$(echo "$usage" | awk 'NF == 3 { printf "%d", ($1 + $2) * 1000 }')
+    peak_kb=$(echo "$usage" | awk 'NF == 3 { print $3 }')
+    case "$cpu_ms" in
+        ''|*[!0-9]*) cpu_ms=$(( (${cpu_after:-0} - ${cpu_before:-0}) / 1000 )) ;;
+    esac
+    case "$peak_kb" in ''|*[!0-9]*) peak_kb=0 ;; esac
+
+    out_bytes=$(wc -c < "$out")
+
+    # An OOM kill is also a SIGKILL, so check it before the time limit;
+    # a JVM that ignored SIGXFSZ keeps running into the time limit.
+    # 137 = SIGKILL (wall clock or hard CPU limit), 152 = SIGXCPU,
+    # 153 = SIGXFSZ
+    flags=0
+    if [ "${oom_after:-0}" -gt "${oom_before:-0}" ]; then
+        flags=2
+    elif [ "$code" -eq 153 ] || [ "$out_bytes" -gt "$output_limit" ]; then
+        flags=4
+        out_bytes=$output_limit
+    elif [ "$code" -eq 137 ] || [ "$code" -eq 152 ] \
+            || [ $((end - start)) -gt "$wall_limit_ms" ] \
+            || [ "$cpu_ms" -gt "$time_limit_ms" ]; then
+        flags=1
+    fi
+
+    # stderr is only diagnostic; keep the frame small
+    head -c 4096 "$err" > "$err.head"
+
+    printf '@@CJS %d %d %d %d %d %d %d %d\n' \
+        "$i" "$code" "$((end - start))" \
+        "$out_bytes" "$(wc -c < "$err.head")" "$flags" "$peak_kb" "$cpu_ms"
+    head -c "$out_bytes" "$out"
+    cat "$err.head"
+
+    rm -f "$out" "$err" "$err.head" "$stat"
+    i=$((i + 1))
+done
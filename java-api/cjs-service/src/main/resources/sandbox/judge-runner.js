@@ -0,0 +1,304 @@
+'use strict';
+/*
+ * Persistent Node test runner, started inside the sandbox by
+ * persistent-harness.sh as:
+ *   node [--max-old-space-size=MB] /workspace/.cjs/judge-runner.js FROM COUNT TIME_LIMIT_MS WALL_LIMIT_MS OUTPUT_LIMIT
+ *
+ * Runs /workspace/in/FROM..COUNT through /workspace/main.js in one process
+ * and writes the same frames as harness.sh. Each test runs in a fresh
+ * worker thread (its own V8 isolate, so fresh globals and module cache)
+ * that loads main.js as the main module. In the worker, process.stdin,
+ * fs.readFileSync(0 | '/dev/stdin') and fs.readSync(0) read the test
+ * input; stdout and stderr go synchronously to files, so the output cap
+ * holds even for a program that never yields.
+ *
+ * The worker's old-generation heap is capped at --max-old-space-size.
+ * After a test that timed out, ran out of heap or could not be stopped,
+ * the runner exits with RESTART once the frame is written; the script
+ * starts a new process at the index written to .cjs/next.
+ */
+
+const fs = require('fs');
+const { Worker, isMainThread, workerData } = require('worker_threads');
+
+const RESTART = 75; // EX_TEMPFAIL
+
+const WORKSPACE = '/workspace';
+const MAIN = WORKSPACE + '/main.js';
+const NEXT = WORKSPACE + '/.cjs/next';
+const OUT_DIR = WORKSPACE + '/out';
+const MAX_STDERR = 4096;
+const POLL_MS = 5;
+// How long a terminated worker may take to stop before it is abandoned
+const TERMINATE_GRACE_MS = 1000;
+
+const FLAG_TIME_LIMIT = 1;
+const FLAG_MEMORY_LIMIT = 2;
+const FLAG_OUTPUT_LIMIT = 4;
+
+// Exit code of a program stopped for writing too much, as for SIGXFSZ
+const EXIT_OUTPUT_LIMIT = 153;
+const EXIT_KILLED = 137;
+
+if (isMainThread) {
+    main();
+} else {
+    runProgram();
+}
+
+async function main() {
+    const [from, count, timeLimitMs, wallLimitMs, outputLimit] =
+        process.argv.slice(2, 7).map(Number);
+    const limits = { timeLimitMs, wallLimitMs, outputLimit, heapMb: heapLimitMb() };
+
+    fs.mkdirSync(OUT_DIR, { recursive: true });
+
+    for (let i = from; i <= count; i++) {
+        const result = await runTest(i, limits);
+
+        writeFrame(i, result);
+        fs.writeFileSync(NEXT, String(i + 1));
+
+        if (!result.reusable) {
+            process.exit(RESTART);
+        }
+    }
+    process.exit(0);
+}
+
+// The worker gets the same heap cap as this process was started with
+function heapLimitMb() {
+    for (const arg of process.execArgv) {
+        const match = /^--max-old-space-size=(\d+)$/.exec(arg);
+        if (match) {
+            return Number(match[1]);
+        }
+    }
+    return undefined;
+}
+
+// ===============================
+// One test
+// ===============================
+
+function runTest(index, limits) {
+    const out = `${OUT_DIR}/${index}`;
+    const err = `${OUT_DIR}/${index}.err`;
+
+    const result = {
+        exitCode: 0,
+        flags: 0,
+        wallMs: 0,
+        cpuMs: 0,
+        memoryKb: 0,
+        stdout: Buffer.alloc(0),
+        stderr: Buffer.alloc(0),
+        reusable: true,
+    };
+
+    return new Promise(resolve => {
+        const start = process.hrtime.bigint();
+        const cpuStart = process.cpuUsage();
+        let peakRss = process.memoryUsage.rss();
+        let error = null;
+        let stopped = false;
+        let done = false;
+
+        const worker = new Worker(__filename, {
+            workerData: { input: `${WORKSPACE}/in/${index}`, out, err, outputLimit: limits.outputLimit },
+            stdout: true,
+            stderr: true,
+            resourceLimits: limits.heapMb ? { maxOldGenerationSizeMb: limits.heapMb } : undefined,
+        });
+        // The program's own output goes to files; drop anything else
+        worker.stdout.resume();
+        worker.stderr.resume();
+
+        const elapsedMs = () => Number((process.hrtime.bigint() - start) / 1_000_000n);
+
+        const finish = exitCode => {
+            if (done) {
+                return;
+            }
+            done = true;
+            clearInterval(poll);
+
+            result.wallMs = elapsedMs();
+            result.memoryKb = Math.round(peakRss / 1024);
+            if (!stopped) {
+                result.exitCode = exitCode;
+            }
+
+            if (error && error.code === 'ERR_WORKER_OUT_OF_MEMORY') {
+                result.flags |= FLAG_MEMORY_LIMIT;
+                result.reusable = false;
+            } else if (error) {
+                // What node would print for an uncaught exception
+                fs.appendFileSync(err, String((error && error.stack) || error) + '\n');
+            }
+
+            const outBytes = fileSize(out);
+            if (result.exitCode === EXIT_OUTPUT_LIMIT || outBytes > limits.outputLimit) {
+                result.flags |= FLAG_OUTPUT_LIMIT;
+            }
+            result.stdout = readHead(out, Math.min(outBytes, limits.outputLimit));
+            result.stderr = readHead(err, MAX_STDERR);
+
+            fs.rmSync(out, { force: true });
+            fs.rmSync(err, { force: true });
+            resolve(result);
+        };
+
+        const stop = flag => {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            result.flags |= flag;
+            result.exitCode = EXIT_KILLED;
+            result.reusable = false;
+            worker.terminate();
+            // A worker stuck in native code cannot be terminated
+            setTimeout(() => finish(EXIT_KILLED), TERMINATE_GRACE_MS).unref();
+        };
+
+        // CPU is process-wide, which is the worker's while it runs
+        const poll = setInterval(() => {
+            const cpu = process.cpuUsage(cpuStart);
+            result.cpuMs = Math.round((cpu.user + cpu.system) / 1000);
+            peakRss = Math.max(peakRss, process.memoryUsage.rss());
+
+            if (result.cpuMs > limits.timeLimitMs || elapsedMs() > limits.wallLimitMs) {
+                stop(FLAG_TIME_LIMIT);
+            }
+        }, POLL_MS);
+
+        worker.on('error', e => {
+            error = e;
+        });
+        worker.on('exit', finish);
+    });
+}
+
+function fileSize(path) {
+    try {
+        return fs.statSync(path).size;
+    } catch {
+        return 0;
+    }
+}
+
+function readHead(path, length) {
+    if (length <= 0) {
+        return Buffer.alloc(0);
+    }
+    const buffer = Buffer.alloc(length);
+    let fd;
+    try {
+        fd = fs.openSync(path, 'r');
+        return buffer.subarray(0, fs.readSync(fd, buffer, 0, length, 0));
+    } catch {
+        return Buffer.alloc(0);
+    } finally {
+        if (fd !== undefined) {
+            fs.closeSync(fd);
+        }
+    }
+}
+
+// ===============================
+// Frames (same layout as harness.sh)
+// ===============================
+
+function writeFrame(index, r) {
+    const header = `@@CJS ${index} ${r.exitCode} ${r.wallMs} ${r.stdout.length} ${r.stderr.length} `
+        + `${r.flags} ${r.memoryKb} ${r.cpuMs}\n`;
+    fs.writeSync(1, header);
+    fs.writeSync(1, r.stdout);
+    fs.writeSync(1, r.stderr);
+}
+
+// ===============================
+// Worker: the program under test
+// ===============================
+
+function runProgram() {
+    const { input, out, err, outputLimit } = workerData;
+
+    redirectInput(input);
+    capture(process.stdout, fs.openSync(out, 'w'), outputLimit, true);
+    capture(process.stderr, fs.openSync(err, 'w'), MAX_STDERR, false);
+
+    // Load main.js as the main module, as `node main.js` would, so
+    // require.main === module holds
+    require('module')._load(MAIN, null, true);
+}
+
+function redirectInput(input) {
+    const readFileSync = fs.readFileSync;
+    const readSync = fs.readSync;
+    let inputFd = -1;
+
+    const isStdin = path => path === 0 || path === '/dev/stdin';
+
+    fs.readFileSync = function (path, options) {
+        return isStdin(path)
+            ? readFileSync.call(fs, input, options)
+            : readFileSync.apply(fs, arguments);
+    };
+    fs.readSync = function (fd, ...rest) {
+        if (fd === 0) {
+            if (inputFd < 0) {
+                inputFd = fs.openSync(input, 'r');
+            }
+            fd = inputFd;
+        }
+        return readSync.call(fs, fd, ...rest);
+    };
+
+    // Created on first use; the worker bootstrap has already ended the
+    // original (empty) stdin by the time this runs
+    let stdin;
+    Object.defineProperty(process, 'stdin', {
+        configurable: true,
+        enumerable: true,
+        get() {
+            return stdin || (stdin = fs.createReadStream(input));
+        },
+    });
+}
+
+/*
+ * Sends a stdio stream's writes straight to fd. Past the limit the rest
+ * is dropped, or, with stopOnOverflow, one byte more is kept (so the
+ * overflow shows in the file size) and the program is stopped.
+ */
+function capture(stream, fd, limit, stopOnOverflow) {
+    let written = 0;
+
+    const write = (chunk, encoding) => {
+        if (typeof chunk === 'string') {
+            chunk = Buffer.from(chunk, encoding);
+        }
+        const room = Math.max((stopOnOverflow ? limit + 1 : limit) - written, 0);
+        const length = Math.min(room, chunk.length);
+        if (length > 0) {
+            fs.writeSync(fd, chunk, 0, length);
+            written += length;
+        }
+        if (chunk.length > room && stopOnOverflow) {
+            process.exit(EXIT_OUTPUT_LIMIT);
+        }
+    };
+
+    stream._write = (chunk, encoding, callback) => {
+        write(chunk, encoding);
+        callback();
+    };
+    stream._writev = (chunks, callback) => {
+        for (const { chunk, encoding } of chunks) {
+            write(chunk, encoding);
+        }
+        callback();
+    };
+}
@@ -0,0 +1,69 @@
+#!/bin/sh
+# Persistent-runner variant of harness.sh, run inside the sandbox as:
+#   sh /workspace/.cjs/persistent-harness.sh COUNT TIME_LIMIT_MS WALL_LIMIT_MS OUTPUT_LIMIT RUNNER [ARGS...]
+#
+# Starts RUNNER [ARGS...] FROM COUNT TIME_LIMIT_MS WALL_LIMIT_MS OUTPUT_LIMIT,
+# a process that runs many tests itself (JudgeRunner, judge-runner.js)
+# and writes harness.sh frames. The runner records the next test index in
+# .cjs/next as it finishes each test. When it exits with 75 it wants a
+# fresh process, which picks up from there. A runner that died any other
+# way gets a frame for the test it was running from this script.
+#
+# The workspace is /workspace unless CJS_WORKSPACE says otherwise.
+
+count=$1
+time_limit_ms=$2
+wall_limit_ms=$3
+output_limit=$4
+shift 4
+
+work=${CJS_WORKSPACE:-/workspace}
+next_file="$work/.cjs/next"
+
+oom_kills() {
+    for f in /sys/fs/cgroup/memory.events /sys/fs/cgroup/memory/memory.oom_control; do
+        if [ -r "$f" ]; then
+            sed -n 's/^oom_kill //p' "$f"
+            return
+        fi
+    done
+    echo 0
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+next=1
+while [ "$next" -le "$count" ]; do
+    echo "$next" > "$next_file"
+
+    # Whole-runner backstop in case the runner itself hangs: every
+    # remaining wall limit plus a few seconds for startup
+    remaining=$((count - next + 1))
+    backstop_s=$(( (remaining * (wall_limit_ms + 1000) + 999) / 1000 + 5 ))
+
+    oom_before=$(oom_kills)
+    start=$(now_ms)
+    timeout -s KILL "$backstop_s" "$@" \
+        "$next" "$count" "$time_limit_ms" "$wall_limit_ms" "$output_limit" < /dev/null
+    code=$?
+    end=$(now_ms)
+
+    # 0 = all done, 75 = runner asked for a fresh process
+    resumed=$(cat "$next_file")
+    if [ "$code" -eq 0 ] || [ "$code" -eq 75 ]; then
+        next=$resumed
+        continue
+    fi
+
+    # The runner died inside test $resumed: report it and move on
+    flags=0
+    if [ "$(oom_kills)" -gt "${oom_before:-0}" ]; then
+        flags=2
+    elif [ "$code" -eq 137 ]; then
+        flags=1
+    fi
+    printf '@@CJS %d %d %d 0 0 %d 0 0\n' "$resumed" "$code" "$((end - start))" "$flags"
+    next=$((resumed + 1))
+done
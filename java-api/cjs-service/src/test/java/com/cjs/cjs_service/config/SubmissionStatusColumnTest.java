@@ -0,0 +1,45 @@
+package com.cjs.cjs_service.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubmissionStatusColumnTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+
+    @Test
+    void altersAnEnumColumn() {
+        when(jdbc.queryForObject(anyString(), eq(Integer.class))).thenReturn(1);
+
+        new SubmissionStatusColumn(jdbc).widen();
+
+        verify(jdbc).execute("ALTER TABLE submissions MODIFY COLUMN status VARCHAR(32)");
+    }
+
+    @Test
+    void leavesAVarcharColumnAlone() {
+        when(jdbc.queryForObject(anyString(), eq(Integer.class))).thenReturn(0);
+
+        new SubmissionStatusColumn(jdbc).widen();
+
+        verify(jdbc, never()).execute(anyString());
+    }
+
+    @Test
+    void startsEvenWhenTheCheckFails() {
+        when(jdbc.queryForObject(anyString(), eq(Integer.class)))
+                .thenThrow(new DataAccessResourceFailureException("no connection"));
+
+        new SubmissionStatusColumn(jdbc).widen();
+
+        verify(jdbc, never()).execute(anyString());
+    }
+}
@@ -0,0 +1,105 @@
+package com.cjs.cjs_service.controller;
+
+import com.cjs.cjs_service.model.Submission;
+import com.cjs.cjs_service.service.SubmissionService;
+import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutionService;
+import com.cjs.cjs_service.service.codeExecutionSerivce.worker.ExecutionRejectedException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Admission control as clients see it: a job the queue turns away is a
+ * 429 with Retry-After, on every endpoint that queues one.
+ */
+class CodeExecutionControllerTest {
+
+    private static final String BODY = """
+            {"problemId": 1, "language": "cpp", "sourceCode": "int main() {}"}
+            """;
+
+    private final CodeExecutionService service = mock(CodeExecutionService.class);
+    private final SubmissionService submissionService = mock(SubmissionService.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.standaloneSetup(new CodeExecutionController(service, submissionService)).build();
+    }
+
+    @Test
+    void rejectedRunIs429WithRetryAfter() throws Exception {
+        when(service.run(any(), anyInt())).thenThrow(new ExecutionRejectedException(Duration.ofSeconds(12)));
+
+        mvc.perform(post("/api/code/run").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "12"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Too many jobs waiting, try again in 12s"));
+    }
+
+    @Test
+    void rejectedSubmissionIs429() throws Exception {
+        Submission submission = new Submission();
+        submission.setId(5);
+        when(submissionService.createSubmission(eq(9), eq(1), anyString(), eq("cpp"))).thenReturn(submission);
+        when(service.submit(any(), eq(5), eq(9))).thenThrow(new ExecutionRejectedException(Duration.ofSeconds(3)));
+
+        mvc.perform(post("/api/code/submit").header("X-User-Id", "9")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "3"));
+    }
+
+    @Test
+    void rejectedRejudgeIs429() throws Exception {
+        when(service.rejudge(5)).thenThrow(new ExecutionRejectedException(Duration.ofMinutes(2)));
+
+        mvc.perform(post("/api/code/rejudge/5"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "120"));
+    }
+
+    // Retry-After has whole seconds; rounding down would send clients
+    // back before the queue has drained
+    @Test
+    void retryAfterIsRoundedUp() throws Exception {
+        when(service.run(any(), anyInt())).thenThrow(new ExecutionRejectedException(Duration.ofMillis(2500)));
+
+        mvc.perform(post("/api/code/run").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(header().string("Retry-After", "3"));
+    }
+
+    @Test
+    void retryAfterIsAtLeastOneSecond() throws Exception {
+        when(service.run(any(), anyInt())).thenThrow(new ExecutionRejectedException(Duration.ZERO));
+
+        mvc.perform(post("/api/code/run").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void otherFailuresAreNot429() throws Exception {
+        when(service.run(any(), anyInt())).thenThrow(new RuntimeException("Problem not found"));
+
+        mvc.perform(post("/api/code/run").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist("Retry-After"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce;
+
+import com.cjs.cjs_service.dto.request.CodeRunRequestDto;
+import com.cjs.cjs_service.model.Problem;
+import com.cjs.cjs_service.model.Submission;
+import com.cjs.cjs_service.model.SubmissionStatus;
+import com.cjs.cjs_service.service.SubmissionService;
+import com.cjs.cjs_service.service.codeExecutionSerivce.store.ExecutionJobStore;
+import com.cjs.cjs_service.service.codeExecutionSerivce.store.JobStatusStreams;
+import com.cjs.cjs_service.service.codeExecutionSerivce.worker.CodeExecutionWorker;
+import com.cjs.cjs_service.service.codeExecutionSerivce.worker.ExecutionRejectedException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** What a job turned away by admission control leaves behind. */
+class CodeExecutionServiceTest {
+
+    private final CodeExecutionWorker worker = mock(CodeExecutionWorker.class);
+    private final ExecutionRequestFactory requestFactory = mock(ExecutionRequestFactory.class);
+    private final SubmissionService submissionService = mock(SubmissionService.class);
+    private CodeExecutionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CodeExecutionService(mock(ExecutionJobStore.class), mock(JobStatusStreams.class),
+                worker, requestFactory, submissionService);
+        when(requestFactory.build(anyInt(), anyString(), anyString(), any(), anyInt()))
+                .thenReturn(new CodeExecutionRequest("cpp", "", List.of()));
+        when(worker.enqueue(any(), any())).thenThrow(new ExecutionRejectedException(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void rejectedSubmissionIsDeleted() {
+        CodeRunRequestDto dto = new CodeRunRequestDto();
+        dto.setProblemId(1);
+        dto.setLanguage("cpp");
+        dto.setSourceCode("");
+
+        assertThatThrownBy(() -> service.submit(dto, 5, 9)).isInstanceOf(ExecutionRejectedException.class);
+
+        verify(submissionService).deleteSubmission(5);
+    }
+
+    @Test
+    void rejectedRejudgeKeepsTheOldVerdict() {
+        Problem problem = new Problem();
+        problem.setId(1);
+        Submission submission = new Submission();
+        submission.setId(5);
+        submission.setProblem(problem);
+        submission.setLanguage("cpp");
+        submission.setCode("");
+        submission.setStatus(SubmissionStatus.WRONG_ANSWER);
+        when(submissionService.getSubmission(5)).thenReturn(submission);
+
+        assertThatThrownBy(() -> service.rejudge(5)).isInstanceOf(ExecutionRejectedException.class);
+
+        var order = inOrder(submissionService);
+        order.verify(submissionService).updateStatus(5, SubmissionStatus.PENDING);
+        order.verify(submissionService).updateStatus(5, SubmissionStatus.WRONG_ANSWER);
+    }
+}
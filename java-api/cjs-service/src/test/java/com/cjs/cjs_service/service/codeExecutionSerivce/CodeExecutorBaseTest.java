@@ -0,0 +1,252 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce;
+
+import com.cjs.cjs_service.dto.CodeExecutionResult;
+import com.cjs.cjs_service.dto.TestCaseDto;
+import com.cjs.cjs_service.dto.TestCaseResultDto;
+import com.cjs.cjs_service.model.SubmissionStatus;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.BatchHarness;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.HarnessResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Verdicts from {@link CodeExecutorBase#judge}, fed harness frames
+ * directly instead of running a sandbox.
+ */
+class CodeExecutorBaseTest {
+
+    @Test
+    void acceptsWhenEveryTestMatches() {
+        CodeExecutionRequest request = request("1", "2");
+
+        CodeExecutionResult result = judge(request, run(ok(1, "1"), ok(2, "2")));
+
+        assertThat(result.getSubmissionStatus()).isEqualTo(SubmissionStatus.ACCEPTED);
+        assertThat(result.getOutput()).isEqualTo("2 / 2 test cases passed");
+    }
+
+    // A persistent runner killed right after a test's frame gets a second,
+    // output-less frame for the same test from its script. Counted by
+    // position, that frame would shift every later test by one
+    @Test
+    void duplicateFrameDoesNotShiftLaterTests() {
+        CodeExecutionRequest request = request("1", "2", "3");
+
+        CodeExecutionResult result = judge(request, run(
+                ok(1, "1"), ok(2, "2"), frame(2, 137, "", 0), ok(3, "3")));
+
+        assertThat(result.getTestCaseResults())
+                .extracting(TestCaseResultDto::getIndex, TestCaseResultDto::getStatus)
+                .containsExactly(
+                        tuple(1, SubmissionStatus.ACCEPTED),
+                        tuple(2, SubmissionStatus.ACCEPTED),
+                        tuple(3, SubmissionStatus.ACCEPTED));
+        assertThat(result.getSubmissionStatus()).isEqualTo(SubmissionStatus.ACCEPTED);
+    }
+
+    @Test
+    void framesAreMatchedByIndexNotArrivalOrder() {
+        CodeExecutionRequest request = request("a", "b");
+
+        CodeExecutionResult result = judge(request, run(ok(2, "b"), ok(1, "a")));
+
+        assertThat(result.getTestCaseResults()).allMatch(TestCaseResultDto::isPassed);
+    }
+
+    @Test
+    void testsJudgedDuringTheRunAreNotJudgedAgain() {
+        CodeExecutionRequest request = request("1", "2");
+        TestCaseResultDto early = new TestCaseResultDto();
+        early.setIndex(1);
+        early.setStatus(SubmissionStatus.WRONG_ANSWER);
+
+        CodeExecutionResult result = CodeExecutorBase.judge(
+                request, run(ok(1, "1"), ok(2, "2")), Map.of(1, early));
+
+        assertThat(result.getTestCaseResults().get(0)).isSameAs(early);
+        assertThat(result.getSubmissionStatus()).isEqualTo(SubmissionStatus.WRONG_ANSWER);
+    }
+
+    @Test
+    void missingFrameIsACrashWithTheHarnessError() {
+        CodeExecutionRequest request = request("1", "2");
+        BatchHarness.BatchRun run = new BatchHarness.BatchRun(List.of(ok(1, "1")), 1, "harness died", false);
+
+        CodeExecutionResult result = judge(request, run);
+
+        assertThat(result.getTestCaseResults().get(1).getStatus()).isEqualTo(SubmissionStatus.RUNTIME_ERROR);
+        assertThat(result.getError()).isEqualTo("harness died");
+    }
+
+    @Test
+    void harnessErrorIsDroppedWhenEveryTestWasReported() {
+        CodeExecutionRequest request = request("1");
+        BatchHarness.BatchRun run = new BatchHarness.BatchRun(List.of(ok(1, "1")), 0, "noise", false);
+
+        assertThat(judge(request, run).getError()).isEmpty();
+    }
+
+    @Test
+    void timeLimitFlagIsTleEvenWithTheRightOutput() {
+        CodeExecutionRequest request = request("1", "2");
+
+        CodeExecutionResult result = judge(request, run(
+                ok(1, "1"), frame(2, 0, "2\n", HarnessResult.FLAG_TIME_LIMIT)));
+
+        assertThat(result.getSubmissionStatus()).isEqualTo(SubmissionStatus.TIME_LIMIT_EXCEEDED);
+        assertThat(result.isTimedOut()).isTrue();
+        assertThat(result.getTestCaseResults().get(0).isPassed()).isTrue();
+    }
+
+    @Test
+    void testsCutOffByTheJobDeadlineAreTle() {
+        CodeExecutionRequest request = request("1", "2", "3");
+        BatchHarness.BatchRun run = new BatchHarness.BatchRun(List.of(ok(1, "1")), -1, "", true);
+
+        CodeExecutionResult result = judge(request, run);
+
+        assertThat(result.getTestCaseResults())
+                .extracting(TestCaseResultDto::getStatus)
+                .containsExactly(
+                        SubmissionStatus.ACCEPTED,
+                        SubmissionStatus.TIME_LIMIT_EXCEEDED,
+                        SubmissionStatus.TIME_LIMIT_EXCEEDED);
+        assertThat(result.isTimedOut()).isTrue();
+    }
+
+    @Test
+    void earlierWrongAnswerDecidesTheVerdictOverALaterTle() {
+        CodeExecutionRequest request = request("1", "2");
+
+        CodeExecutionResult result = judge(request, run(
+                ok(1, "wrong"), frame(2, 137, "", HarnessResult.FLAG_TIME_LIMIT)));
+
+        assertThat(result.getSubmissionStatus()).isEqualTo(SubmissionStatus.WRONG_ANSWER);
+        assertThat(result.isTimedOut()).isTrue();
+    }
+
+    @Test
+    void reportsTheSlowestTestsCpuTime() {
+        CodeExecutionRequest request = request("1", "2");
+        HarnessResult slow = new HarnessResult(2, 0, 900, "2\n".getBytes(StandardCharsets.UTF_8),
+                new byte[0], 0, 1024, 750);
+
+        assertThat(judge(request, run(ok(1, "1"), slow)).getTimeMs()).isEqualTo(750);
+    }
+
+    @Test
+    void cgroupOomKillIsMemoryLimitExceeded() {
+        CodeExecutionRequest request = request("1");
+
+        // The OOM killer's SIGKILL also looks like a time limit to the
+        // harness; memory wins
+        CodeExecutionResult result = judge(request, run(
+                frame(1, 137, "", HarnessResult.FLAG_MEMORY_LIMIT | HarnessResult.FLAG_TIME_LIMIT)));
+
+        assertThat(result.getSubmissionStatus()).isEqualTo(SubmissionStatus.MEMORY_LIMIT_EXCEEDED);
+        assertThat(result.isTimedOut()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Exception in thread \"main\" java.lang.OutOfMemoryError: Java heap space",
+            "FATAL ERROR: Reached heap limit Allocation failed - JavaScript heap out of memory",
+            "terminate called after throwing an instance of 'std::bad_alloc'"
+    })
+    void runtimeOutOfMemoryMessageIsMemoryLimitExceeded(String stderr) {
+        CodeExecutionRequest request = request("1");
+        HarnessResult hr = new HarnessResult(1, 1, 10, new byte[0],
+                stderr.getBytes(StandardCharsets.UTF_8), 0, 250_000, 5);
+
+        assertThat(judge(request, run(hr)).getSubmissionStatus())
+                .isEqualTo(SubmissionStatus.MEMORY_LIMIT_EXCEEDED);
+    }
+
+    @Test
+    void outOfMemoryTextFromAProgramThatExitedCleanlyIsNotMle() {
+        CodeExecutionRequest request = request("java.lang.OutOfMemoryError");
+        HarnessResult hr = new HarnessResult(1, 0, 10,
+                "java.lang.OutOfMemoryError\n".getBytes(StandardCharsets.UTF_8),
+                "java.lang.OutOfMemoryError".getBytes(StandardCharsets.UTF_8), 0, 1024, 5);
+
+        assertThat(judge(request, run(hr)).getSubmissionStatus()).isEqualTo(SubmissionStatus.ACCEPTED);
+    }
+
+    @Test
+    void reportsTheLargestPeakMemory() {
+        CodeExecutionRequest request = request("1", "2");
+        HarnessResult big = new HarnessResult(2, 0, 10, "2\n".getBytes(StandardCharsets.UTF_8),
+                new byte[0], 0, 96_000, 5);
+
+        CodeExecutionResult result = judge(request, run(ok(1, "1"), big));
+
+        assertThat(result.getMemoryKb()).isEqualTo(96_000);
+        assertThat(result.getTestCaseResults().get(1).getMemoryKb()).isEqualTo(96_000);
+    }
+
+    @Test
+    void outputLimitIsOleEvenWhenTheTruncatedOutputMatches() {
+        CodeExecutionRequest request = request("y");
+
+        CodeExecutionResult result = judge(request, run(
+                frame(1, 153, "y\n", HarnessResult.FLAG_OUTPUT_LIMIT)));
+
+        assertThat(result.getSubmissionStatus()).isEqualTo(SubmissionStatus.OUTPUT_LIMIT_EXCEEDED);
+        assertThat(result.getTestCaseResults().get(0).getOutput()).isEqualTo("y\n");
+    }
+
+    @Test
+    void outputLimitBeatsTheTimeLimitButNotMemory() {
+        CodeExecutionRequest request = request("1", "2");
+        int ole = HarnessResult.FLAG_OUTPUT_LIMIT;
+
+        CodeExecutionResult result = judge(request, run(
+                frame(1, 137, "", ole | HarnessResult.FLAG_TIME_LIMIT),
+                frame(2, 137, "", ole | HarnessResult.FLAG_MEMORY_LIMIT)));
+
+        assertThat(result.getTestCaseResults())
+                .extracting(TestCaseResultDto::getStatus)
+                .containsExactly(SubmissionStatus.OUTPUT_LIMIT_EXCEEDED, SubmissionStatus.MEMORY_LIMIT_EXCEEDED);
+    }
+
+    // ===============================
+    // Helpers
+    // ===============================
+
+    static CodeExecutionRequest request(String... expected) {
+        List<TestCaseDto> tests = new ArrayList<>();
+        for (String output : expected) {
+            TestCaseDto test = new TestCaseDto();
+            test.setInput("");
+            test.setOutput(output);
+            tests.add(test);
+        }
+        return new CodeExecutionRequest("java", "", tests);
+    }
+
+    static BatchHarness.BatchRun run(HarnessResult... frames) {
+        return new BatchHarness.BatchRun(List.of(frames), 0, "", false);
+    }
+
+    static HarnessResult ok(int index, String stdout) {
+        return frame(index, 0, stdout + "\n", 0);
+    }
+
+    static HarnessResult frame(int index, int exitCode, String stdout, int flags) {
+        return new HarnessResult(index, exitCode, 10,
+                stdout.getBytes(StandardCharsets.UTF_8), new byte[0], flags, 1024, 5);
+    }
+
+    static CodeExecutionResult judge(CodeExecutionRequest request, BatchHarness.BatchRun run) {
+        return CodeExecutorBase.judge(request, run, Map.of());
+    }
+}
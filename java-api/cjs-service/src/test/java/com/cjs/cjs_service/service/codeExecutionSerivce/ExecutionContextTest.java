@@ -0,0 +1,122 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce;
+
+import com.cjs.cjs_service.dto.ExecutionProgress;
+import com.cjs.cjs_service.dto.TestCaseResultDto;
+import com.cjs.cjs_service.model.SubmissionStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/** Deduplication of judged tests and the progress reported for them. */
+class ExecutionContextTest {
+
+    private final List<ExecutionProgress> reports = new ArrayList<>();
+    private ExecutionContext context;
+
+    @BeforeEach
+    void setUp() {
+        context = new ExecutionContext(CodeExecutorBaseTest.request("1", "2", "3"));
+        context.setProgressListener(reports::add);
+    }
+
+    @Test
+    void secondResultForATestIsIgnored() {
+        assertThat(context.testJudged(test(1, SubmissionStatus.ACCEPTED))).isTrue();
+        assertThat(context.testJudged(test(1, SubmissionStatus.RUNTIME_ERROR))).isFalse();
+
+        assertThat(reports).hasSize(1);
+        assertThat(context.getJudgedTests()).containsOnlyKeys(1);
+        assertThat(context.getJudgedTests().get(1).getStatus()).isEqualTo(SubmissionStatus.ACCEPTED);
+    }
+
+    @Test
+    void progressBeforeAnyTestShowsTheFirstRunning() {
+        context.reportProgress();
+
+        ExecutionProgress progress = reports.get(0);
+        assertThat(progress.getTotal()).isEqualTo(3);
+        assertThat(progress.getCompleted()).isZero();
+        assertThat(progress.getRunning()).isEqualTo(1);
+        assertThat(progress.getPassedMask()).isEmpty();
+        assertThat(progress.getFirstFailedIndex()).isNull();
+    }
+
+    // One report per test, each a new object that the next does not touch
+    @Test
+    void everyJudgedTestIsReported() {
+        context.testJudged(test(1, SubmissionStatus.ACCEPTED));
+        context.testJudged(test(2, SubmissionStatus.WRONG_ANSWER));
+        context.testJudged(test(3, SubmissionStatus.TIME_LIMIT_EXCEEDED));
+
+        assertThat(reports)
+                .extracting(ExecutionProgress::getCompleted, ExecutionProgress::getRunning,
+                        ExecutionProgress::getPassedMask, ExecutionProgress::getFirstFailedIndex)
+                .containsExactly(
+                        tuple(1, 2, "1", null),
+                        tuple(2, 3, "10", 2),
+                        tuple(3, null, "100", 2));
+
+        ExecutionProgress last = reports.get(2);
+        assertThat(last.getPassed()).isEqualTo(1);
+        assertThat(last.getFailed()).isEqualTo(2);
+        assertThat(last.getFirstFailure()).isEqualTo(SubmissionStatus.WRONG_ANSWER);
+    }
+
+    @Test
+    void slowestTimeAndLargestMemoryAreKept() {
+        TestCaseResultDto slow = test(1, SubmissionStatus.ACCEPTED);
+        slow.setCpuTimeMs(800);
+        slow.setMemoryKb(2_048);
+        TestCaseResultDto big = test(2, SubmissionStatus.ACCEPTED);
+        big.setCpuTimeMs(30);
+        big.setMemoryKb(65_536);
+
+        context.testJudged(slow);
+        context.testJudged(big);
+
+        assertThat(reports.get(1).getTimeMs()).isEqualTo(800);
+        assertThat(reports.get(1).getMemoryKb()).isEqualTo(65_536);
+    }
+
+    // Frames can arrive out of order; the mask still follows the tests
+    @Test
+    void maskIsInTestOrder() {
+        context.testJudged(test(3, SubmissionStatus.ACCEPTED));
+        context.testJudged(test(1, SubmissionStatus.RUNTIME_ERROR));
+
+        assertThat(reports.get(1).getPassedMask()).isEqualTo("01");
+        assertThat(reports.get(1).getFirstFailedIndex()).isEqualTo(1);
+    }
+
+    @Test
+    void runningIsLeftOutOfTheJsonOnceAllTestsAreDone() throws Exception {
+        context.testJudged(test(1, SubmissionStatus.ACCEPTED));
+        context.testJudged(test(2, SubmissionStatus.ACCEPTED));
+        context.testJudged(test(3, SubmissionStatus.ACCEPTED));
+
+        String json = new ObjectMapper().writeValueAsString(reports.get(2));
+
+        assertThat(json).doesNotContain("running", "firstFailure").contains("\"passedMask\":\"111\"");
+    }
+
+    @Test
+    void noListenerIsFine() {
+        context.setProgressListener(null);
+
+        assertThat(context.testJudged(test(1, SubmissionStatus.ACCEPTED))).isTrue();
+    }
+
+    static TestCaseResultDto test(int index, SubmissionStatus status) {
+        TestCaseResultDto test = new TestCaseResultDto();
+        test.setIndex(index);
+        test.setStatus(status);
+        test.setPassed(status == SubmissionStatus.ACCEPTED);
+        return test;
+    }
+}
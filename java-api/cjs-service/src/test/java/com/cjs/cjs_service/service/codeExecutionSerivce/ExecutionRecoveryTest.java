@@ -0,0 +1,124 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce;
+
+import com.cjs.cjs_service.repository.SubmissionRepository;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.SandboxPool;
+import com.cjs.cjs_service.service.codeExecutionSerivce.store.DurableJobQueue;
+import com.cjs.cjs_service.service.codeExecutionSerivce.worker.ExecutionRejectedException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Recovery passes against mocked repositories; transactions are no-ops.
+ * Batches of three, so a full batch is followed by another one.
+ */
+class ExecutionRecoveryTest {
+
+    private final SandboxPool sandboxPool = mock(SandboxPool.class);
+    private final SubmissionRepository submissions = mock(SubmissionRepository.class);
+    private final CodeExecutionService executionService = mock(CodeExecutionService.class);
+    private ExecutionRecovery recovery;
+
+    @BeforeEach
+    void setUp() {
+        recovery = new ExecutionRecovery(sandboxPool, mock(DurableJobQueue.class), submissions,
+                executionService, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(recovery, "enabled", true);
+        ReflectionTestUtils.setField(recovery, "interval", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(recovery, "staleAfter", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(recovery, "batchSize", 3);
+        ReflectionTestUtils.setField(recovery, "batchInterval", Duration.ZERO);
+        ReflectionTestUtils.setField(recovery, "maxJobs", 3);
+        ReflectionTestUtils.setField(recovery, "lease", Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        recovery.stopRecovery();
+    }
+
+    @Test
+    void passGoesThroughTheWholeBacklog() throws Exception {
+        when(submissions.lockOrphaned(any(), eq(3), eq(3)))
+                .thenReturn(List.of(1, 2, 3), List.of(4, 5), List.of());
+
+        recovery.recover();
+
+        IntStream.rangeClosed(1, 5).forEach(id -> verify(executionService).recover(id));
+        verify(submissions, times(2)).lockOrphaned(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void exhaustedSubmissionsAreGivenUpEveryPass() throws Exception {
+        when(submissions.lockOrphaned(any(), anyInt(), anyInt())).thenReturn(List.of());
+
+        recovery.recover();
+        recovery.recover();
+
+        verify(submissions, times(2)).failExhausted(any(), eq(3));
+    }
+
+    // Admission said wait: the batch stops at the rejected submission and
+    // the pass carries on after the Retry-After
+    @Test
+    void rejectedBatchWaitsAndGoesOn() throws Exception {
+        when(submissions.lockOrphaned(any(), anyInt(), anyInt()))
+                .thenReturn(List.of(1, 2, 3), List.of(2, 3));
+        when(executionService.recover(2))
+                .thenThrow(new ExecutionRejectedException(Duration.ofMillis(50)))
+                .thenReturn(null);
+
+        long start = System.nanoTime();
+        recovery.recover();
+
+        verify(executionService, times(1)).recover(1);
+        verify(executionService, times(2)).recover(2);
+        verify(executionService, times(1)).recover(3);
+        assertThat(System.nanoTime() - start)
+                .isGreaterThanOrEqualTo(Duration.ofMillis(50).toNanos());
+    }
+
+    // Before, recovery ran once at startup: submissions orphaned later,
+    // or left over by a failed pass, waited for the next restart
+    @Test
+    void keepsRunningAfterStartupAndAfterAFailedPass() {
+        when(submissions.lockOrphaned(any(), anyInt(), anyInt()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(List.of(8))
+                .thenReturn(List.of());
+
+        recovery.startRecovery();
+
+        verify(executionService, timeout(5000)).recover(8);
+        verify(sandboxPool, timeout(5000).atLeast(3)).reapOrphans(any(), any());
+    }
+
+    @Test
+    void disabledRecoveryDoesNothing() throws Exception {
+        ReflectionTestUtils.setField(recovery, "enabled", false);
+
+        recovery.startRecovery();
+        Thread.sleep(100);
+
+        verify(submissions, never()).lockOrphaned(any(), anyInt(), anyInt());
+        verify(sandboxPool, never()).reapOrphans(any(), any());
+    }
+}
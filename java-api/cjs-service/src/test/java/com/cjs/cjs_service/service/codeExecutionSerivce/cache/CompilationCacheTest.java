@@ -0,0 +1,118 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.cache;
+
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.ExecResult;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.Sandbox;
+import com.cjs.cjs_service.service.codeExecutionSerivce.sandbox.SandboxSpec;
+
+import com.github.dockerjava.api.DockerClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * LRU byte bound of the compilation cache, with a 1 MB cache and 512 KB
+ * entry limit. The sandbox is a mock whose download returns an artifact
+ * of the size a test asks for.
+ */
+class CompilationCacheTest {
+
+    private static final int KB = 1024;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Sandbox sandbox = mock(Sandbox.class);
+    private CompilationCache cache;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        cache = new CompilationCache(mock(DockerClient.class), registry);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxSizeMb", 1L);
+        ReflectionTestUtils.setField(cache, "maxEntryMb", 1L);
+
+        when(sandbox.getSpec()).thenReturn(new SandboxSpec("cpp", "gcc:13", "64m", 4));
+        when(sandbox.exec(any(Duration.class), any(String[].class))).thenReturn(new ExecResult(0, "", ""));
+        when(sandbox.upload(any(byte[].class))).thenReturn(new ExecResult(0, "", ""));
+    }
+
+    @Test
+    void servesRepeatedSourceFromCache() throws InterruptedException {
+        compile("a", 100 * KB);
+        compile("a", 100 * KB);
+
+        verify(sandbox, times(1)).exec(any(Duration.class), any(String[].class));
+        verify(sandbox, times(1)).upload(any(byte[].class));
+        assertThat(gauge("compile.cache.entries")).isEqualTo(1);
+        assertThat(gauge("compile.cache.bytes")).isEqualTo(100 * KB);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedOnceOverTotalBytes() throws InterruptedException {
+        compile("a", 400 * KB);
+        compile("b", 400 * KB);
+        // Touch a, so b is now the eldest
+        compile("a", 400 * KB);
+
+        compile("c", 400 * KB);
+
+        assertThat(gauge("compile.cache.entries")).isEqualTo(2);
+        assertThat(gauge("compile.cache.bytes")).isEqualTo(800 * KB);
+
+        // a and c are hits, b compiles again
+        compile("a", 400 * KB);
+        compile("c", 400 * KB);
+        verify(sandbox, times(3)).upload(any(byte[].class));
+        compile("b", 400 * KB);
+        verify(sandbox, times(4)).exec(any(Duration.class), any(String[].class));
+    }
+
+    @Test
+    void neverExceedsTotalBytes() throws InterruptedException {
+        for (int i = 0; i < 20; i++) {
+            compile("s" + i, 300 * KB);
+            assertThat(gauge("compile.cache.bytes")).isLessThanOrEqualTo(1024 * KB);
+        }
+        assertThat(gauge("compile.cache.entries")).isEqualTo(3);
+    }
+
+    @Test
+    void skipsEntriesOverTheEntryLimit() throws InterruptedException {
+        ReflectionTestUtils.setField(cache, "maxEntryMb", 0L);
+        compile("a", 1);
+
+        assertThat(gauge("compile.cache.entries")).isZero();
+        assertThat(gauge("compile.cache.bytes")).isZero();
+    }
+
+    @Test
+    void doesNotStoreFailedCompiles() throws InterruptedException {
+        when(sandbox.exec(any(Duration.class), any(String[].class))).thenReturn(new ExecResult(1, "", "error"));
+
+        compile("a", 100 * KB);
+
+        verify(sandbox, never()).download(any(String[].class));
+        assertThat(gauge("compile.cache.entries")).isZero();
+    }
+
+    private void compile(String source, int artifactBytes) throws InterruptedException {
+        when(sandbox.download(any(String[].class))).thenReturn(new byte[artifactBytes]);
+        cache.compile(sandbox, source, TIMEOUT, "main", "g++", "main.cpp");
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+}
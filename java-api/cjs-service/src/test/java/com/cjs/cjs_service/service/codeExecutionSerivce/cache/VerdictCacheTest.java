@@ -0,0 +1,134 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.cache;
+
+import com.cjs.cjs_service.dto.CodeExecutionResult;
+import com.cjs.cjs_service.dto.TestCaseDto;
+import com.cjs.cjs_service.model.SubmissionStatus;
+import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutionRequest;
+import com.cjs.cjs_service.service.codeExecutionSerivce.JobClass;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keys of the verdict cache, in particular when the per-problem test
+ * data digest is reused and when it is computed again.
+ */
+class VerdictCacheTest {
+
+    private static final int PROBLEM = 7;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private VerdictCache cache;
+
+    // The problem's current tests, shared by every request built below
+    private List<TestCaseDto> tests;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerdictCache(registry);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        tests = new ArrayList<>(List.of(test("1 2", "3"), test("2 2", "4")));
+    }
+
+    @Test
+    void identicalSubmissionIsServedFromTheCache() {
+        store(submit("v1"));
+
+        assertThat(cache.get(submit("v1"))).isNotNull();
+        assertThat(registry.counter("verdict.cache.requests", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void newVersionHashesTheEditedTests() {
+        store(submit("v1"));
+        tests.set(1, test("2 2", "5"));
+
+        assertThat(cache.get(submit("v2"))).isNull();
+    }
+
+    // Same version and test count: the digest is taken as is, which is
+    // what keeps a lookup from reading every test again
+    @Test
+    void sameVersionReusesTheDigest() {
+        store(submit("v1"));
+        tests.set(1, test("2 2", "5"));
+
+        assertThat(cache.get(submit("v1"))).isNotNull();
+    }
+
+    @Test
+    void changedTestCountIsNotTakenForTheSameTests() {
+        store(submit("v1"));
+        tests.add(test("0 0", "0"));
+
+        assertThat(cache.get(submit("v1"))).isNull();
+    }
+
+    @Test
+    void withoutAVersionTheTestsAreHashedEveryTime() {
+        store(submit(null));
+        tests.set(0, test("1 2", "4"));
+
+        assertThat(cache.get(submit(null))).isNull();
+    }
+
+    @Test
+    void invalidatingTheProblemDropsItsDigests() {
+        store(submit("v1"));
+        tests.set(0, test("1 2", "4"));
+        cache.invalidateProblem(PROBLEM);
+
+        // Hashed in full, so keyed by the edited tests; an old digest
+        // for v1 would miss it
+        store(submit(null));
+
+        assertThat(cache.get(submit("v1"))).isNotNull();
+    }
+
+    @Test
+    void runsAndSubmissionsKeepSeparateDigests() {
+        CodeExecutionRequest run = submit("v1");
+        run.setJobClass(JobClass.RUN);
+        run.setTestCases(List.of(tests.get(0)));
+        store(run);
+
+        assertThat(cache.get(submit("v1"))).isNull();
+
+        CodeExecutionRequest again = submit("v1");
+        again.setJobClass(JobClass.RUN);
+        again.setTestCases(List.of(tests.get(0)));
+        assertThat(cache.get(again)).isNotNull();
+    }
+
+    private void store(CodeExecutionRequest request) {
+        assertThat(cache.get(request)).isNull();
+        CodeExecutionResult result = new CodeExecutionResult();
+        result.setSubmissionStatus(SubmissionStatus.ACCEPTED);
+        cache.put(request, result);
+    }
+
+    private CodeExecutionRequest submit(String version) {
+        CodeExecutionRequest request = new CodeExecutionRequest("python", "print(sum(map(int, input().split())))",
+                new ArrayList<>(tests));
+        request.setProblemId(PROBLEM);
+        request.setJobClass(JobClass.SUBMIT);
+        request.setTestDataVersion(version);
+        return request;
+    }
+
+    private static TestCaseDto test(String input, String output) {
+        TestCaseDto test = new TestCaseDto();
+        test.setInput(input);
+        test.setOutput(output);
+        return test;
+    }
+}
@@ -0,0 +1,71 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.checker;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExactCheckerTest {
+
+    private final ExactChecker checker = new ExactChecker();
+
+    @Test
+    void acceptsIdenticalOutput() {
+        assertThat(check("1 2\n3\n", "1 2\n3\n").accepted()).isTrue();
+    }
+
+    @Test
+    void readsCrlfAsLf() {
+        assertThat(check("1 2\r\n3\r\n", "1 2\n3\n").accepted()).isTrue();
+        assertThat(check("1 2\n3\n", "1 2\r\n3\r\n").accepted()).isTrue();
+    }
+
+    @Test
+    void keepsLoneCarriageReturn() {
+        assertThat(check("1\r2", "1\n2").accepted()).isFalse();
+    }
+
+    @Test
+    void ignoresLeadingAndTrailingWhitespace() {
+        assertThat(check("\n  42", "42\n\n").accepted()).isTrue();
+        assertThat(check("42 \t\n", "42").accepted()).isTrue();
+    }
+
+    @Test
+    void rejectsWhitespaceDifferenceInside() {
+        CheckResult result = check("1  2", "1 2");
+
+        assertThat(result.accepted()).isFalse();
+        assertThat(result.message()).isEqualTo("line 1, column 3: expected '2', got space");
+    }
+
+    @Test
+    void reportsPositionOfFirstMismatch() {
+        CheckResult result = check("ab\ncx\n", "ab\ncd\n");
+
+        assertThat(result.accepted()).isFalse();
+        assertThat(result.message()).isEqualTo("line 2, column 2: expected 'd', got 'x'");
+    }
+
+    @Test
+    void reportsMissingOutput() {
+        CheckResult result = check("1\n", "1\n2\n");
+
+        assertThat(result.accepted()).isFalse();
+        assertThat(result.message()).isEqualTo("line 2, column 1: expected '2', got end of output");
+    }
+
+    @Test
+    void comparesAcrossBufferBoundaries() {
+        String expected = "x".repeat(20_000) + "\r\n";
+
+        assertThat(check("x".repeat(20_000), expected).accepted()).isTrue();
+        assertThat(check("x".repeat(19_999) + "y", expected).message())
+                .isEqualTo("line 1, column 20000: expected 'x', got 'y'");
+    }
+
+    private CheckResult check(String actual, String expected) {
+        return checker.check(new StringReader(actual), new StringReader(expected));
+    }
+}
@@ -0,0 +1,87 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.checker;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenCheckerTest {
+
+    @Test
+    void ignoresAmountAndKindOfWhitespace() {
+        TokenChecker checker = new TokenChecker(false, 0);
+
+        assertThat(check(checker, "1   2\t3\r\n\r\n", "1 2\n3").accepted()).isTrue();
+        assertThat(check(checker, "  1 2 3  \n\n", "1\n2\n3\n").accepted()).isTrue();
+    }
+
+    @Test
+    void reportsMissingAndExtraTokens() {
+        TokenChecker checker = new TokenChecker(false, 0);
+
+        assertThat(check(checker, "1 2", "1 2 3").message())
+                .isEqualTo("token 3 (line 1): expected '3', got end of output");
+        assertThat(check(checker, "1\n2\n3", "1 2").message())
+                .isEqualTo("token 3 (line 3): expected end of output, got '3'");
+    }
+
+    @Test
+    void ignoresCaseOnlyWhenAsked() {
+        assertThat(check(new TokenChecker(true, 0), "YES", "yes").accepted()).isTrue();
+        assertThat(check(new TokenChecker(false, 0), "YES", "yes").accepted()).isFalse();
+    }
+
+    @Test
+    void acceptsNumbersWithinEpsilon() {
+        TokenChecker checker = new TokenChecker(false, 1e-6);
+
+        assertThat(check(checker, "0.3333333", "0.333333333").accepted()).isTrue();
+        assertThat(check(checker, "1e-7", "0").accepted()).isTrue();
+        // Relative error for large values
+        assertThat(check(checker, "1000000.5", "1000000").accepted()).isTrue();
+        assertThat(check(checker, "0.334", "0.333").accepted()).isFalse();
+    }
+
+    @Test
+    void comparesNonNumbersExactlyWithEpsilon() {
+        TokenChecker checker = new TokenChecker(false, 1e-6);
+
+        assertThat(check(checker, "abc", "abc").accepted()).isTrue();
+        assertThat(check(checker, "1.0x", "1.0").accepted()).isFalse();
+        assertThat(check(checker, "nan", "0").accepted()).isFalse();
+    }
+
+    @Test
+    void withoutEpsilonNumbersMustMatchExactly() {
+        assertThat(check(new TokenChecker(false, 0), "1.0", "1").accepted()).isFalse();
+    }
+
+    @Test
+    void comparesTokensLongerThanKeptChars() {
+        TokenChecker checker = new TokenChecker(false, 0);
+        String token = "a".repeat(100);
+
+        assertThat(check(checker, token, token).accepted()).isTrue();
+
+        // The difference is past the kept prefix; it must still be found
+        CheckResult result = check(checker, token + "b", token + "c");
+        assertThat(result.accepted()).isFalse();
+        assertThat(result.message()).isEqualTo("token 1 (line 1): expected '"
+                + "a".repeat(64) + "...', got '" + "a".repeat(64) + "...'");
+    }
+
+    @Test
+    void doesNotApplyEpsilonToTruncatedNumbers() {
+        TokenChecker checker = new TokenChecker(false, 1e-6);
+        String digits = "1".repeat(70);
+
+        // Only a prefix is kept, so the two cannot be parsed and compared
+        assertThat(check(checker, digits + "2", digits + "1").accepted()).isFalse();
+        assertThat(check(checker, digits, digits).accepted()).isTrue();
+    }
+
+    private static CheckResult check(TokenChecker checker, String actual, String expected) {
+        return checker.check(new StringReader(actual), new StringReader(expected));
+    }
+}
@@ -0,0 +1,110 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HarnessFrameDecoderTest {
+
+    private final List<HarnessResult> results = new ArrayList<>();
+
+    @Test
+    void decodesFramesSplitAcrossReads() {
+        byte[] stream = concat(
+                frame(1, 0, "3\n", "", 0),
+                frame(2, 1, "", "boom", 0));
+
+        HarnessFrameDecoder decoder = new HarnessFrameDecoder(results::add, 1024);
+        for (byte b : stream) {
+            decoder.feed(new byte[] { b });
+        }
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).index()).isEqualTo(1);
+        assertThat(results.get(0).stdout()).asString().isEqualTo("3\n");
+        assertThat(results.get(1).exitCode()).isEqualTo(1);
+        assertThat(results.get(1).stderr()).asString().isEqualTo("boom");
+    }
+
+    @Test
+    void decodesSeveralFramesInOneRead() {
+        HarnessFrameDecoder decoder = new HarnessFrameDecoder(results::add, 1024);
+        decoder.feed(concat(frame(1, 0, "a", "", 0), frame(2, 0, "b", "", 0), frame(3, 0, "", "", 0)));
+
+        assertThat(results).extracting(HarnessResult::index).containsExactly(1, 2, 3);
+        assertThat(results.get(2).stdout()).isEmpty();
+    }
+
+    @Test
+    void readsAllHeaderFields() {
+        HarnessFrameDecoder decoder = new HarnessFrameDecoder(results::add, 1024);
+        decoder.feed(ascii("@@CJS 4 137 2010 0 0 1 5120 1000\n"));
+
+        HarnessResult result = results.get(0);
+        assertThat(result.exitCode()).isEqualTo(137);
+        assertThat(result.timeMs()).isEqualTo(2010);
+        assertThat(result.timeLimitExceeded()).isTrue();
+        assertThat(result.memoryKb()).isEqualTo(5120);
+        assertThat(result.cpuTimeMs()).isEqualTo(1000);
+    }
+
+    @Test
+    void truncatesStdoutBeyondTheCapAndFlagsIt() {
+        HarnessFrameDecoder decoder = new HarnessFrameDecoder(results::add, 4);
+        decoder.feed(concat(frame(1, 0, "123456789", "", 0), frame(2, 0, "ok", "", 0)));
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).stdout()).asString().isEqualTo("1234");
+        assertThat(results.get(0).outputLimitExceeded()).isTrue();
+        // The rest of the oversized frame is skipped, not parsed as a header
+        assertThat(results.get(1).stdout()).asString().isEqualTo("ok");
+        assertThat(results.get(1).outputLimitExceeded()).isFalse();
+    }
+
+    @Test
+    void ignoresStrayLines() {
+        HarnessFrameDecoder decoder = new HarnessFrameDecoder(results::add, 1024);
+        decoder.feed(concat(ascii("sh: warning\n"), frame(1, 0, "x", "", 0)));
+
+        assertThat(results).extracting(HarnessResult::index).containsExactly(1);
+    }
+
+    @Test
+    void rejectsMalformedHeaders() {
+        HarnessFrameDecoder decoder = new HarnessFrameDecoder(results::add, 1024);
+
+        assertThatThrownBy(() -> decoder.feed(ascii("@@CJS 1 0 5\n")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> decoder.feed(ascii("@@CJS 1 0 x 0 0 0 0 0\n")))
+                .isInstanceOf(NumberFormatException.class);
+        assertThat(results).isEmpty();
+    }
+
+    private static byte[] frame(int index, int exitCode, String stdout, String stderr, int flags) {
+        byte[] out = stdout.getBytes(StandardCharsets.UTF_8);
+        byte[] err = stderr.getBytes(StandardCharsets.UTF_8);
+        return concat(
+                ascii("@@CJS " + index + " " + exitCode + " 5 " + out.length + " " + err.length
+                        + " " + flags + " 100 2\n"),
+                out,
+                err);
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
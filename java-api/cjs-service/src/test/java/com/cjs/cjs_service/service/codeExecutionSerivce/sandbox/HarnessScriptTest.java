@@ -0,0 +1,165 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs harness.sh with the local sh, against a workspace in a temp
+ * directory, and checks the frames it writes.
+ */
+class HarnessScriptTest {
+
+    // Stands in for busybox time where the host has no busybox: like the
+    // real applet it exits with the bare signal number when the program
+    // is killed, after a "Command terminated by signal N" line. The usage
+    // line it records can be set with FAKE_USAGE
+    private static final String FAKE_BUSYBOX = """
+            #!/bin/sh
+            [ "$1" = time ] || exit 127
+            stat=$5
+            shift 5
+            "$@"
+            code=$?
+            if [ "$code" -gt 128 ]; then
+                echo "Command terminated by signal $((code - 128))" > "$stat"
+                echo "${FAKE_USAGE:-0.00 0.00 0}" >> "$stat"
+                exit $((code - 128))
+            fi
+            echo "${FAKE_USAGE:-0.00 0.00 0}" > "$stat"
+            exit "$code"
+            """;
+
+    @TempDir
+    Path workspace;
+
+    @TempDir
+    Path bin;
+
+    private Path harness;
+
+    private final Map<String, String> environment = new HashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        assumeTrue(Files.isExecutable(Path.of("/bin/sh")), "needs a POSIX shell");
+
+        harness = workspace.resolve(".cjs/harness.sh");
+        Files.createDirectories(harness.getParent());
+        Files.write(harness, new ClassPathResource("sandbox/harness.sh").getContentAsByteArray());
+        Files.createDirectories(workspace.resolve("in"));
+
+        Path busybox = bin.resolve("busybox");
+        Files.writeString(busybox, FAKE_BUSYBOX);
+        Files.setPosixFilePermissions(busybox, PosixFilePermissions.fromString("rwxr-xr-x"));
+    }
+
+    @Test
+    void framesExitCodeAndOutput() throws Exception {
+        Files.writeString(workspace.resolve("in/1"), "2 3\n");
+
+        List<HarnessResult> results = run(1, 1000, 3000, "sh", "-c", "read a b; echo $((a + b)); exit 3");
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).exitCode()).isEqualTo(3);
+        assertThat(results.get(0).stdout()).asString().isEqualTo("5\n");
+        assertThat(results.get(0).flags()).isZero();
+    }
+
+    // A CPU-bound loop is killed by ulimit -t before the wall limit; it
+    // must come back as a time limit, not as a crash with exit code 9/24
+    @Test
+    void cpuLimitedTestIsTimeLimitExceeded() throws Exception {
+        Files.writeString(workspace.resolve("in/1"), "");
+
+        List<HarnessResult> results = run(1, 1000, 5000, "sh", "-c", "while :; do :; done");
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).exitCode()).isIn(137, 152);
+        assertThat(results.get(0).timeLimitExceeded()).isTrue();
+    }
+
+    @Test
+    void sleepingPastTheWallLimitIsTimeLimitExceeded() throws Exception {
+        Files.writeString(workspace.resolve("in/1"), "");
+
+        List<HarnessResult> results = run(1, 1000, 1000, "sleep", "5");
+
+        assertThat(results).singleElement().satisfies(hr -> {
+            assertThat(hr.timeLimitExceeded()).isTrue();
+            assertThat(hr.timeMs()).isLessThan(4000);
+        });
+    }
+
+    // ulimit -t only stops a program after whole seconds of CPU, so a run
+    // that finished in time can still be over its limit by what it used
+    @Test
+    void measuredCpuOverTheLimitIsTimeLimitExceeded() throws Exception {
+        Files.writeString(workspace.resolve("in/1"), "");
+        environment.put("FAKE_USAGE", "1.50 0.20 2048");
+
+        HarnessResult hr = run(1, 1000, 5000, "true").get(0);
+
+        assertThat(hr.exitCode()).isZero();
+        assertThat(hr.cpuTimeMs()).isEqualTo(1700);
+        assertThat(hr.memoryKb()).isEqualTo(2048);
+        assertThat(hr.timeLimitExceeded()).isTrue();
+    }
+
+    @Test
+    void cpuWithinTheLimitIsNotFlagged() throws Exception {
+        Files.writeString(workspace.resolve("in/1"), "");
+        environment.put("FAKE_USAGE", "0.90 0.05 2048");
+
+        assertThat(run(1, 1000, 5000, "true").get(0).flags()).isZero();
+    }
+
+    @Test
+    void endlessPrinterIsCutAtTheOutputLimit() throws Exception {
+        Files.writeString(workspace.resolve("in/1"), "");
+
+        HarnessResult hr = run(1, 1000, 5000, "yes").get(0);
+
+        assertThat(hr.outputLimitExceeded()).isTrue();
+        assertThat(hr.timeLimitExceeded()).isFalse();
+        assertThat(hr.stdout()).hasSize(1024);
+        assertThat(workspace.resolve("out/1")).doesNotExist();
+    }
+
+    private List<HarnessResult> run(int count, int timeLimitMs, int wallLimitMs, String... cmd)
+            throws Exception {
+        List<String> command = new ArrayList<>(List.of(
+                "sh", harness.toString(),
+                String.valueOf(count), String.valueOf(timeLimitMs),
+                String.valueOf(wallLimitMs), "1024"));
+        command.addAll(List.of(cmd));
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.DISCARD);
+        builder.environment().put("CJS_WORKSPACE", workspace.toString());
+        builder.environment().put("PATH", bin + ":" + System.getenv("PATH"));
+        builder.environment().putAll(environment);
+
+        Process process = builder.start();
+        byte[] stdout = process.getInputStream().readAllBytes();
+        assertThat(process.waitFor(30, TimeUnit.SECONDS)).isTrue();
+
+        List<HarnessResult> results = new ArrayList<>();
+        new HarnessFrameDecoder(results::add, 1024).feed(stdout);
+        return results;
+    }
+}
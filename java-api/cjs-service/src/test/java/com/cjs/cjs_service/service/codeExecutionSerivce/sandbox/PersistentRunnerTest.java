@@ -0,0 +1,151 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs JudgeRunner under persistent-harness.sh on the local JDK and
+ * checks that restarts and crashes neither drop nor repeat a test.
+ */
+class PersistentRunnerTest {
+
+    // Each input line names what the test does; every test prints the
+    // runner's pid so the test can tell when a fresh JVM took over
+    private static final String MAIN = """
+            import java.util.Scanner;
+
+            public class Main {
+                public static void main(String[] args) throws Exception {
+                    String what = new Scanner(System.in).nextLine();
+                    String pid = String.valueOf(ProcessHandle.current().pid());
+                    System.out.println(pid);
+                    switch (what) {
+                        case "prop" -> System.setProperty("cjs.test", "dirty");
+                        case "kill" -> {
+                            new ProcessBuilder("kill", "-TERM", pid).start().waitFor();
+                            Thread.sleep(10_000);
+                        }
+                        case "exit" -> System.exit(4);
+                        case "spam" -> {
+                            while (true) {
+                                System.out.println("spam");
+                            }
+                        }
+                        default -> { }
+                    }
+                }
+            }
+            """;
+
+    @TempDir
+    Path workspace;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        assumeTrue(Files.isExecutable(Path.of("/bin/sh")), "needs a POSIX shell");
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(javac != null, "needs a JDK");
+
+        Path cjs = Files.createDirectories(workspace.resolve(".cjs"));
+        Files.write(cjs.resolve("persistent-harness.sh"),
+                new ClassPathResource("sandbox/persistent-harness.sh").getContentAsByteArray());
+        Files.write(cjs.resolve("JudgeRunner.java"),
+                new ClassPathResource("sandbox/JudgeRunner.java").getContentAsByteArray());
+        Files.writeString(workspace.resolve("Main.java"), MAIN);
+        Files.createDirectories(workspace.resolve("in"));
+
+        Path runner = Files.createDirectories(cjs.resolve("runner"));
+        assertThat(javac.run(null, null, null, "-nowarn", "-d", runner.toString(),
+                cjs.resolve("JudgeRunner.java").toString())).isZero();
+        assertThat(javac.run(null, null, null, "-d", workspace.toString(),
+                workspace.resolve("Main.java").toString())).isZero();
+    }
+
+    @Test
+    void everyTestIsReportedOnceAcrossRestartsAndCrashes() throws Exception {
+        List<String> inputs = List.of("pid", "prop", "pid", "kill", "exit", "pid");
+        for (int i = 0; i < inputs.size(); i++) {
+            Files.writeString(workspace.resolve("in/" + (i + 1)), inputs.get(i) + "\n");
+        }
+
+        List<HarnessResult> results = run(inputs.size());
+
+        assertThat(results).extracting(HarnessResult::index).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(results).extracting(HarnessResult::exitCode).containsExactly(0, 0, 0, 143, 4, 0);
+
+        // The property change retires the first JVM, the signal kills the
+        // second; System.exit() is trapped and the JVM carries on
+        assertThat(pid(results.get(1))).isEqualTo(pid(results.get(0)));
+        assertThat(pid(results.get(2))).isNotEqualTo(pid(results.get(1)));
+        assertThat(pid(results.get(4))).isNotEqualTo(pid(results.get(2)));
+        assertThat(pid(results.get(5))).isEqualTo(pid(results.get(4)));
+    }
+
+    @Test
+    void crashFrameCarriesNoOutput() throws Exception {
+        Files.writeString(workspace.resolve("in/1"), "kill\n");
+
+        List<HarnessResult> results = run(1);
+
+        assertThat(results).singleElement().satisfies(hr -> {
+            assertThat(hr.index()).isEqualTo(1);
+            assertThat(hr.exitCode()).isEqualTo(143);
+            assertThat(hr.stdout()).isEmpty();
+        });
+        assertThat(Files.readString(workspace.resolve(".cjs/next")).trim()).isEqualTo("1");
+    }
+
+    // The runner stops a test at the cap itself; that leaves the JVM
+    // clean, so the next test runs in the same one
+    @Test
+    void outputOverTheLimitIsCutAndTheJvmKept() throws Exception {
+        Files.writeString(workspace.resolve("in/1"), "spam\n");
+        Files.writeString(workspace.resolve("in/2"), "pid\n");
+
+        List<HarnessResult> results = run(2);
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).outputLimitExceeded()).isTrue();
+        assertThat(results.get(0).stdout()).hasSize(1024);
+        assertThat(results.get(1).flags()).isZero();
+        assertThat(pid(results.get(0))).startsWith(pid(results.get(1)) + "\nspam");
+    }
+
+    private List<HarnessResult> run(int count) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(
+                "sh", workspace.resolve(".cjs/persistent-harness.sh").toString(),
+                String.valueOf(count), "2000", "5000", "1024",
+                java, "-Djava.security.manager=allow",
+                "-cp", workspace.resolve(".cjs/runner").toString(), "JudgeRunner")
+                .redirectError(ProcessBuilder.Redirect.DISCARD);
+        builder.environment().put("CJS_WORKSPACE", workspace.toString());
+
+        Process process = builder.start();
+        byte[] stdout = process.getInputStream().readAllBytes();
+        assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+
+        List<HarnessResult> results = new ArrayList<>();
+        new HarnessFrameDecoder(results::add, 1024).feed(stdout);
+        return results;
+    }
+
+    private static String pid(HarnessResult result) {
+        return new String(result.stdout(), StandardCharsets.UTF_8).trim();
+    }
+}
@@ -0,0 +1,62 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SandboxArchiveTest {
+
+    // Sandbox.upload() cuts the stream at size(); any difference hangs or
+    // truncates the extraction
+    @Test
+    void sizeMatchesStreamedBytes() throws IOException {
+        SandboxArchive archive = new SandboxArchive()
+                .add(".cjs/harness.sh", "#!/bin/sh\n")
+                .add("in/1", "")
+                .add("in/2", "x".repeat(512))
+                .add("in/3", "é".repeat(700));
+
+        byte[] tar = archive.openStream().readAllBytes();
+
+        assertThat(tar.length).isEqualTo(archive.size());
+        assertThat(tar.length % 512).isZero();
+    }
+
+    @Test
+    void extractsDirectoriesAndFiles() throws IOException {
+        SandboxArchive archive = new SandboxArchive()
+                .add("in/1", "1 2\n")
+                .add("Main.java", "class Main {}");
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (TarArchiveInputStream in = new TarArchiveInputStream(
+                new ByteArrayInputStream(archive.openStream().readAllBytes()))) {
+            TarArchiveEntry entry;
+            while ((entry = in.getNextTarEntry()) != null) {
+                entries.put(entry.getName(), entry.isDirectory()
+                        ? "<dir>"
+                        : new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        assertThat(entries).containsExactly(
+                Map.entry("in/", "<dir>"),
+                Map.entry("in/1", "1 2\n"),
+                Map.entry("Main.java", "class Main {}"));
+    }
+
+    @Test
+    void rejectsPathsTooLongForUstar() {
+        assertThatThrownBy(() -> new SandboxArchive().add("in/" + "x".repeat(100), ""))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,166 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.sandbox;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.ExecCreateCmd;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.command.ExecStartCmd;
+import com.github.dockerjava.api.command.InspectExecCmd;
+import com.github.dockerjava.api.command.InspectExecResponse;
+import com.github.dockerjava.api.model.Frame;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sandbox.upload() against a mocked Docker client whose exec behaves like
+ * `head -c LENGTH | tar -x`: the transport copies stdin until it ends,
+ * and the process only finishes once LENGTH bytes have arrived.
+ */
+class SandboxUploadTest {
+
+    private final DockerClient docker = mock(DockerClient.class);
+    private final ExecCreateCmd create = mock(ExecCreateCmd.class, RETURNS_SELF);
+    private final ExecStartCmd start = mock(ExecStartCmd.class, RETURNS_SELF);
+
+    private final AtomicReference<String[]> command = new AtomicReference<>();
+    private final AtomicReference<InputStream> stdin = new AtomicReference<>();
+    private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+    private Sandbox sandbox;
+
+    @BeforeEach
+    void setUp() {
+        ExecCreateCmdResponse response = mock(ExecCreateCmdResponse.class);
+        when(response.getId()).thenReturn("exec-1");
+        when(docker.execCreateCmd(anyString())).thenReturn(create);
+        doAnswer(inv -> {
+            command.set(Arrays.copyOf(inv.getArguments(), inv.getArguments().length, String[].class));
+            return create;
+        }).when(create).withCmd(any(String[].class));
+        when(create.exec()).thenReturn(response);
+
+        when(docker.execStartCmd("exec-1")).thenReturn(start);
+        doAnswer(inv -> {
+            stdin.set(inv.getArgument(0));
+            return start;
+        }).when(start).withStdIn(any());
+        doAnswer(inv -> {
+            ResultCallback.Adapter<Frame> callback = inv.getArgument(0);
+            Thread.ofVirtual().start(() -> container(callback));
+            return callback;
+        }).when(start).exec(any());
+
+        InspectExecCmd inspect = mock(InspectExecCmd.class);
+        InspectExecResponse inspected = mock(InspectExecResponse.class);
+        when(docker.inspectExecCmd("exec-1")).thenReturn(inspect);
+        when(inspect.exec()).thenReturn(inspected);
+        when(inspected.getExitCodeLong()).thenReturn(0L);
+
+        sandbox = new Sandbox(docker, "container-1", null, 256);
+    }
+
+    @Test
+    void archiveIsCutAtItsExactSize() throws Exception {
+        SandboxArchive archive = new SandboxArchive().add("in/1", "1 2\n");
+
+        ExecResult result = sandbox.upload(archive);
+
+        assertThat(result.exitCode()).isZero();
+        assertThat(command.get()).containsExactly("sh", "-c", "head -c " + archive.size() + " | tar -x -C /workspace");
+        assertThat(received.size()).isEqualTo(archive.size());
+        assertThat(files(received.toByteArray())).containsExactly(entry("in/", ""), entry("in/1", "1 2\n"));
+        assertThat(sandbox.isTainted()).isFalse();
+    }
+
+    // Without the early abandon, head would wait on the missing bytes
+    // until the exec timeout (30 s here)
+    @Test
+    void streamShorterThanDeclaredFailsAtOnce() {
+        SandboxArchive archive = misreported(+512);
+
+        ExecResult result = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> sandbox.upload(archive));
+
+        assertThat(result.exitCode()).isEqualTo(-1);
+        assertThat(result.stderr()).isEqualTo(
+                "Upload sent " + (archive.size() - 512) + " bytes, expected " + archive.size());
+        assertThat(sandbox.isTainted()).isTrue();
+    }
+
+    @Test
+    void streamLongerThanDeclaredFails() throws Exception {
+        SandboxArchive archive = misreported(-512);
+
+        ExecResult result = sandbox.upload(archive);
+
+        assertThat(result.exitCode()).isEqualTo(-1);
+        assertThat(sandbox.isTainted()).isTrue();
+    }
+
+    @Test
+    void readyMadeTarIsSentAsIs() throws Exception {
+        byte[] tar = new SandboxArchive().add("a.out", new byte[3000]).openStream().readAllBytes();
+
+        assertThat(sandbox.upload(tar).exitCode()).isZero();
+        assertThat(received.toByteArray()).isEqualTo(tar);
+    }
+
+    // An archive whose size() is off by delta from what it streams
+    private static SandboxArchive misreported(long delta) {
+        SandboxArchive archive = new SandboxArchive() {
+            @Override
+            public long size() {
+                return super.size() + delta;
+            }
+        };
+        return archive.add("in/1", "x".repeat(2000));
+    }
+
+    // Entries by name; headers carry the time they were written, so the
+    // stream is not compared byte for byte
+    private static Map<String, String> files(byte[] tar) throws IOException {
+        Map<String, String> files = new LinkedHashMap<>();
+        try (TarArchiveInputStream in = new TarArchiveInputStream(new ByteArrayInputStream(tar))) {
+            for (TarArchiveEntry entry = in.getNextTarEntry(); entry != null; entry = in.getNextTarEntry()) {
+                files.put(entry.getName(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return files;
+    }
+
+    private void container(ResultCallback.Adapter<Frame> callback) {
+        long length = Long.parseLong(command.get()[2].split(" ")[2]);
+        try (InputStream in = stdin.get()) {
+            in.transferTo(received);
+        } catch (IOException e) {
+            return;
+        }
+        if (received.size() >= length) {
+            callback.onComplete();
+        }
+    }
+}
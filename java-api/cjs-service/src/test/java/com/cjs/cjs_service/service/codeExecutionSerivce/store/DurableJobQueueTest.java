@@ -0,0 +1,167 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.store;
+
+import com.cjs.cjs_service.dto.CodeExecutionResult;
+import com.cjs.cjs_service.dto.ExecutionJob;
+import com.cjs.cjs_service.dto.ExecutionStatus;
+import com.cjs.cjs_service.dto.TestCaseResultDto;
+import com.cjs.cjs_service.model.SubmissionStatus;
+import com.cjs.cjs_service.repository.ExecutionInstanceRepository;
+import com.cjs.cjs_service.repository.ExecutionJobRepository;
+import com.cjs.cjs_service.repository.SubmissionRepository;
+import com.cjs.cjs_service.service.codeExecutionSerivce.ExecutionInstance;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Leases and fencing of the shared queue against mocked repositories;
+ * the queries themselves run against MySQL only.
+ */
+class DurableJobQueueTest {
+
+    private final ExecutionJobRepository repository = mock(ExecutionJobRepository.class);
+    private final SubmissionRepository submissions = mock(SubmissionRepository.class);
+    private final ExecutionInstance instance = new ExecutionInstance("test");
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DurableJobQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new DurableJobQueue(repository, mock(ExecutionInstanceRepository.class), submissions,
+                objectMapper, new SimpleMeterRegistry(), instance);
+        ReflectionTestUtils.setField(queue, "lease", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(queue, "maxAttempts", 3);
+
+        when(repository.lockClaimable(anyInt())).thenReturn(List.of("a", "b"));
+        queue.claim(2);
+    }
+
+    @Test
+    void claimedJobsHaveTheirLeasesRenewed() {
+        queue.renewLeases();
+
+        verify(repository).renewLeases(eq(Set.of("a", "b")), eq(instance.getId()), any());
+    }
+
+    // The lease ran out and another instance claimed the job: this one
+    // must stop renewing it, or the two would keep taking it from each other
+    @Test
+    void fencedSaveGivesUpTheJob() {
+        when(repository.updateState(eq("a"), anyString(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThat(queue.save(job("a", ExecutionStatus.RUNNING))).isFalse();
+        queue.renewLeases();
+
+        verify(repository).renewLeases(eq(Set.of("b")), anyString(), any());
+    }
+
+    @Test
+    void finishedJobIsNoLongerRenewed() {
+        when(repository.updateState(anyString(), anyString(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        assertThat(queue.save(job("a", ExecutionStatus.COMPLETED))).isTrue();
+        assertThat(queue.save(job("b", ExecutionStatus.RUNNING))).isTrue();
+        queue.renewLeases();
+
+        verify(repository).renewLeases(eq(Set.of("b")), anyString(), any());
+    }
+
+    @Test
+    void abandonedJobsRunOut() {
+        queue.abandon("a");
+        queue.abandon("b");
+        queue.renewLeases();
+
+        verify(repository, never()).renewLeases(anyCollection(), anyString(), any());
+    }
+
+    // Other instances read the result from here; compacting it would give
+    // them less than the owner's first read
+    @Test
+    void resultIsStoredInFull() throws Exception {
+        when(repository.updateState(anyString(), anyString(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+        ExecutionJob job = job("a", ExecutionStatus.COMPLETED);
+        CodeExecutionResult result = new CodeExecutionResult();
+        result.setSubmissionStatus(SubmissionStatus.WRONG_ANSWER);
+        result.setTestCaseResults(List.of(failure(1), failure(2), failure(3)));
+        job.setResult(result);
+
+        queue.save(job);
+
+        verify(repository).updateState(eq("a"), eq(instance.getId()), eq(ExecutionStatus.COMPLETED), any(),
+                isNull(), argThat(json -> {
+                    try {
+                        CodeExecutionResult saved = objectMapper.readValue(json, CodeExecutionResult.class);
+                        return saved.getTestCaseResults().size() == 3
+                                && saved.getTestCaseResults().get(2).getOutput().length() == 5000;
+                    } catch (Exception e) {
+                        return false;
+                    }
+                }), isNull(), any(Instant.class));
+    }
+
+    @Test
+    void jobsOutOfAttemptsFailTheirSubmissions() {
+        when(repository.lockExpiredSubmissions(any(), eq(3))).thenReturn(List.of(7, 9));
+        when(repository.failExpired(any(), eq(3), anyString())).thenReturn(2);
+
+        queue.recoverExpired();
+
+        InOrder order = inOrder(repository, submissions);
+        order.verify(repository).lockExpiredSubmissions(any(), eq(3));
+        order.verify(repository).failExpired(any(), eq(3), anyString());
+        order.verify(submissions).failUnjudged(List.of(7, 9), SubmissionStatus.INTERNAL_ERROR);
+    }
+
+    // Jobs that are only requeued (or are runs, without a submission)
+    // leave submissions alone
+    @Test
+    void requeuedJobsKeepTheirSubmissionsWaiting() {
+        when(repository.lockExpiredSubmissions(any(), anyInt())).thenReturn(List.of());
+        when(repository.requeueExpired(any())).thenReturn(4);
+
+        queue.recoverExpired();
+
+        verify(submissions, never()).failUnjudged(any(Collection.class), any());
+    }
+
+    private static ExecutionJob job(String jobId, ExecutionStatus status) {
+        ExecutionJob job = new ExecutionJob();
+        job.setJobId(jobId);
+        job.setStatus(status);
+        return job;
+    }
+
+    private static TestCaseResultDto failure(int index) {
+        TestCaseResultDto test = new TestCaseResultDto();
+        test.setIndex(index);
+        test.setStatus(SubmissionStatus.WRONG_ANSWER);
+        test.setOutput("y".repeat(5000));
+        return test;
+    }
+}
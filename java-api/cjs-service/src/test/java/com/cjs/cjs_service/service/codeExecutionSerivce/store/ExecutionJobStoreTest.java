@@ -0,0 +1,52 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.store;
+
+import com.cjs.cjs_service.dto.CodeExecutionResult;
+import com.cjs.cjs_service.dto.ExecutionJob;
+import com.cjs.cjs_service.dto.ExecutionStatus;
+import com.cjs.cjs_service.dto.TestCaseResultDto;
+import com.cjs.cjs_service.model.SubmissionStatus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ExecutionJobStoreTest {
+
+    private final DurableJobQueue durableQueue = mock(DurableJobQueue.class);
+
+    @Test
+    void onlyTheFirstReadOfALocalJobGetsTheFullResult() {
+        ExecutionJobStore store = new ExecutionJobStore(durableQueue, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "compactDiffChars", 10);
+
+        ExecutionJob job = new ExecutionJob();
+        job.setStatus(ExecutionStatus.COMPLETED);
+        job.setResult(wrongAnswers(2));
+        store.add(job);
+
+        ExecutionJob first = store.getJob(job.getJobId());
+        ExecutionJob second = store.getJob(job.getJobId());
+
+        assertThat(first.getResult().getTestCaseResults().get(1).getOutput()).hasSize(500);
+        assertThat(second.getResult().getTestCaseResults().get(1).getOutput()).hasSizeLessThan(500);
+        verifyNoInteractions(durableQueue);
+    }
+
+    private static CodeExecutionResult wrongAnswers(int count) {
+        CodeExecutionResult result = new CodeExecutionResult();
+        result.setSubmissionStatus(SubmissionStatus.WRONG_ANSWER);
+        for (int i = 1; i <= count; i++) {
+            TestCaseResultDto test = new TestCaseResultDto();
+            test.setIndex(i);
+            test.setStatus(SubmissionStatus.WRONG_ANSWER);
+            test.setOutput("z".repeat(500));
+            result.getTestCaseResults().add(test);
+        }
+        return result;
+    }
+}
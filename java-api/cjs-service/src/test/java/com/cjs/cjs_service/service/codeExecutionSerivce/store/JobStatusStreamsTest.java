@@ -0,0 +1,194 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.store;
+
+import com.cjs.cjs_service.dto.ExecutionJob;
+import com.cjs.cjs_service.dto.ExecutionStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Status streams served through MockMvc, so each event is read back the
+ * way a client receives it. getJob() is called once per send, which is
+ * what the tests wait on.
+ */
+class JobStatusStreamsTest {
+
+    private final ExecutionJobStore jobStore = mock(ExecutionJobStore.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutionJob job = new ExecutionJob();
+
+    private JobStatusStreams streams;
+    private MockMvc mvc;
+
+    @RestController
+    class StreamController {
+        @GetMapping("/jobs/{jobId}")
+        ResponseEntity<SseEmitter> stream(@PathVariable String jobId) {
+            SseEmitter emitter = streams.subscribe(jobId);
+            return emitter != null ? ResponseEntity.ok(emitter) : ResponseEntity.notFound().build();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        streams = new JobStatusStreams(jobStore, new ObjectMapper(), registry);
+        ReflectionTestUtils.setField(streams, "timeout", Duration.ofSeconds(30));
+        mvc = MockMvcBuilders.standaloneSetup(new StreamController()).build();
+
+        job.setStatus(ExecutionStatus.RUNNING);
+        when(jobStore.hasJob(job.getJobId())).thenReturn(true);
+        when(jobStore.getJob(job.getJobId())).thenReturn(job);
+        when(jobStore.isLocal(job.getJobId())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        streams.shutdown();
+    }
+
+    @Test
+    void streamStartsWithTheCurrentStateAndEndsWhenTheJobDoes() throws Exception {
+        MvcResult result = open();
+        received(result, 1);
+
+        job.setStatus(ExecutionStatus.COMPLETED);
+        streams.publish(job.getJobId());
+        result.getAsyncResult(5000);
+
+        assertThat(events(result)).containsExactly("RUNNING", "COMPLETED");
+    }
+
+    @Test
+    void unchangedStateIsNotSentAgain() throws Exception {
+        MvcResult result = open();
+        sent(1);
+
+        streams.publish(job.getJobId());
+        sent(2);
+        streams.publish(job.getJobId());
+        sent(3);
+
+        assertThat(events(result)).containsExactly("RUNNING");
+    }
+
+    @Test
+    void remoteJobsAreFollowedByPolling() throws Exception {
+        when(jobStore.isLocal(job.getJobId())).thenReturn(false);
+        MvcResult result = open();
+        received(result, 1);
+
+        job.setStatus(ExecutionStatus.FAILED);
+        streams.pollRemoteJobs();
+        result.getAsyncResult(5000);
+
+        assertThat(events(result)).containsExactly("RUNNING", "FAILED");
+    }
+
+    @Test
+    void localJobsAreNotPolled() throws Exception {
+        open();
+        sent(1);
+
+        streams.pollRemoteJobs();
+        Thread.sleep(200);
+
+        verify(jobStore, times(1)).getJob(job.getJobId());
+    }
+
+    // e.g. expired from the store while a client was still listening
+    @Test
+    void jobThatDisappearsEndsTheStream() throws Exception {
+        MvcResult result = open();
+        sent(1);
+
+        when(jobStore.getJob(job.getJobId())).thenReturn(null);
+        streams.publish(job.getJobId());
+        result.getAsyncResult(5000);
+
+        assertThat(events(result)).containsExactly("RUNNING");
+    }
+
+    @Test
+    void unknownJobHasNoStream() throws Exception {
+        MvcResult result = mvc.perform(get("/jobs/missing")).andReturn();
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(404);
+        assertThat(registry.get("execution.status.subscribers").gauge().value()).isZero();
+    }
+
+    @Test
+    void openStreamsAreCounted() throws Exception {
+        open();
+        open();
+
+        assertThat(registry.get("execution.status.subscribers").gauge().value()).isEqualTo(2);
+    }
+
+    private MvcResult open() throws Exception {
+        return mvc.perform(get("/jobs/" + job.getJobId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    // Waits for the nth send to read the job
+    private void sent(int sends) {
+        verify(jobStore, timeout(5000).times(sends)).getJob(job.getJobId());
+    }
+
+    // The job is read before it is written out, so changing it straight
+    // after sent() could still make it into that send
+    private void received(MvcResult result, int events) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (events(result).size() < events) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    // The status of each "status" event in the response so far
+    private List<String> events(MvcResult result) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String body = result.getResponse().getContentAsString();
+        List<String> statuses = new ArrayList<>();
+        for (String event : body.split("\n\n")) {
+            List<String> lines = Arrays.asList(event.split("\n"));
+            if (!lines.contains("event:status")) {
+                continue;
+            }
+            String data = lines.stream()
+                    .filter(line -> line.startsWith("data:"))
+                    .map(line -> line.substring("data:".length()))
+                    .findFirst()
+                    .orElseThrow();
+            statuses.add(mapper.readTree(data).get("status").asText());
+        }
+        return statuses;
+    }
+}
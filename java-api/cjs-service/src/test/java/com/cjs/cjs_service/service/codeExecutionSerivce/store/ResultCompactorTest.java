@@ -0,0 +1,140 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.store;
+
+import com.cjs.cjs_service.dto.CodeExecutionResult;
+import com.cjs.cjs_service.dto.TestCaseResultDto;
+import com.cjs.cjs_service.model.SubmissionStatus;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultCompactorTest {
+
+    private static final String LONG = "x".repeat(100);
+
+    @Test
+    void collapsesPassingTestsIntoMask() {
+        CodeExecutionResult result = result(
+                passed(0), passed(1), failed(2, SubmissionStatus.WRONG_ANSWER), passed(3));
+
+        CodeExecutionResult compact = ResultCompactor.compact(result, 10);
+
+        assertThat(compact.getPassedMask()).isEqualTo("1101");
+        assertThat(compact.getTestCaseResults()).extracting(TestCaseResultDto::getIndex).containsExactly(2);
+    }
+
+    @Test
+    void keepsFirstFailureInFullAndTruncatesLaterOnes() {
+        TestCaseResultDto first = failed(1, SubmissionStatus.WRONG_ANSWER);
+        TestCaseResultDto second = failed(2, SubmissionStatus.TIME_LIMIT_EXCEEDED);
+        CodeExecutionResult result = result(passed(0), first, second);
+
+        CodeExecutionResult compact = ResultCompactor.compact(result, 10);
+
+        TestCaseResultDto keptFirst = compact.getTestCaseResults().get(0);
+        assertThat(keptFirst.getInput()).isEqualTo(LONG);
+        assertThat(keptFirst.getOutput()).isEqualTo(LONG);
+        assertThat(keptFirst.getExpected()).isEqualTo(LONG);
+
+        TestCaseResultDto keptSecond = compact.getTestCaseResults().get(1);
+        assertThat(keptSecond.getInput()).isEqualTo("x".repeat(10) + "...");
+        assertThat(keptSecond.getOutput()).isEqualTo("x".repeat(10) + "...");
+        assertThat(keptSecond.getExpected()).isEqualTo("x".repeat(10) + "...");
+        assertThat(keptSecond.getIndex()).isEqualTo(2);
+        assertThat(keptSecond.getStatus()).isEqualTo(SubmissionStatus.TIME_LIMIT_EXCEEDED);
+        assertThat(keptSecond.getCheckerMessage()).isEqualTo("mismatch 2");
+        assertThat(keptSecond.getCpuTimeMs()).isEqualTo(20);
+    }
+
+    @Test
+    void keepsShortValuesAsIs() {
+        TestCaseResultDto test = failed(1, SubmissionStatus.WRONG_ANSWER);
+        test.setInput("1 2");
+        test.setOutput(null);
+
+        CodeExecutionResult compact = ResultCompactor.compact(
+                result(failed(0, SubmissionStatus.WRONG_ANSWER), test), 10);
+
+        assertThat(compact.getTestCaseResults().get(1).getInput()).isEqualTo("1 2");
+        assertThat(compact.getTestCaseResults().get(1).getOutput()).isNull();
+    }
+
+    @Test
+    void copiesSummaryFields() {
+        CodeExecutionResult result = result(passed(0));
+        result.setSubmissionStatus(SubmissionStatus.ACCEPTED);
+        result.setTimeMs(12);
+        result.setMemoryKb(3456);
+        result.setCompileTimeMs(789L);
+
+        CodeExecutionResult compact = ResultCompactor.compact(result, 10);
+
+        assertThat(compact.getSubmissionStatus()).isEqualTo(SubmissionStatus.ACCEPTED);
+        assertThat(compact.getTimeMs()).isEqualTo(12);
+        assertThat(compact.getMemoryKb()).isEqualTo(3456);
+        assertThat(compact.getCompileTimeMs()).isEqualTo(789L);
+        assertThat(compact.getTestCaseResults()).isEmpty();
+    }
+
+    @Test
+    void leavesOriginalUntouched() {
+        TestCaseResultDto second = failed(2, SubmissionStatus.WRONG_ANSWER);
+        CodeExecutionResult result = result(passed(0), failed(1, SubmissionStatus.WRONG_ANSWER), second);
+
+        CodeExecutionResult compact = ResultCompactor.compact(result, 10);
+
+        assertThat(compact).isNotSameAs(result);
+        assertThat(result.getPassedMask()).isNull();
+        assertThat(result.getTestCaseResults()).hasSize(3);
+        assertThat(second.getInput()).isEqualTo(LONG);
+        assertThat(compact.getTestCaseResults().get(1)).isNotSameAs(second);
+    }
+
+    @Test
+    void estimateShrinksWithCompaction() {
+        List<TestCaseResultDto> tests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tests.add(i % 10 == 9 ? failed(i, SubmissionStatus.WRONG_ANSWER) : passed(i));
+        }
+        CodeExecutionResult result = result(tests.toArray(TestCaseResultDto[]::new));
+
+        long full = ResultCompactor.estimateBytes(result);
+        long compact = ResultCompactor.estimateBytes(ResultCompactor.compact(result, 10));
+
+        assertThat(compact).isPositive().isLessThan(full);
+        assertThat(ResultCompactor.estimateBytes(null)).isZero();
+    }
+
+    private static CodeExecutionResult result(TestCaseResultDto... tests) {
+        CodeExecutionResult result = new CodeExecutionResult();
+        result.setTestCaseResults(new ArrayList<>(List.of(tests)));
+        return result;
+    }
+
+    private static TestCaseResultDto passed(int index) {
+        TestCaseResultDto test = test(index);
+        test.setPassed(true);
+        test.setStatus(SubmissionStatus.ACCEPTED);
+        return test;
+    }
+
+    private static TestCaseResultDto failed(int index, SubmissionStatus status) {
+        TestCaseResultDto test = test(index);
+        test.setStatus(status);
+        test.setCheckerMessage("mismatch " + index);
+        return test;
+    }
+
+    private static TestCaseResultDto test(int index) {
+        TestCaseResultDto test = new TestCaseResultDto();
+        test.setIndex(index);
+        test.setInput(LONG);
+        test.setOutput(LONG);
+        test.setExpected(LONG);
+        test.setCpuTimeMs(index * 10L);
+        return test;
+    }
+}
@@ -0,0 +1,156 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.worker;
+
+import com.cjs.cjs_service.dto.CodeExecutionResult;
+import com.cjs.cjs_service.dto.ExecutionJob;
+import com.cjs.cjs_service.service.SubmissionService;
+import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutionRequest;
+import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutorBase;
+import com.cjs.cjs_service.service.codeExecutionSerivce.CodeExecutorFactory;
+import com.cjs.cjs_service.service.codeExecutionSerivce.ExecutionRequestFactory;
+import com.cjs.cjs_service.service.codeExecutionSerivce.JobClass;
+import com.cjs.cjs_service.service.codeExecutionSerivce.cache.VerdictCache;
+import com.cjs.cjs_service.service.codeExecutionSerivce.store.DurableJobQueue;
+import com.cjs.cjs_service.service.codeExecutionSerivce.store.ExecutionJobStore;
+import com.cjs.cjs_service.service.codeExecutionSerivce.store.JobStatusStreams;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CodeExecutionWorkerTest {
+
+    private final DurableJobQueue jobQueue = mock(DurableJobQueue.class);
+    private final VerdictCache verdictCache = mock(VerdictCache.class);
+
+    // ===============================
+    // Admission
+    // ===============================
+
+    // Two pipeline threads on one instance at 1 s per job drain 20 jobs
+    // in the 10 s max-wait
+    private CodeExecutionWorker worker() {
+        CodeExecutionWorker worker = new CodeExecutionWorker(
+                mock(CodeExecutorFactory.class), mock(SubmissionService.class), mock(ResourceBudget.class),
+                verdictCache, mock(JobStatusStreams.class), mock(ExecutionJobStore.class), jobQueue,
+                mock(ExecutionRequestFactory.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(worker, "pipelineThreads", 2);
+        ReflectionTestUtils.setField(worker, "averageJobMs", 1000.0);
+        ReflectionTestUtils.setField(worker, "maxWait", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(worker, "provisionCapacity", 100);
+        ReflectionTestUtils.setField(worker, "submitWeight", 2.0);
+        when(jobQueue.getActiveInstances()).thenReturn(1);
+        return worker;
+    }
+
+    @Test
+    void admitsAJobThatStartsWithinMaxWait() {
+        CodeExecutionWorker worker = worker();
+        when(jobQueue.waitingUntil(any())).thenReturn(19L);
+
+        QueueTicket ticket = worker.enqueue(new ExecutionJob(), submission());
+
+        assertThat(ticket.position()).isEqualTo(20);
+        verify(jobQueue).insert(any(), any(), any(), eq(false));
+    }
+
+    @Test
+    void rejectsAJobThatWouldWaitTooLong() {
+        CodeExecutionWorker worker = worker();
+        when(jobQueue.waitingUntil(any())).thenReturn(25L);
+
+        // Five jobs over, two at a time, 1 s each
+        assertThatThrownBy(() -> worker.enqueue(new ExecutionJob(), submission()))
+                .isInstanceOfSatisfying(ExecutionRejectedException.class,
+                        e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofMillis(2500)));
+        verify(jobQueue, never()).insert(any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void rejectsWhenTheSharedQueueIsFull() {
+        CodeExecutionWorker worker = worker();
+        when(jobQueue.waiting()).thenReturn(100L);
+
+        assertThatThrownBy(() -> worker.enqueue(new ExecutionJob(), submission()))
+                .isInstanceOf(ExecutionRejectedException.class);
+        verify(jobQueue, never()).waitingUntil(any());
+    }
+
+    @Test
+    void moreInstancesAdmitMore() {
+        CodeExecutionWorker worker = worker();
+        when(jobQueue.getActiveInstances()).thenReturn(2);
+        when(jobQueue.waitingUntil(any())).thenReturn(25L);
+
+        assertThat(worker.enqueue(new ExecutionJob(), submission()).position()).isEqualTo(26);
+    }
+
+    @Test
+    void cachedVerdictSkipsAdmission() {
+        CodeExecutionWorker worker = worker();
+        when(jobQueue.waiting()).thenReturn(1000L);
+        CodeExecutionResult cached = new CodeExecutionResult();
+        when(verdictCache.get(any())).thenReturn(cached);
+        when(jobQueue.save(any())).thenReturn(true);
+
+        ExecutionJob job = new ExecutionJob();
+        assertThat(worker.enqueue(job, submission()).position()).isZero();
+        assertThat(job.getResult()).isSameAs(cached);
+    }
+
+    private static CodeExecutionRequest submission() {
+        CodeExecutionRequest request = new CodeExecutionRequest("cpp", "", List.of());
+        request.setJobClass(JobClass.SUBMIT);
+        request.setUserId(3);
+        return request;
+    }
+
+    // ===============================
+    // Language limits
+    // ===============================
+
+    @Test
+    void languagesWithoutALimitSplitThePipelineRoundingUp() {
+        var limits = CodeExecutionWorker.languageLimits(
+                List.of(executor("java", 0), executor("cpp", 0), executor("node", 0)), 8);
+
+        assertThat(limits).containsOnly(entry("java", 3), entry("cpp", 3), entry("node", 3));
+    }
+
+    @Test
+    void configuredLimitWinsOverTheEvenShare() {
+        var limits = CodeExecutionWorker.languageLimits(
+                List.of(executor("java", 1), executor("cpp", 0)), 6);
+
+        assertThat(limits).containsOnly(entry("java", 1), entry("cpp", 3));
+    }
+
+    @Test
+    void everyLanguageGetsAtLeastOneSlot() {
+        var limits = CodeExecutionWorker.languageLimits(
+                List.of(executor("java", 0), executor("cpp", 0), executor("node", 0)), 1);
+
+        assertThat(limits.values()).containsOnly(1);
+    }
+
+    private static CodeExecutorBase executor(String language, int maxConcurrency) {
+        CodeExecutorBase executor = mock(CodeExecutorBase.class);
+        when(executor.getLanguage()).thenReturn(language);
+        when(executor.getMaxConcurrency()).thenReturn(maxConcurrency);
+        return executor;
+    }
+}
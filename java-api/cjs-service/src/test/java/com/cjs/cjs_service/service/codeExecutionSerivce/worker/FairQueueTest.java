@@ -0,0 +1,212 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.worker;
+
+import com.cjs.cjs_service.service.codeExecutionSerivce.JobClass;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FairQueueTest {
+
+    @Test
+    void sharesEquallyBetweenUsersOfAClass() throws Exception {
+        FairQueue<Job> queue = queue(Map.of(), Map.of(), Map.of());
+        for (int i = 1; i <= 3; i++) {
+            queue.put(new Job("a" + i, "java", JobClass.SUBMIT, 1, 1));
+        }
+        for (int i = 1; i <= 3; i++) {
+            queue.put(new Job("b" + i, "java", JobClass.SUBMIT, 2, 1));
+        }
+
+        assertThat(takeAll(queue, 6)).containsExactly("a1", "b1", "a2", "b2", "a3", "b3");
+    }
+
+    @Test
+    void sharesBetweenClassesByWeight() throws Exception {
+        FairQueue<Job> queue = queue(
+                Map.of(JobClass.RUN, 2.0, JobClass.SUBMIT, 1.0), Map.of(), Map.of());
+        for (int i = 1; i <= 6; i++) {
+            queue.put(new Job("s" + i, "java", JobClass.SUBMIT, 1, 1));
+        }
+        for (int i = 1; i <= 6; i++) {
+            queue.put(new Job("r" + i, "java", JobClass.RUN, 2, 1));
+        }
+
+        assertThat(takeAll(queue, 6)).containsExactly("r1", "s1", "r2", "r3", "s2", "r4");
+    }
+
+    @Test
+    void chargesByCost() throws Exception {
+        FairQueue<Job> queue = queue(Map.of(), Map.of(), Map.of());
+        queue.put(new Job("big", "java", JobClass.SUBMIT, 1, 10));
+        queue.put(new Job("small1", "java", JobClass.SUBMIT, 2, 1));
+        queue.put(new Job("small2", "java", JobClass.SUBMIT, 2, 1));
+
+        assertThat(takeAll(queue, 3)).containsExactly("small1", "small2", "big");
+    }
+
+    @Test
+    void idleUserDoesNotSaveUpCredit() throws Exception {
+        FairQueue<Job> queue = queue(Map.of(), Map.of(), Map.of());
+        for (int i = 1; i <= 3; i++) {
+            queue.put(new Job("a" + i, "java", JobClass.SUBMIT, 1, 1));
+        }
+        takeAll(queue, 3);
+
+        // User 2 starts from the current virtual time, not from zero
+        queue.put(new Job("a4", "java", JobClass.SUBMIT, 1, 1));
+        queue.put(new Job("b1", "java", JobClass.SUBMIT, 2, 1));
+        queue.put(new Job("b2", "java", JobClass.SUBMIT, 2, 1));
+
+        assertThat(takeAll(queue, 3)).containsExactly("a4", "b1", "b2");
+    }
+
+    @Test
+    void capsJobsInFlightPerUser() throws Exception {
+        FairQueue<Job> queue = queue(Map.of(), Map.of(JobClass.SUBMIT, 1), Map.of());
+        Job a1 = new Job("a1", "java", JobClass.SUBMIT, 1, 1);
+        queue.put(a1);
+        queue.put(new Job("a2", "java", JobClass.SUBMIT, 1, 1));
+        queue.put(new Job("b1", "java", JobClass.SUBMIT, 2, 5));
+
+        assertThat(queue.take()).isEqualTo(a1);
+        // a2 has the smaller tag, but user 1 is at its cap
+        assertThat(queue.take().name()).isEqualTo("b1");
+
+        FutureTask<Job> next = takeAsync(queue);
+        assertBlocked(next);
+
+        queue.done(a1);
+        assertThat(next.get(5, TimeUnit.SECONDS).name()).isEqualTo("a2");
+    }
+
+    @Test
+    void capOnlyAppliesToItsClass() throws Exception {
+        FairQueue<Job> queue = queue(Map.of(), Map.of(JobClass.SUBMIT, 1), Map.of());
+        queue.put(new Job("s1", "java", JobClass.SUBMIT, 1, 1));
+        queue.put(new Job("r1", "java", JobClass.RUN, 1, 1));
+        queue.put(new Job("r2", "java", JobClass.RUN, 1, 1));
+
+        assertThat(takeAll(queue, 3)).containsExactlyInAnyOrder("s1", "r1", "r2");
+    }
+
+    @Test
+    void languageAtItsLimitBorrowsOnlyIdleCapacity() throws Exception {
+        FairQueue<Job> queue = new FairQueue<>(100, 3, Map.of(), Map.of(), Map.of("java", 1));
+        queue.put(new Job("j1", "java", JobClass.SUBMIT, 1, 1));
+        queue.put(new Job("j2", "java", JobClass.SUBMIT, 2, 1));
+        queue.put(new Job("p1", "python", JobClass.SUBMIT, 3, 5));
+        queue.put(new Job("j3", "java", JobClass.SUBMIT, 4, 1));
+
+        assertThat(queue.take().name()).isEqualTo("j1");
+        // j2 has the smaller tag, but java is at its limit and python is waiting
+        assertThat(queue.take().name()).isEqualTo("p1");
+        // Nothing else is waiting, so java borrows the idle slot
+        assertThat(queue.take().name()).isEqualTo("j2");
+        assertThat(queue.waiting("java")).isEqualTo(1);
+
+        // No borrowing past maxInFlight
+        FutureTask<Job> next = takeAsync(queue);
+        assertBlocked(next);
+
+        queue.done(new Job("p1", "python", JobClass.SUBMIT, 3, 5));
+        assertThat(next.get(5, TimeUnit.SECONDS).name()).isEqualTo("j3");
+        assertThat(queue.size()).isZero();
+    }
+
+    // A burst of one language waits behind its own limit, not in front
+    // of the other languages
+    @Test
+    void eachLanguageIsHeldToItsOwnLimit() throws Exception {
+        FairQueue<Job> queue = new FairQueue<>(100, 4, Map.of(), Map.of(), Map.of("java", 2, "cpp", 2));
+        for (int i = 1; i <= 4; i++) {
+            queue.put(new Job("j" + i, "java", JobClass.SUBMIT, i, 1));
+        }
+        queue.put(new Job("c1", "cpp", JobClass.SUBMIT, 9, 1));
+
+        List<String> taken = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            taken.add(queue.take().name());
+        }
+
+        assertThat(taken).containsExactlyInAnyOrder("j1", "j2", "c1");
+        assertThat(queue.waiting("java")).isEqualTo(2);
+        assertThat(queue.waiting("cpp")).isZero();
+    }
+
+    @Test
+    void languageWithoutALimitIsNeverHeldBack() throws Exception {
+        FairQueue<Job> queue = new FairQueue<>(100, 10, Map.of(), Map.of(), Map.of("java", 1));
+        queue.put(new Job("j1", "java", JobClass.SUBMIT, 1, 1));
+        queue.put(new Job("j2", "java", JobClass.SUBMIT, 2, 1));
+        for (int i = 1; i <= 3; i++) {
+            queue.put(new Job("n" + i, "node", JobClass.SUBMIT, 10 + i, 1));
+        }
+
+        List<String> taken = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            taken.add(queue.take().name());
+        }
+
+        assertThat(taken).containsExactlyInAnyOrder("j1", "n1", "n2", "n3");
+        assertThat(queue.waiting("java")).isEqualTo(1);
+    }
+
+    @Test
+    void putWaitsForCapacity() throws Exception {
+        FairQueue<Job> queue = new FairQueue<>(1, 10, Map.of(), Map.of(), Map.of());
+        queue.put(new Job("a1", "java", JobClass.SUBMIT, 1, 1));
+
+        FutureTask<Void> put = new FutureTask<>(() -> {
+            queue.put(new Job("a2", "java", JobClass.SUBMIT, 1, 1));
+            return null;
+        });
+        Thread.ofVirtual().start(put);
+        assertBlocked(put);
+
+        assertThat(queue.take().name()).isEqualTo("a1");
+        put.get(5, TimeUnit.SECONDS);
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    private static FairQueue<Job> queue(
+            Map<JobClass, Double> weights,
+            Map<JobClass, Integer> maxPerUser,
+            Map<String, Integer> languageLimits) {
+        return new FairQueue<>(100, 100, weights, maxPerUser, languageLimits);
+    }
+
+    // Takes and finishes jobs one at a time, so no cap or limit is hit
+    private static List<String> takeAll(FairQueue<Job> queue, int count) throws InterruptedException {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Job job = queue.take();
+            names.add(job.name());
+            queue.done(job);
+        }
+        return names;
+    }
+
+    private static FutureTask<Job> takeAsync(FairQueue<Job> queue) {
+        FutureTask<Job> task = new FutureTask<>(queue::take);
+        Thread.ofVirtual().start(task);
+        return task;
+    }
+
+    private static void assertBlocked(FutureTask<?> task) {
+        assertThatThrownBy(() -> task.get(200, TimeUnit.MILLISECONDS))
+                .isInstanceOf(TimeoutException.class);
+    }
+
+    private record Job(String name, String language, JobClass jobClass, int userId, int cost)
+            implements FairQueue.Schedulable {
+    }
+}
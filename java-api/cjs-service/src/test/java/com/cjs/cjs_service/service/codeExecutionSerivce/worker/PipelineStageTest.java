@@ -0,0 +1,99 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.worker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A stage with a single worker, so anything handled after a failure was
+ * handled by the same worker that saw the failure.
+ */
+class PipelineStageTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BlockingQueue<String> handled = new LinkedBlockingQueue<>();
+    private final List<String> failed = new CopyOnWriteArrayList<>();
+
+    @Test
+    void throwingHandlerFailsOnlyThatItem() throws Exception {
+        PipelineStage<String> stage = new PipelineStage<>("test", 10,
+                item -> {
+                    if (item.startsWith("bad")) {
+                        throw new IllegalStateException("broken " + item);
+                    }
+                    handled.add(item);
+                },
+                (item, e) -> failed.add(item + ": " + e.getMessage()),
+                registry);
+        stage.start(1);
+
+        stage.put("bad-1");
+        stage.put("good-1");
+        stage.put("bad-2");
+        stage.put("good-2");
+
+        assertThat(handled.poll(5, TimeUnit.SECONDS)).isEqualTo("good-1");
+        assertThat(handled.poll(5, TimeUnit.SECONDS)).isEqualTo("good-2");
+        assertThat(failed).containsExactly("bad-1: broken bad-1", "bad-2: broken bad-2");
+    }
+
+    // e.g. the database is down, so even writing the failure throws
+    @Test
+    void throwingFailureHandlerDoesNotStopTheWorker() throws Exception {
+        PipelineStage<String> stage = new PipelineStage<>("test", 10,
+                item -> {
+                    if (item.equals("bad")) {
+                        throw new IllegalStateException("broken");
+                    }
+                    handled.add(item);
+                },
+                (item, e) -> {
+                    throw new IllegalStateException("cannot record failure");
+                },
+                registry);
+        stage.start(1);
+
+        stage.put("bad");
+        stage.put("good");
+
+        assertThat(handled.poll(5, TimeUnit.SECONDS)).isEqualTo("good");
+    }
+
+    @Test
+    void fullQueueHoldsBackPut() throws Exception {
+        BlockingQueue<String> gate = new LinkedBlockingQueue<>();
+        PipelineStage<String> stage = new PipelineStage<>("test", 1,
+                item -> handled.add(item + gate.take()),
+                (item, e) -> failed.add(item),
+                registry);
+        stage.start(1);
+
+        stage.put("a");
+        assertThat(handled.poll(100, TimeUnit.MILLISECONDS)).isNull();
+        stage.put("b"); // worker is busy with a; b fills the queue
+
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try {
+                stage.put("c");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.join(200);
+        assertThat(producer.isAlive()).isTrue();
+
+        gate.add("!");
+        producer.join(5000);
+        assertThat(producer.isAlive()).isFalse();
+        assertThat(handled.poll(5, TimeUnit.SECONDS)).isEqualTo("a!");
+        assertThat(failed).isEmpty();
+    }
+}
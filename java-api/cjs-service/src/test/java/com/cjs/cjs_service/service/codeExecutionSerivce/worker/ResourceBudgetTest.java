@@ -0,0 +1,132 @@
+package com.cjs.cjs_service.service.codeExecutionSerivce.worker;
+
+import com.github.dockerjava.api.DockerClient;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Admission against a host of 4 CPUs and 1000 MB. Blocked acquires run
+ * on their own threads; whether one got through is read off its future.
+ */
+class ResourceBudgetTest {
+
+    private ResourceBudget budget;
+
+    @BeforeEach
+    void setUp() {
+        budget = new ResourceBudget(mock(DockerClient.class));
+        ReflectionTestUtils.setField(budget, "configuredCpus", 4);
+        ReflectionTestUtils.setField(budget, "configuredMemoryMb", 1000L);
+        budget.detectCapacity();
+    }
+
+    @Test
+    void grantsWhatFits() throws Exception {
+        budget.acquire(400, 1000);
+        budget.acquire(400, 1000);
+
+        CompletableFuture<ResourceBudget.Reservation> third = acquireLater(400, 1000);
+        assertWaiting(third);
+    }
+
+    @Test
+    void capsReservationsAtHostSize() throws Exception {
+        ResourceBudget.Reservation huge = budget.acquire(64_000, 16_000);
+
+        assertThat(huge.memoryMb()).isEqualTo(1000);
+        assertThat(huge.milliCpus()).isEqualTo(4000);
+    }
+
+    @Test
+    void smallJobsDoNotOvertakeALargeOne() throws Exception {
+        ResourceBudget.Reservation running = budget.acquire(600, 1000);
+
+        CompletableFuture<ResourceBudget.Reservation> large = acquireLater(1000, 1000);
+        assertWaiting(large);
+
+        // Would fit next to the running job, but the large one came first
+        CompletableFuture<ResourceBudget.Reservation> small = acquireLater(200, 1000);
+        assertWaiting(small);
+
+        budget.release(running);
+        ResourceBudget.Reservation largeGot = large.get(5, TimeUnit.SECONDS);
+        assertWaiting(small);
+
+        budget.release(largeGot);
+        assertThat(small.get(5, TimeUnit.SECONDS).memoryMb()).isEqualTo(200);
+    }
+
+    @Test
+    void releaseServesSeveralWaitersInOrder() throws Exception {
+        ResourceBudget.Reservation running = budget.acquire(1000, 1000);
+
+        CompletableFuture<ResourceBudget.Reservation> first = acquireLater(300, 1000);
+        assertWaiting(first);
+        CompletableFuture<ResourceBudget.Reservation> second = acquireLater(300, 1000);
+        assertWaiting(second);
+
+        budget.release(running);
+
+        // One release makes room for both; the head wakes the next one
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void interruptedWaiterGivesUpItsTurn() throws Exception {
+        budget.acquire(600, 1000);
+
+        CompletableFuture<Throwable> large = new CompletableFuture<>();
+        Thread largeThread = Thread.ofVirtual().start(() -> {
+            try {
+                budget.acquire(1000, 1000);
+                large.complete(null);
+            } catch (InterruptedException e) {
+                large.complete(e);
+            }
+        });
+        assertWaiting(large);
+        CompletableFuture<ResourceBudget.Reservation> small = acquireLater(200, 1000);
+        assertWaiting(small);
+
+        largeThread.interrupt();
+
+        assertThat(large.get(5, TimeUnit.SECONDS)).isInstanceOf(InterruptedException.class);
+        assertThat(small.get(5, TimeUnit.SECONDS).memoryMb()).isEqualTo(200);
+    }
+
+    @Test
+    void capacityForCountsTheScarcerResource() {
+        assertThat(budget.capacityFor(256, 1000)).isEqualTo(3);
+        assertThat(budget.capacityFor(100, 500)).isEqualTo(8);
+        assertThat(budget.capacityFor(5000, 1000)).isEqualTo(1);
+    }
+
+    private CompletableFuture<ResourceBudget.Reservation> acquireLater(long memoryMb, long milliCpus)
+            throws InterruptedException {
+        CompletableFuture<ResourceBudget.Reservation> future = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                future.complete(budget.acquire(memoryMb, milliCpus));
+            } catch (InterruptedException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        // Let it reach the line before the next one is started
+        Thread.sleep(50);
+        return future;
+    }
+
+    private static void assertWaiting(CompletableFuture<?> future) throws InterruptedException {
+        Thread.sleep(100);
+        assertThat(future).isNotDone();
+    }
+}